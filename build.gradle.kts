@@ -3,7 +3,7 @@ plugins {
 	id("org.springframework.boot") version "4.0.1"
 	id("io.spring.dependency-management") version "1.1.7"
 	id("com.diffplug.spotless") version "8.1.0"
-
+	id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.example"
@@ -20,19 +20,99 @@ repositories {
 	mavenCentral()
 }
 
+// End-to-end load tests against a booted application, see LoadTest
+val loadTest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadTest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadTest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-webmvc")
     implementation("org.springframework.boot:spring-boot-starter-validation")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 
     testImplementation("org.springframework.boot:spring-boot-starter-webmvc-test")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    jmh("tools.jackson.core:jackson-databind")
+
+    "loadTestImplementation"("org.hdrhistogram:HdrHistogram:2.2.2")
 }
 
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
 
+// ./gradlew jmh [-PjmhIncludes=<regex>] runs the benchmarks in src/jmh with the GC profiler and writes JSON results,
+// jmhCompare reports the change against src/jmh/baseline.json and jmhSaveBaseline replaces the baseline.
+val jmhResults = layout.buildDirectory.file("results/jmh/results.json")
+val jmhBaseline = layout.projectDirectory.file("src/jmh/baseline.json")
+
+jmh {
+    warmupIterations = 3
+    warmup = "1s"
+    iterations = 5
+    timeOnIteration = "1s"
+    fork = 1
+    jvmArgs = listOf("-Xms2g", "-Xmx2g")
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+    resultsFile = jmhResults
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes = listOf(it) }
+}
+
+tasks.register<JavaExec>("jmhCompare") {
+    group = "benchmark"
+    description = "Compares the latest JMH results with the baseline and fails on regressions."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "com.example.tinyledger.benchmark.BenchmarkComparison"
+    args(
+            jmhBaseline.asFile.path,
+            jmhResults.get().asFile.path,
+            providers.gradleProperty("jmhThreshold").getOrElse("10"))
+    doFirst {
+        if (!jmhBaseline.asFile.exists()) {
+            val baseline = jmhBaseline.asFile.path
+            throw GradleException("No JMH baseline at $baseline: run jmh and then jmhSaveBaseline to record one")
+        }
+        if (!jmhResults.get().asFile.exists()) {
+            throw GradleException("No JMH results at ${jmhResults.get().asFile.path}: run jmh first")
+        }
+    }
+}
+
+tasks.register<Copy>("jmhSaveBaseline") {
+    group = "benchmark"
+    description = "Saves the latest JMH results as the baseline."
+    from(jmhResults)
+    into(jmhBaseline.asFile.parentFile)
+    rename { jmhBaseline.asFile.name }
+}
+
+// ./gradlew loadTest --args="--rate=2000 --duration=60s" boots the application and writes
+// build/reports/load-test/report.json
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Runs an open-model HTTP load test against the application."
+    classpath = loadTest.runtimeClasspath
+    mainClass = "com.example.tinyledger.loadtest.LoadTest"
+    jvmArgs("-Xmx2g")
+}
+
+// ./gradlew ingestionComparison --args="--duration=30s --connections=8 --pipeline=128" compares deposits per second
+// through the REST API and the TCP ingestion endpoint
+tasks.register<JavaExec>("ingestionComparison") {
+    group = "verification"
+    description = "Compares transaction ingestion throughput over HTTP and over the binary TCP protocol."
+    classpath = loadTest.runtimeClasspath
+    mainClass = "com.example.tinyledger.loadtest.IngestionComparison"
+    jvmArgs("-Xmx2g")
+}
 
 spotless {
     java {
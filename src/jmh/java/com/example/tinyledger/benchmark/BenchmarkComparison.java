@@ -0,0 +1,127 @@
+package com.example.tinyledger.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Compares two JMH JSON result files and prints the change of every benchmark's score and allocation rate. Exits with
+ * status 1 when a benchmark got worse by more than the threshold percentage: lower throughput, or higher time per
+ * operation, and with status 2 when either file is missing.
+ *
+ * <p>Usage: {@code BenchmarkComparison <baseline.json> <results.json> [thresholdPercent]}
+ */
+public final class BenchmarkComparison {
+    private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+    private static final String[] ALLOCATION_METRICS = {"gc.alloc.rate.norm", "·gc.alloc.rate.norm"};
+
+    private BenchmarkComparison() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <results.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        var baselineFile = Path.of(args[0]);
+        var resultsFile = Path.of(args[1]);
+        var threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        // A missing file must fail the build: passing without comparing anything would hide every regression
+        if (!Files.exists(baselineFile)) {
+            System.err.printf("No baseline at %s, run jmh and then jmhSaveBaseline to create one%n", baselineFile);
+            System.exit(2);
+        }
+        if (!Files.exists(resultsFile)) {
+            System.err.printf("No results at %s, run jmh first%n", resultsFile);
+            System.exit(2);
+        }
+        var baseline = read(baselineFile);
+        var results = read(resultsFile);
+
+        System.out.printf(
+                "%-100s %14s %14s %9s %14s %14s%n",
+                "Benchmark", "Baseline", "Current", "Change", "Baseline B/op", "Current B/op");
+        var regressions = 0;
+        for (var entry : results.entrySet()) {
+            var current = entry.getValue();
+            var previous = baseline.get(entry.getKey());
+            if (previous == null) {
+                System.out.printf(
+                        "%-100s %14s %14.3f %9s %14s %14s  NEW%n",
+                        entry.getKey(), "-", current.score(), "-", "-", allocation(current));
+                continue;
+            }
+            var change = (current.score() - previous.score()) / previous.score() * 100;
+            var worse = current.higherIsBetter() ? -change : change;
+            var regression = worse > threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf(
+                    "%-100s %14.3f %14.3f %+8.1f%% %14s %14s%s%n",
+                    entry.getKey(),
+                    previous.score(),
+                    current.score(),
+                    change,
+                    allocation(previous),
+                    allocation(current),
+                    regression ? "  REGRESSION" : "");
+        }
+        baseline.keySet().stream()
+                .filter(key -> !results.containsKey(key))
+                .forEach(key -> System.out.printf("%-100s  MISSING%n", key));
+
+        System.out.printf("%d regressions over %.1f%% (units: %s)%n", regressions, threshold, units(results));
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Result> read(Path file) {
+        var results = new TreeMap<String, Result>();
+        for (JsonNode benchmark : JSON_MAPPER.readTree(file.toFile())) {
+            var params = new LinkedHashMap<String, String>();
+            var paramsNode = benchmark.get("params");
+            if (paramsNode != null) {
+                paramsNode.properties().forEach(param -> params.put(param.getKey(), param.getValue().asString()));
+            }
+            var key = benchmark.get("benchmark").asString() + " [" + benchmark.get("threads").asString() + "t]"
+                    + (params.isEmpty() ? "" : " " + params);
+            var primary = benchmark.get("primaryMetric");
+            Double allocation = null;
+            var secondary = benchmark.get("secondaryMetrics");
+            for (var metric : ALLOCATION_METRICS) {
+                if (secondary != null && secondary.get(metric) != null) {
+                    allocation = secondary.get(metric).get("score").asDouble();
+                }
+            }
+            results.put(
+                    key,
+                    new Result(
+                            benchmark.get("mode").asString(),
+                            primary.get("score").asDouble(),
+                            primary.get("scoreUnit").asString(),
+                            allocation));
+        }
+        return results;
+    }
+
+    private static String allocation(Result result) {
+        return result.allocation() == null ? "-" : "%.1f".formatted(result.allocation());
+    }
+
+    private static String units(Map<String, Result> results) {
+        return String.join(
+                ", ",
+                results.values().stream().map(Result::unit).distinct().sorted().toList());
+    }
+
+    private record Result(String mode, double score, String unit, Double allocation) {
+        private boolean higherIsBetter() {
+            return mode.equals("thrpt");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.tinyledger.common.id;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+
+/** Id generation throughput with 32 threads generating at once, the contention {@code randomUUID} suffers from. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(32)
+public class IdGeneratorBenchmark {
+    private static final IdGenerator TIME_ORDERED = IdGenerator.timeOrdered();
+
+    @Benchmark
+    public UUID randomUuid() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID timeOrdered() {
+        return TIME_ORDERED.nextId();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.tinyledger.ledger.controller.response;
+
+import com.example.tinyledger.ledger.domain.Ledger;
+import com.example.tinyledger.ledger.domain.Money;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tools.jackson.databind.json.JsonMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransactionResponseSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int transactionCount;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private List<TransactionResponse> responses;
+
+    @Setup
+    public void setUp() {
+        var ledger = new Ledger("Benchmark", UUID.randomUUID());
+        var amount = new Money(1L);
+        for (int i = 0; i < transactionCount; i++) {
+            ledger.deposit(amount);
+        }
+        responses = ledger.getTransactions().stream().map(TransactionResponse::from).toList();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return jsonMapper.writeValueAsBytes(responses);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.tinyledger.ledger.domain;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Writes to a ledger shared by every benchmark thread, which measures lock contention, and to a ledger per thread,
+ * which measures how far writes to different ledgers scale. Each subclass runs the same benchmarks with a different
+ * number of threads.
+ *
+ * <p>Ledgers keep their whole history, so they are recreated every iteration to keep the heap from filling up.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public abstract class LedgerBenchmark {
+    private static final Money AMOUNT = new Money(1L);
+    private static final Money FUNDS = new Money(Long.MAX_VALUE / 2);
+
+    @Threads(1)
+    public static class OneThread extends LedgerBenchmark {}
+
+    @Threads(4)
+    public static class FourThreads extends LedgerBenchmark {}
+
+    @Threads(Threads.MAX)
+    public static class MaxThreads extends LedgerBenchmark {}
+
+    @State(Scope.Benchmark)
+    public static class SharedLedgers {
+        Ledger ledger;
+        Map<UUID, Ledger> ledgersById;
+        List<PostingLeg> transfer;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            ledger = fundedLedger();
+            var other = fundedLedger();
+            ledgersById = Map.of(ledger.getId(), ledger, other.getId(), other);
+            transfer = transfer(ledger, other);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class OwnLedgers {
+        Ledger ledger;
+        Map<UUID, Ledger> ledgersById;
+        List<PostingLeg> transfer;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            ledger = fundedLedger();
+            var other = fundedLedger();
+            ledgersById = Map.of(ledger.getId(), ledger, other.getId(), other);
+            transfer = transfer(ledger, other);
+        }
+    }
+
+    @Benchmark
+    public Transaction depositSameLedger(SharedLedgers ledgers) {
+        return ledgers.ledger.deposit(AMOUNT);
+    }
+
+    @Benchmark
+    public Transaction depositOwnLedger(OwnLedgers ledgers) {
+        return ledgers.ledger.deposit(AMOUNT);
+    }
+
+    @Benchmark
+    public Transaction withdrawSameLedger(SharedLedgers ledgers) {
+        return ledgers.ledger.withdraw(AMOUNT);
+    }
+
+    @Benchmark
+    public Transaction withdrawOwnLedger(OwnLedgers ledgers) {
+        return ledgers.ledger.withdraw(AMOUNT);
+    }
+
+    @Benchmark
+    public List<Transaction> transferSameLedgers(SharedLedgers ledgers) {
+        return Ledger.post(ledgers.transfer, ledgers.ledgersById);
+    }
+
+    @Benchmark
+    public List<Transaction> transferDisjointLedgers(OwnLedgers ledgers) {
+        return Ledger.post(ledgers.transfer, ledgers.ledgersById);
+    }
+
+    private static Ledger fundedLedger() {
+        var ledger = new Ledger("Benchmark", UUID.randomUUID());
+        ledger.deposit(FUNDS);
+        return ledger;
+    }
+
+    private static List<PostingLeg> transfer(Ledger from, Ledger to) {
+        return List.of(
+                new PostingLeg(from.getId(), TransactionType.WITHDRAW, AMOUNT),
+                new PostingLeg(to.getId(), TransactionType.DEPOSIT, AMOUNT));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.tinyledger.ledger.domain;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+    private Money balance;
+    private Money amount;
+
+    @Setup
+    public void setUp() {
+        balance = new Money(1_000_000L);
+        amount = new Money(250L);
+    }
+
+    // The arithmetic Ledger uses for its balance, expected to allocate nothing
+    @Benchmark
+    public long addAmounts() {
+        return Money.add(balance.amount(), amount.amount());
+    }
+
+    @Benchmark
+    public long subtractAmounts() {
+        return Money.subtract(balance.amount(), amount.amount());
+    }
+
+    @Benchmark
+    public Money add() {
+        return balance.add(amount);
+    }
+
+    @Benchmark
+    public Money subtract() {
+        return balance.subtract(amount);
+    }
+}
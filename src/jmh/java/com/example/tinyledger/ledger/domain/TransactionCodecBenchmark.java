@@ -0,0 +1,101 @@
+package com.example.tinyledger.ledger.domain;
+
+import com.example.tinyledger.common.id.IdGenerator;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Encodes and decodes a run of time-ordered transactions arriving at random intervals, per transaction. The
+ * {@code bytesPerTransaction} counter reports the encoded size; unencoded, the id, ledger id, amount, epoch seconds and
+ * nanos and the type take 53 bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(TransactionCodecBenchmark.RUN_LENGTH)
+public class TransactionCodecBenchmark {
+    static final int RUN_LENGTH = 4096;
+
+    private final UUID ledgerId = UUID.randomUUID();
+    private final TransactionCodec.Encoder encoder = new TransactionCodec.Encoder();
+    private final TransactionCodec.Decoder decoder = new TransactionCodec.Decoder(ledgerId);
+    private final ByteBuffer buffer = ByteBuffer.allocate(RUN_LENGTH * TransactionCodec.MAX_RECORD_BYTES);
+    private List<Transaction> transactions;
+    private ByteBuffer encoded;
+
+    @Setup
+    public void setUp() {
+        var ids = IdGenerator.timeOrdered();
+        var random = new SplittableRandom(42);
+        var occurredAt = Instant.parse("2026-01-01T00:00:00Z");
+        transactions = new ArrayList<>(RUN_LENGTH);
+        for (int i = 0; i < RUN_LENGTH; i++) {
+            occurredAt = occurredAt.plusNanos(random.nextLong(1_000, 100_000_000));
+            var type = random.nextInt(4) == 0 ? TransactionType.WITHDRAW : TransactionType.DEPOSIT;
+            var amount = new Money(random.nextLong(1, 100_000));
+            transactions.add(new Transaction(ids.nextId(), ledgerId, type, amount, occurredAt));
+        }
+        encoded = ByteBuffer.allocate(buffer.capacity());
+        transactions.forEach(transaction -> encoder.encode(transaction, encoded));
+        encoded.flip();
+        encoder.reset();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Size {
+        public double bytesPerTransaction;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesPerTransaction = 0;
+        }
+    }
+
+    @Benchmark
+    public int encode(Size size) {
+        buffer.clear();
+        encoder.reset();
+        for (var transaction : transactions) {
+            encoder.encode(transaction, buffer);
+        }
+        size.bytesPerTransaction = (double) buffer.position() / RUN_LENGTH;
+        return buffer.position();
+    }
+
+    @Benchmark
+    public void decodeToColumns(Blackhole blackhole) {
+        var input = encoded.duplicate();
+        decoder.reset();
+        TransactionCodec.Sink sink = (mostSignificantBits, leastSignificantBits, type, amount, epochNanos) ->
+                blackhole.consume(amount ^ epochNanos ^ leastSignificantBits);
+        for (int i = 0; i < RUN_LENGTH; i++) {
+            decoder.decode(input, sink);
+        }
+    }
+
+    @Benchmark
+    public void decodeToTransactions(Blackhole blackhole) {
+        var input = encoded.duplicate();
+        decoder.reset();
+        for (int i = 0; i < RUN_LENGTH; i++) {
+            blackhole.consume(decoder.decode(input));
+        }
+    }
+}
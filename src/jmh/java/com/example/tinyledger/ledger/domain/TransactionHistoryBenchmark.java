@@ -0,0 +1,47 @@
+package com.example.tinyledger.ledger.domain;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransactionHistoryBenchmark {
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"100", "10000", "1000000"})
+    private int historySize;
+
+    @Param({"OBJECTS", "COLUMNAR"})
+    private HistoryStorage historyStorage;
+
+    private Ledger ledger;
+
+    @Setup
+    public void setUp() {
+        ledger = new Ledger("Benchmark", UUID.randomUUID(), historyStorage);
+        var amount = new Money(1L);
+        for (int i = 0; i < historySize; i++) {
+            ledger.deposit(amount);
+        }
+    }
+
+    @Benchmark
+    public List<Transaction> getTransactions() {
+        return ledger.getTransactions();
+    }
+
+    @Benchmark
+    public TransactionPage getNewestPage() {
+        return ledger.getTransactions(null, PAGE_SIZE, TransactionOrder.NEWEST_FIRST);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.tinyledger.ledger.repository;
+
+import com.example.tinyledger.ledger.domain.Ledger;
+import com.example.tinyledger.ledger.metrics.LedgerMetrics;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LedgerRepositoryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int ledgerCount;
+
+    @Param({"10"})
+    private int ledgersPerUser;
+
+    private LedgerInMemoryRepository repository;
+    private UUID[] userIds;
+
+    @Setup
+    public void setUp() {
+        repository = new LedgerInMemoryRepository(LedgerMetrics.NONE);
+        userIds = new UUID[ledgerCount / ledgersPerUser];
+        for (int i = 0; i < userIds.length; i++) {
+            userIds[i] = UUID.randomUUID();
+            for (int j = 0; j < ledgersPerUser; j++) {
+                repository.save(new Ledger("Benchmark", userIds[i]));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Ledger> getLedgersByUserId() {
+        return repository.getLedgersByUserId(userIds[ThreadLocalRandom.current().nextInt(userIds.length)]);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.tinyledger.loadtest;
+
+import java.util.Arrays;
+
+enum Endpoint {
+    CREATE_USER("create-user"),
+    CREATE_LEDGER("create-ledger"),
+    DEPOSIT("deposit"),
+    WITHDRAW("withdraw"),
+    BALANCE("balance"),
+    HISTORY("history"),
+    // Like balance and history, but send If-None-Match with the last ETag seen for the ledger
+    POLL_BALANCE("poll-balance"),
+    POLL_HISTORY("poll-history");
+
+    private final String id;
+
+    Endpoint(String id) {
+        this.id = id;
+    }
+
+    String id() {
+        return id;
+    }
+
+    static Endpoint fromId(String id) {
+        return Arrays.stream(values())
+                .filter(endpoint -> endpoint.id.equals(id))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown endpoint in mix: " + id));
+    }
+}
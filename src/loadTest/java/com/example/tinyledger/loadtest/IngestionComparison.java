@@ -0,0 +1,201 @@
+package com.example.tinyledger.loadtest;
+
+import com.example.tinyledger.TinyLedgerApplication;
+import com.example.tinyledger.ledger.domain.TransactionType;
+import com.example.tinyledger.ledger.tcp.BinaryProtocol;
+import com.example.tinyledger.ledger.tcp.TcpIngestionServer;
+import com.sun.management.OperatingSystemMXBean;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.boot.SpringApplication;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Closed-loop comparison of creating transactions through the REST API and through the TCP ingestion endpoint. Boots
+ * {@link TinyLedgerApplication} with both enabled, keeps {@code connections * pipeline} deposits in flight through each
+ * for the same time and prints the messages per second and the CPU time per message of this JVM, client included. Run
+ * it with {@code ./gradlew ingestionComparison --args="--duration=30s --connections=8 --pipeline=128"}; options that
+ * start with {@code --spring.}, {@code --server.} or {@code --tiny-ledger.} are passed on to the application.
+ */
+public final class IngestionComparison {
+    private static final OperatingSystemMXBean OS =
+            (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    private final List<UUID> ledgerIds;
+    private final int connections;
+    private final int pipeline;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile boolean running;
+
+    private IngestionComparison(List<UUID> ledgerIds, int connections, int pipeline) {
+        this.ledgerIds = ledgerIds;
+        this.connections = connections;
+        this.pipeline = pipeline;
+    }
+
+    public static void main(String[] args) throws Exception {
+        var values = new HashMap<String, String>();
+        var applicationArgs = new ArrayList<>(
+                List.of("--server.port=0", "--tiny-ledger.tcp.enabled=true", "--tiny-ledger.tcp.port=0"));
+        for (var arg : args) {
+            if (arg.startsWith("--spring.") || arg.startsWith("--server.") || arg.startsWith("--tiny-ledger.")) {
+                applicationArgs.add(arg);
+            } else if (arg.startsWith("--") && arg.contains("=")) {
+                var separator = arg.indexOf('=');
+                values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            } else {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+        }
+        var warmup = LoadTestOptions.duration(values.getOrDefault("warmup", "5s"));
+        var duration = LoadTestOptions.duration(values.getOrDefault("duration", "20s"));
+        var connections = Integer.parseInt(values.getOrDefault("connections", "8"));
+        var pipeline = Integer.parseInt(values.getOrDefault("pipeline", "128"));
+        var ledgers = Integer.parseInt(values.getOrDefault("ledgers", "100"));
+
+        try (var context = SpringApplication.run(TinyLedgerApplication.class, applicationArgs.toArray(String[]::new))) {
+            var baseUrl = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+            var tcpPort = context.getBean(TcpIngestionServer.class).port();
+            var client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            var comparison = new IngestionComparison(seed(client, baseUrl, ledgers), connections, pipeline);
+            System.out.printf(
+                    "%d deposits in flight (%d connections x %d pipelined for TCP), %d s after a %d s warmup%n",
+                    connections * pipeline, connections, pipeline, duration.toSeconds(), warmup.toSeconds());
+            System.out.printf("%-6s %14s %18s %9s%n", "", "messages/s", "CPU us/message", "failed");
+            comparison.measure("http", warmup, duration, () -> comparison.sendHttp(client, baseUrl));
+            comparison.measure("tcp", warmup, duration, () -> comparison.sendTcp(tcpPort));
+        }
+    }
+
+    private static List<UUID> seed(HttpClient client, URI baseUrl, int ledgers) throws Exception {
+        var jsonMapper = JsonMapper.builder().build();
+        var user = client.send(
+                post(
+                        baseUrl.resolve("/users"),
+                        "{\"firstName\":\"Load\",\"lastName\":\"Test\",\"emailAddress\":\"ingestion@example.com\"}"),
+                HttpResponse.BodyHandlers.ofString());
+        var userId = jsonMapper.readTree(user.body()).get("id").asString();
+        var ledgerIds = new ArrayList<UUID>(ledgers);
+        for (int i = 0; i < ledgers; i++) {
+            var ledger = client.send(
+                    post(baseUrl.resolve("/ledgers"), "{\"name\":\"Ingestion\",\"userId\":\"%s\"}".formatted(userId)),
+                    HttpResponse.BodyHandlers.ofString());
+            ledgerIds.add(UUID.fromString(jsonMapper.readTree(ledger.body()).get("id").asString()));
+        }
+        return ledgerIds;
+    }
+
+    private void measure(String protocol, Duration warmup, Duration duration, Runnable sender)
+            throws InterruptedException {
+        running = true;
+        var senders = new ArrayList<Thread>();
+        var threads = protocol.equals("http") ? connections * pipeline : connections;
+        for (int i = 0; i < threads; i++) {
+            senders.add(Thread.ofVirtual().start(sender));
+        }
+        Thread.sleep(warmup);
+        var completedBefore = completed.sum();
+        var failedBefore = failed.sum();
+        var cpuBefore = OS.getProcessCpuTime();
+        var startedAt = System.nanoTime();
+        Thread.sleep(duration);
+        var messages = completed.sum() - completedBefore;
+        var seconds = (System.nanoTime() - startedAt) / 1e9;
+        var cpuNanos = OS.getProcessCpuTime() - cpuBefore;
+        System.out.printf(
+                "%-6s %14.0f %18.1f %9d%n",
+                protocol,
+                messages / seconds,
+                messages == 0 ? 0.0 : cpuNanos / 1e3 / messages,
+                failed.sum() - failedBefore);
+        running = false;
+        for (var thread : senders) {
+            thread.join();
+        }
+    }
+
+    // One deposit at a time, as an HTTP/1.1 connection allows
+    private void sendHttp(HttpClient client, URI baseUrl) {
+        while (running) {
+            var request = post(
+                    baseUrl.resolve("/ledgers/%s/transactions".formatted(ledger())),
+                    "{\"transactionType\":\"DEPOSIT\",\"amount\":1}");
+            try {
+                var response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                (response.statusCode() == 201 ? completed : failed).increment();
+            } catch (IOException e) {
+                failed.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Keeps the pipeline full: every response read is replaced by a new request in the next write
+    private void sendTcp(int port) {
+        try (var channel = SocketChannel.open(new InetSocketAddress("localhost", port))) {
+            var requests = ByteBuffer.allocate(pipeline * BinaryProtocol.MAX_FRAME_BYTES);
+            var responses = ByteBuffer.allocate(64 * 1024);
+            var requestId = 0L;
+            var toSend = pipeline;
+            while (running) {
+                requests.clear();
+                for (int i = 0; i < toSend; i++) {
+                    BinaryProtocol.putCreateTransaction(
+                            requests, requestId++, ledger(), TransactionType.DEPOSIT, 1, null);
+                }
+                requests.flip();
+                while (requests.hasRemaining()) {
+                    channel.write(requests);
+                }
+                toSend = 0;
+                while (toSend == 0) {
+                    if (channel.read(responses) < 0) {
+                        return;
+                    }
+                    responses.flip();
+                    BinaryProtocol.Response response;
+                    while ((response = BinaryProtocol.readResponse(responses)) != null) {
+                        (response.error() == null ? completed : failed).increment();
+                        toSend++;
+                    }
+                    responses.compact();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private UUID ledger() {
+        return ledgerIds.get(ThreadLocalRandom.current().nextInt(ledgerIds.size()));
+    }
+
+    private static HttpRequest post(URI uri, String body) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
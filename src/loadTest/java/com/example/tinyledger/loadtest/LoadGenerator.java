@@ -0,0 +1,339 @@
+package com.example.tinyledger.loadtest;
+
+import com.sun.management.OperatingSystemMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Open-model load generator: requests are scheduled at fixed or Poisson-distributed arrival times that do not depend on
+ * how fast earlier requests complete, and each latency is measured from the request's scheduled time. A server that
+ * falls behind therefore shows up as queueing in the latency percentiles instead of as a lower request rate
+ * (coordinated omission).
+ */
+final class LoadGenerator {
+    private static final int SEED_CONCURRENCY = 64;
+    private static final long SEED_BALANCE = 1_000_000;
+    private static final int HISTORY_PAGE_SIZE = 50;
+    private static final int MAX_AMOUNT = 1_000;
+
+    private final URI baseUrl;
+    private final LoadTestOptions options;
+    private final HttpClient client;
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger createdUsers = new AtomicInteger();
+    // Last ETag seen per polled URI
+    private final Map<URI, String> etags = new ConcurrentHashMap<>();
+    private final OperatingSystemMXBean os = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    private final Endpoint[] mixEndpoints;
+    // Cumulative weights of mixEndpoints
+    private final int[] mixWeights;
+    private List<UUID> userIds = List.of();
+    private List<UUID> ledgerIds = List.of();
+    private ZipfDistribution hotLedgers;
+
+    LoadGenerator(URI baseUrl, LoadTestOptions options) {
+        this.baseUrl = baseUrl;
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (var endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+        this.mixEndpoints = options.mix().keySet().toArray(Endpoint[]::new);
+        this.mixWeights = new int[mixEndpoints.length];
+        var sum = 0;
+        for (int i = 0; i < mixEndpoints.length; i++) {
+            sum += options.mix().get(mixEndpoints[i]);
+            mixWeights[i] = sum;
+        }
+    }
+
+    /**
+     * Creates the users and ledgers the load runs against. Every ledger gets an opening balance, then the seed
+     * transactions are spread over the ledgers with the same Zipf distribution as the load, so hot ledgers also have
+     * long histories.
+     */
+    void seed() {
+        userIds = createAll(options.users(), i -> createUserRequest());
+        ledgerIds = createAll(options.ledgers(), i -> createLedgerRequest(userIds.get(i % userIds.size())));
+        hotLedgers = new ZipfDistribution(ledgerIds.size(), options.zipfExponent());
+        var deposits = new ArrayList<HttpRequest>(ledgerIds.size() + options.seedTransactions());
+        ledgerIds.forEach(ledgerId -> deposits.add(transactionRequest(ledgerId, "DEPOSIT", SEED_BALANCE)));
+        for (int i = 0; i < options.seedTransactions(); i++) {
+            deposits.add(transactionRequest(hotLedger(), "DEPOSIT", amount()));
+        }
+        sendAll(deposits);
+    }
+
+    LoadTestReport run() {
+        var startedAt = Instant.now();
+        var intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        var start = System.nanoTime();
+        var measureFrom = start + options.warmup().toNanos();
+        var end = measureFrom + options.duration().toNanos();
+        var scheduledAt = start;
+        var cpuAtMeasureFrom = -1L;
+        while (scheduledAt < end) {
+            var wait = scheduledAt - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            var measured = scheduledAt >= measureFrom;
+            if (measured && cpuAtMeasureFrom < 0) {
+                cpuAtMeasureFrom = os.getProcessCpuTime();
+            }
+            send(nextEndpoint(), scheduledAt, measured);
+            var interval = options.poisson() ? -Math.log(1 - random.nextDouble()) * intervalNanos : intervalNanos;
+            scheduledAt += (long) interval;
+        }
+        var deadline = System.nanoTime() + options.requestTimeout().toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return report(startedAt, os.getProcessCpuTime() - Math.max(cpuAtMeasureFrom, 0));
+    }
+
+    private void send(Endpoint endpoint, long scheduledAt, boolean measured) {
+        var endpointStats = stats.get(endpoint);
+        if (inFlight.get() >= options.maxInFlight()) {
+            if (measured) {
+                endpointStats.dropped.increment();
+            }
+            return;
+        }
+        var conditional = endpoint == Endpoint.POLL_BALANCE || endpoint == Endpoint.POLL_HISTORY;
+        inFlight.incrementAndGet();
+        client.sendAsync(request(endpoint), HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, failure) -> {
+                    inFlight.decrementAndGet();
+                    if (conditional && failure == null && response.statusCode() == 200) {
+                        response.headers()
+                                .firstValue("ETag")
+                                .ifPresent(etag -> etags.put(response.request().uri(), etag));
+                    }
+                    if (!measured) {
+                        return;
+                    }
+                    if (failure != null || response.statusCode() >= 500) {
+                        endpointStats.failed.increment();
+                        return;
+                    }
+                    endpointStats.latencyMicros.recordValue(
+                            TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledAt));
+                    endpointStats.responseBytes.add(response.body().length);
+                    if (response.statusCode() >= 400) {
+                        endpointStats.rejected.increment();
+                    } else {
+                        endpointStats.succeeded.increment();
+                        if (response.statusCode() == 304) {
+                            endpointStats.notModified.increment();
+                        }
+                    }
+                });
+    }
+
+    private HttpRequest request(Endpoint endpoint) {
+        return switch (endpoint) {
+            case CREATE_USER -> createUserRequest();
+            case CREATE_LEDGER -> createLedgerRequest(userIds.get(random.nextInt(userIds.size())));
+            case DEPOSIT -> transactionRequest(hotLedger(), "DEPOSIT", amount());
+            case WITHDRAW -> transactionRequest(hotLedger(), "WITHDRAW", amount());
+            case BALANCE -> get(balancePath(hotLedger()));
+            case HISTORY -> get(historyPath(hotLedger()));
+            case POLL_BALANCE -> conditionalGet(balancePath(hotLedger()));
+            case POLL_HISTORY -> conditionalGet(historyPath(hotLedger()));
+        };
+    }
+
+    private static String balancePath(UUID ledgerId) {
+        return "/ledgers/%s/balance".formatted(ledgerId);
+    }
+
+    private static String historyPath(UUID ledgerId) {
+        return "/ledgers/%s/transactions?limit=%d&order=NEWEST_FIRST".formatted(ledgerId, HISTORY_PAGE_SIZE);
+    }
+
+    private HttpRequest createUserRequest() {
+        var n = createdUsers.incrementAndGet();
+        return post(
+                "/users",
+                "{\"firstName\":\"Load\",\"lastName\":\"Test %d\",\"emailAddress\":\"load-%d@example.com\"}"
+                        .formatted(n, n));
+    }
+
+    private HttpRequest createLedgerRequest(UUID userId) {
+        return post("/ledgers", "{\"name\":\"Load test\",\"userId\":\"%s\"}".formatted(userId));
+    }
+
+    private HttpRequest transactionRequest(UUID ledgerId, String type, long amount) {
+        return post(
+                "/ledgers/%s/transactions".formatted(ledgerId),
+                "{\"transactionType\":\"%s\",\"amount\":%d}".formatted(type, amount));
+    }
+
+    private HttpRequest post(String path, String body) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(options.requestTimeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(options.requestTimeout())
+                .GET()
+                .build();
+    }
+
+    private HttpRequest conditionalGet(String path) {
+        var uri = baseUrl.resolve(path);
+        var request = HttpRequest.newBuilder(uri).timeout(options.requestTimeout());
+        var etag = etags.get(uri);
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        return request.GET().build();
+    }
+
+    private UUID hotLedger() {
+        return ledgerIds.get(hotLedgers.sample(random));
+    }
+
+    private long amount() {
+        return 1 + random.nextInt(MAX_AMOUNT);
+    }
+
+    private List<UUID> createAll(int count, IntFunction<HttpRequest> requests) {
+        var ids = new ArrayList<UUID>(count);
+        for (int from = 0; from < count; from += SEED_CONCURRENCY) {
+            var responses = new ArrayList<CompletableFuture<HttpResponse<String>>>();
+            for (int i = from; i < Math.min(from + SEED_CONCURRENCY, count); i++) {
+                responses.add(client.sendAsync(requests.apply(i), HttpResponse.BodyHandlers.ofString()));
+            }
+            for (var response : responses) {
+                var body = checkCreated(response.join()).body();
+                ids.add(UUID.fromString(jsonMapper.readTree(body).get("id").asString()));
+            }
+        }
+        return ids;
+    }
+
+    private void sendAll(List<HttpRequest> requests) {
+        for (int from = 0; from < requests.size(); from += SEED_CONCURRENCY) {
+            requests.subList(from, Math.min(from + SEED_CONCURRENCY, requests.size())).stream()
+                    .map(request -> client.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                    .toList()
+                    .forEach(response -> checkCreated(response.join()));
+        }
+    }
+
+    private static <T> HttpResponse<T> checkCreated(HttpResponse<T> response) {
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Seeding %s failed with status %d: %s"
+                    .formatted(response.request().uri(), response.statusCode(), response.body()));
+        }
+        return response;
+    }
+
+    private Endpoint nextEndpoint() {
+        var value = random.nextInt(mixWeights[mixWeights.length - 1]);
+        var index = 0;
+        while (value >= mixWeights[index]) {
+            index++;
+        }
+        return mixEndpoints[index];
+    }
+
+    private LoadTestReport report(Instant startedAt, long cpuNanos) {
+        var seconds = options.duration().toNanos() / 1e9;
+        var endpoints = new LinkedHashMap<String, LoadTestReport.EndpointReport>();
+        var completed = 0L;
+        for (var endpoint : options.mix().keySet()) {
+            var endpointStats = stats.get(endpoint);
+            var succeeded = endpointStats.succeeded.sum();
+            var notModified = endpointStats.notModified.sum();
+            var rejected = endpointStats.rejected.sum();
+            var failed = endpointStats.failed.sum();
+            var dropped = endpointStats.dropped.sum();
+            completed += succeeded + rejected;
+            endpoints.put(
+                    endpoint.id(),
+                    new LoadTestReport.EndpointReport(
+                            succeeded + rejected + failed + dropped,
+                            succeeded,
+                            notModified,
+                            rejected,
+                            failed,
+                            dropped,
+                            endpointStats.responseBytes.sum(),
+                            (succeeded + rejected) / seconds,
+                            latency(endpointStats.latencyMicros)));
+        }
+        var mix = new LinkedHashMap<String, Integer>();
+        options.mix().forEach((endpoint, weight) -> mix.put(endpoint.id(), weight));
+        return new LoadTestReport(
+                startedAt,
+                options.poisson() ? "poisson" : "constant",
+                options.rate(),
+                completed / seconds,
+                completed == 0 ? 0 : cpuNanos / 1e6 / completed,
+                options.duration().toMillis(),
+                mix,
+                options.applicationArgs(),
+                new LoadTestReport.Seed(
+                        options.users(), options.ledgers(), options.seedTransactions(), options.zipfExponent()),
+                endpoints);
+    }
+
+    private static LoadTestReport.Latency latency(Histogram histogram) {
+        return new LoadTestReport.Latency(
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()),
+                histogram.getTotalCount() == 0 ? 0 : histogram.getMean() / 1_000);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+
+    private static final class EndpointStats {
+        private final Histogram latencyMicros = new ConcurrentHistogram(3);
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder notModified = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.tinyledger.loadtest;
+
+import com.example.tinyledger.TinyLedgerApplication;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * End-to-end load test: boots {@link TinyLedgerApplication} on a random port in this JVM, or targets {@code --url},
+ * seeds it, drives an open-model request mix and writes a JSON report. Run it with
+ * {@code ./gradlew loadTest --args="--rate=2000 --duration=60s"}; see {@link LoadTestOptions} for every option.
+ */
+public final class LoadTest {
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        var options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext context = null;
+        var url = options.url();
+        if (url == null) {
+            var applicationArgs = new ArrayList<>(options.applicationArgs());
+            if (applicationArgs.stream().noneMatch(arg -> arg.startsWith("--server.port="))) {
+                applicationArgs.add("--server.port=0");
+            }
+            context = SpringApplication.run(TinyLedgerApplication.class, applicationArgs.toArray(String[]::new));
+            url = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+        }
+        try {
+            var generator = new LoadGenerator(url, options);
+            var seedStartedAt = System.nanoTime();
+            generator.seed();
+            System.out.printf(
+                    "Seeded %d users, %d ledgers and %d transactions in %d ms%n",
+                    options.users(),
+                    options.ledgers(),
+                    options.seedTransactions(),
+                    (System.nanoTime() - seedStartedAt) / 1_000_000);
+            var report = generator.run();
+            print(report);
+            Files.createDirectories(options.report().toAbsolutePath().getParent());
+            JsonMapper.builder()
+                    .enable(SerializationFeature.INDENT_OUTPUT)
+                    .build()
+                    .writeValue(options.report().toFile(), report);
+            System.out.printf("Report written to %s%n", options.report().toAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static void print(LoadTestReport report) {
+        System.out.printf(
+                "Target %.0f req/s (%s arrivals), achieved %.0f req/s over %d s, %.3f CPU ms per request%n",
+                report.targetRate(),
+                report.arrivals(),
+                report.achievedRate(),
+                report.durationMillis() / 1_000,
+                report.cpuMillisPerRequest());
+        System.out.printf(
+                "%-14s %9s %9s %9s %9s %9s %9s %10s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "ok", "304", "4xx", "failed", "dropped", "bytes/req", "req/s", "p50 ms",
+                "p99 ms", "p99.9 ms", "max ms");
+        report.endpoints().forEach((endpoint, result) -> System.out.printf(
+                "%-14s %9d %9d %9d %9d %9d %9d %10.0f %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                endpoint,
+                result.requests(),
+                result.succeeded(),
+                result.notModified(),
+                result.rejected(),
+                result.failed(),
+                result.dropped(),
+                result.succeeded() + result.rejected() == 0
+                        ? 0.0
+                        : (double) result.responseBytes() / (result.succeeded() + result.rejected()),
+                result.throughput(),
+                result.latencyMillis().p50(),
+                result.latencyMillis().p99(),
+                result.latencyMillis().p999(),
+                result.latencyMillis().max()));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.tinyledger.loadtest;
+
+import jakarta.annotation.Nullable;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options as {@code --name=value}. Options the harness does not know that start with {@code --spring.},
+ * {@code --server.} or {@code --tiny-ledger.} are passed on to the application it boots.
+ */
+record LoadTestOptions(
+        @Nullable URI url,
+        double rate,
+        boolean poisson,
+        Duration warmup,
+        Duration duration,
+        Map<Endpoint, Integer> mix,
+        int users,
+        int ledgers,
+        int seedTransactions,
+        double zipfExponent,
+        int maxInFlight,
+        Duration requestTimeout,
+        Path report,
+        List<String> applicationArgs) {
+
+    static final String DEFAULT_MIX = "deposit=40,withdraw=20,balance=20,history=15,create-ledger=4,create-user=1";
+
+    static LoadTestOptions parse(String[] args) {
+        var values = new HashMap<String, String>();
+        var applicationArgs = new ArrayList<String>();
+        for (var arg : args) {
+            if (arg.startsWith("--spring.") || arg.startsWith("--server.") || arg.startsWith("--tiny-ledger.")) {
+                applicationArgs.add(arg);
+            } else if (arg.startsWith("--") && arg.contains("=")) {
+                var separator = arg.indexOf('=');
+                values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            } else {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+        }
+        var options = new LoadTestOptions(
+                values.containsKey("url") ? URI.create(values.get("url")) : null,
+                Double.parseDouble(values.getOrDefault("rate", "500")),
+                !values.getOrDefault("arrivals", "poisson").equals("constant"),
+                duration(values.getOrDefault("warmup", "10s")),
+                duration(values.getOrDefault("duration", "60s")),
+                mix(values.getOrDefault("mix", DEFAULT_MIX)),
+                Integer.parseInt(values.getOrDefault("users", "100")),
+                Integer.parseInt(values.getOrDefault("ledgers", "1000")),
+                Integer.parseInt(values.getOrDefault("seed-transactions", "20000")),
+                Double.parseDouble(values.getOrDefault("zipf-exponent", "1.1")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "10000")),
+                duration(values.getOrDefault("request-timeout", "30s")),
+                Path.of(values.getOrDefault("report", "build/reports/load-test/report.json")),
+                List.copyOf(applicationArgs));
+        List.of(
+                        "url",
+                        "rate",
+                        "arrivals",
+                        "warmup",
+                        "duration",
+                        "mix",
+                        "users",
+                        "ledgers",
+                        "seed-transactions",
+                        "zipf-exponent",
+                        "max-in-flight",
+                        "request-timeout",
+                        "report")
+                .forEach(values::remove);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        return options;
+    }
+
+    /** Accepts {@code 500ms}, {@code 30s}, {@code 2m} or an ISO-8601 duration. */
+    static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.parse(value);
+    }
+
+    /** Parses {@code endpoint=weight} pairs separated by commas. */
+    static Map<Endpoint, Integer> mix(String value) {
+        var mix = new EnumMap<Endpoint, Integer>(Endpoint.class);
+        for (var entry : value.split(",")) {
+            var parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected endpoint=weight in mix but got: " + entry);
+            }
+            var weight = Integer.parseInt(parts[1].strip());
+            if (weight > 0) {
+                mix.put(Endpoint.fromId(parts[0].strip()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Mix must give at least one endpoint a positive weight");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.tinyledger.loadtest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Machine-readable result of a load test run, written as JSON so runs can be compared across releases. CPU time is
+ * that of the load test's JVM, so it includes the application only when the load test booted it.
+ */
+record LoadTestReport(
+        Instant startedAt,
+        String arrivals,
+        double targetRate,
+        double achievedRate,
+        double cpuMillisPerRequest,
+        long durationMillis,
+        Map<String, Integer> mix,
+        List<String> applicationArgs,
+        Seed seed,
+        Map<String, EndpointReport> endpoints) {
+
+    record Seed(int users, int ledgers, int transactions, double zipfExponent) {}
+
+    /**
+     * Requests sent during the measured window. Rejected requests got a 4xx response, such as a withdrawal over the
+     * balance; failed requests got a 5xx response or none; dropped requests were never sent because too many were in
+     * flight. Not modified requests succeeded with a 304 and are included in {@code succeeded}. Latencies are measured
+     * from the time a request was scheduled, not sent.
+     */
+    record EndpointReport(
+            long requests,
+            long succeeded,
+            long notModified,
+            long rejected,
+            long failed,
+            long dropped,
+            long responseBytes,
+            double throughput,
+            Latency latencyMillis) {}
+
+    record Latency(double p50, double p90, double p99, double p999, double max, double mean) {}
+}
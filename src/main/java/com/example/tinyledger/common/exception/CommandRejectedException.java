@@ -0,0 +1,20 @@
+package com.example.tinyledger.common.exception;
+
+public class CommandRejectedException extends RuntimeException {
+    public CommandRejectedException(String message) {
+        super(message);
+    }
+
+    public static CommandRejectedException partitionQueueFull(int partition) {
+        return new CommandRejectedException("Ledger engine partition %d is at capacity".formatted(partition));
+    }
+
+    public static CommandRejectedException idempotencyKeysInFlight(int maxKeys) {
+        return new CommandRejectedException(
+                "All %d idempotency keys belong to requests still in flight".formatted(maxKeys));
+    }
+
+    public static CommandRejectedException engineStopped() {
+        return new CommandRejectedException("Ledger engine is not running");
+    }
+}
@@ -14,4 +14,12 @@ public class EntityNotFoundException extends RuntimeException {
     public static EntityNotFoundException userNotFound(UUID id) {
         return new EntityNotFoundException("User not found with id: " + id);
     }
+
+    public static EntityNotFoundException transactionNotFound(UUID id) {
+        return new EntityNotFoundException("Transaction not found with id: " + id);
+    }
+
+    public static EntityNotFoundException importNotFound(UUID id) {
+        return new EntityNotFoundException("Import not found with id: " + id);
+    }
 }
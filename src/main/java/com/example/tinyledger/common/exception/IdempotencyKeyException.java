@@ -0,0 +1,16 @@
+package com.example.tinyledger.common.exception;
+
+public class IdempotencyKeyException extends RuntimeException {
+    public IdempotencyKeyException(String message) {
+        super(message);
+    }
+
+    public static IdempotencyKeyException keyTooLong(int maxLength) {
+        return new IdempotencyKeyException("Idempotency key must not be longer than %d characters".formatted(maxLength));
+    }
+
+    public static IdempotencyKeyException keyReusedForDifferentRequest(String key) {
+        return new IdempotencyKeyException(
+                "Idempotency key was already used for a different request: %s".formatted(key));
+    }
+}
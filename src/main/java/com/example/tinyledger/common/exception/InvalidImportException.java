@@ -0,0 +1,44 @@
+package com.example.tinyledger.common.exception;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public class InvalidImportException extends RuntimeException {
+    public InvalidImportException(String message) {
+        super(message);
+    }
+
+    public static InvalidImportException fileOutsideImportDirectory(String file) {
+        return new InvalidImportException("Import file must be inside the import directory: %s".formatted(file));
+    }
+
+    public static InvalidImportException fileNotFound(String file) {
+        return new InvalidImportException("Import file not found: %s".formatted(file));
+    }
+
+    public static InvalidImportException noFiles() {
+        return new InvalidImportException("At least one import file is required");
+    }
+
+    public static InvalidImportException malformedLine() {
+        return new InvalidImportException("Line is not a JSON object");
+    }
+
+    public static InvalidImportException missingField(String field) {
+        return new InvalidImportException("Missing field: %s".formatted(field));
+    }
+
+    public static InvalidImportException invalidField(String field, String value) {
+        return new InvalidImportException("Invalid value for field %s: %s".formatted(field, value));
+    }
+
+    public static InvalidImportException transactionInFuture(UUID transactionId, Instant occurredAt) {
+        return new InvalidImportException(
+                "Transaction %s occurred in the future at %s".formatted(transactionId, occurredAt));
+    }
+
+    public static InvalidImportException transactionOlderThanHistory(UUID transactionId, Instant latest) {
+        return new InvalidImportException("Transaction %s is older than the latest recorded transaction at %s"
+                .formatted(transactionId, latest));
+    }
+}
@@ -1,23 +1,31 @@
 package com.example.tinyledger.common.exception;
 
-import com.example.tinyledger.ledger.domain.Money;
-
 public class InvalidMoneyOperationException extends RuntimeException {
     public InvalidMoneyOperationException(String message) {
         super(message);
     }
 
-    public static InvalidMoneyOperationException amountMustBePositiveNumber(Long amount) {
+    public static InvalidMoneyOperationException amountMustBePositiveNumber(long amount) {
         return new InvalidMoneyOperationException("Amount must be a positive number: %d".formatted(amount));
     }
 
-    public static InvalidMoneyOperationException couldNotSubtractGreaterNumber(Money firstAmount, Money secondAmount) {
-        return new InvalidMoneyOperationException("Amount to subtract must not be greater than amount: %d - %d"
-                .formatted(firstAmount.amount(), secondAmount.amount()));
+    public static InvalidMoneyOperationException couldNotSubtractGreaterNumber(long amount, long subtrahend) {
+        return new InvalidMoneyOperationException(
+                "Amount to subtract must not be greater than amount: %d - %d".formatted(amount, subtrahend));
+    }
+
+    public static InvalidMoneyOperationException overflow(long amount, long addend) {
+        return new InvalidMoneyOperationException(
+                "Amount is too large: %d + %d exceeds %d".formatted(amount, addend, Long.MAX_VALUE));
+    }
+
+    public static InvalidMoneyOperationException insufficientFunds(long balance, long withdrawAmount) {
+        return new InvalidMoneyOperationException(
+                "Insufficient funds. Balance: %d. Withdraw amount: %d".formatted(balance, withdrawAmount));
     }
 
-    public static InvalidMoneyOperationException insufficientFunds(Money balance, Money withdrawAmount) {
-        return new InvalidMoneyOperationException("Insufficient funds. Balance: %d. Withdraw amount: %d"
-                .formatted(balance.amount(), withdrawAmount.amount()));
+    public static InvalidMoneyOperationException unbalancedPosting(long debits, long credits) {
+        return new InvalidMoneyOperationException(
+                "Posting is not balanced. Debits: %d. Credits: %d".formatted(debits, credits));
     }
 }
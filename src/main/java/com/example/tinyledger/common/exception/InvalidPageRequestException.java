@@ -0,0 +1,19 @@
+package com.example.tinyledger.common.exception;
+
+public class InvalidPageRequestException extends RuntimeException {
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+
+    public static InvalidPageRequestException invalidCursor(String cursor) {
+        return new InvalidPageRequestException("Invalid cursor: %s".formatted(cursor));
+    }
+
+    public static InvalidPageRequestException positionOutOfRange(int position) {
+        return new InvalidPageRequestException("Cursor points outside of the transaction history: %d".formatted(position));
+    }
+
+    public static InvalidPageRequestException limitMustBePositive(int limit) {
+        return new InvalidPageRequestException("Limit must be a positive number: %d".formatted(limit));
+    }
+}
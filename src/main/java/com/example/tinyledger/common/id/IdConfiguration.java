@@ -0,0 +1,15 @@
+package com.example.tinyledger.common.id;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(IdProperties.class)
+public class IdConfiguration {
+
+    @Bean
+    public IdGenerator idGenerator(IdProperties properties) {
+        return properties.generator().create();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.tinyledger.common.id;
+
+import java.util.UUID;
+
+/** Generates ids for ledgers, transactions and users. Implementations are safe to call from any thread. */
+@FunctionalInterface
+public interface IdGenerator {
+    IdGenerator RANDOM = UUID::randomUUID;
+
+    UUID nextId();
+
+    /** The shared time-ordered generator, used by default. */
+    static IdGenerator timeOrdered() {
+        return TimeOrderedIdGenerator.SHARED;
+    }
+}
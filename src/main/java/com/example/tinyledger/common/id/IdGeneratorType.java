@@ -0,0 +1,15 @@
+package com.example.tinyledger.common.id;
+
+public enum IdGeneratorType {
+    /** UUIDv7: time-ordered, generated from per-thread state. */
+    TIME_ORDERED,
+    /** UUIDv4 from {@link java.util.UUID#randomUUID()}, which draws from a shared {@code SecureRandom}. */
+    RANDOM;
+
+    public IdGenerator create() {
+        return switch (this) {
+            case TIME_ORDERED -> IdGenerator.timeOrdered();
+            case RANDOM -> IdGenerator.RANDOM;
+        };
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.tinyledger.common.id;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("tiny-ledger.ids")
+public record IdProperties(@DefaultValue("time-ordered") IdGeneratorType generator) {}
@@ -0,0 +1,197 @@
+package com.example.tinyledger.common.idempotency;
+
+import com.example.tinyledger.common.exception.CommandRejectedException;
+import com.example.tinyledger.common.exception.IdempotencyKeyException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the id created for an idempotency key so that a retried request returns it instead of creating another
+ * one.
+ *
+ * <p>Keys are scoped to a ledger and stored as a 128-bit SHA-256 prefix of the ledger id and the client's key, and only
+ * the created id, a request fingerprint and an expiry are kept per key: about 175 bytes per entry including map and
+ * queue overhead and a small fingerprint record, so {@code maxKeys} bounds the memory used. Lookups are a single
+ * lock-free {@link ConcurrentHashMap} read. Every key expires after the same {@code ttl}, so insertion order is expiry
+ * order and a FIFO queue is enough to expire keys and to evict the oldest ones once {@code maxKeys} is reached.
+ * Keys whose request is still running are never evicted, because a retry would then run it a second time; a new key
+ * is rejected instead when all {@code maxKeys} of them are in flight.
+ *
+ * <p>A request arriving while the first one with the same key is still running waits for its outcome. Failures are not
+ * remembered, so a request that failed can be retried with the same key.
+ */
+public class IdempotencyCache {
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final ThreadLocal<MessageDigest> DIGESTS = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final int maxKeys;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<Entry> insertionOrder = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    public IdempotencyCache(int maxKeys, Duration ttl, Clock clock) {
+        this.maxKeys = maxKeys;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the id remembered for the key, or runs {@code action} and remembers its result. The fingerprint
+     * identifies the request, a key reused with a fingerprint that is not {@link Object#equals equal} is rejected.
+     */
+    public UUID execute(UUID scope, String key, Object fingerprint, Supplier<UUID> action) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw IdempotencyKeyException.keyTooLong(MAX_KEY_LENGTH);
+        }
+        var cacheKey = Key.of(scope, key);
+        var now = clock.millis();
+        var entry = new Entry(cacheKey, fingerprint, now + ttlMillis);
+        while (true) {
+            var current = entries.get(cacheKey);
+            if (current == null) {
+                if (entries.putIfAbsent(cacheKey, entry) == null) {
+                    break;
+                }
+            } else if (current.expiresAt <= now) {
+                if (entries.replace(cacheKey, current, entry)) {
+                    break;
+                }
+            } else {
+                if (!current.fingerprint.equals(fingerprint)) {
+                    throw IdempotencyKeyException.keyReusedForDifferentRequest(key);
+                }
+                return current.await();
+            }
+        }
+        if (!track(entry, now)) {
+            var rejected = CommandRejectedException.idempotencyKeysInFlight(maxKeys);
+            forget(entry);
+            entry.fail(rejected);
+            throw rejected;
+        }
+        try {
+            var result = action.get();
+            entry.complete(result);
+            return result;
+        } catch (Throwable e) {
+            forget(entry);
+            entry.fail(e);
+            throw e;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // A failed entry no longer counts towards maxKeys. It was queued recently, so it is searched for from the tail.
+    private void forget(Entry entry) {
+        entries.remove(entry.key, entry);
+        if (insertionOrder.removeLastOccurrence(entry)) {
+            size.decrementAndGet();
+        }
+    }
+
+    // Drops expired entries, then the oldest completed ones until maxKeys fit. False if only pending ones are left.
+    private boolean track(Entry entry, long now) {
+        insertionOrder.add(entry);
+        var count = size.incrementAndGet();
+        for (var oldest : insertionOrder) {
+            if (count <= maxKeys && oldest.expiresAt > now) {
+                return true;
+            }
+            if (!oldest.isPending() && insertionOrder.removeFirstOccurrence(oldest)) {
+                entries.remove(oldest.key, oldest);
+                count = size.decrementAndGet();
+            }
+        }
+        return count <= maxKeys;
+    }
+
+    private record Key(long high, long low) {
+        private static Key of(UUID scope, String key) {
+            var digest = DIGESTS.get();
+            digest.reset();
+            update(digest, scope.getMostSignificantBits());
+            update(digest, scope.getLeastSignificantBits());
+            var hash = ByteBuffer.wrap(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+            return new Key(hash.getLong(), hash.getLong());
+        }
+
+        private static void update(MessageDigest digest, long bits) {
+            for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+                digest.update((byte) (bits >>> shift));
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private final Object fingerprint;
+        private final long expiresAt;
+        private long resultHigh;
+        private long resultLow;
+        // Non-null until the result is known; the result fields are written before it is cleared.
+        private volatile CompletableFuture<UUID> pending = new CompletableFuture<>();
+
+        private Entry(Key key, Object fingerprint, long expiresAt) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isPending() {
+            return pending != null;
+        }
+
+        private UUID await() {
+            var future = pending;
+            if (future == null) {
+                return new UUID(resultHigh, resultLow);
+            }
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        private void complete(UUID result) {
+            var future = pending;
+            resultHigh = result.getMostSignificantBits();
+            resultLow = result.getLeastSignificantBits();
+            pending = null;
+            future.complete(result);
+        }
+
+        private void fail(Throwable e) {
+            pending.completeExceptionally(e);
+        }
+    }
+}
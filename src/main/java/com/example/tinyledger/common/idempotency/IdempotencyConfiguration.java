@@ -0,0 +1,16 @@
+package com.example.tinyledger.common.idempotency;
+
+import java.time.Clock;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfiguration {
+
+    @Bean
+    public IdempotencyCache idempotencyCache(IdempotencyProperties properties) {
+        return new IdempotencyCache(properties.maxKeys(), properties.ttl(), Clock.systemUTC());
+    }
+}
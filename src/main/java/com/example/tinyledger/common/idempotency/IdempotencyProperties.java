@@ -0,0 +1,8 @@
+package com.example.tinyledger.common.idempotency;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("tiny-ledger.idempotency")
+public record IdempotencyProperties(@DefaultValue("1000000") int maxKeys, @DefaultValue("1h") Duration ttl) {}
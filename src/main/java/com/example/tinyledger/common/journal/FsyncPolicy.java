@@ -0,0 +1,10 @@
+package com.example.tinyledger.common.journal;
+
+public enum FsyncPolicy {
+    /** Writers wait until their record is forced to disk; concurrent writers share a single fsync. */
+    BATCH,
+    /** Records are forced to disk by a background task every {@code fsync-interval}. */
+    INTERVAL,
+    /** Records are never forced explicitly; the operating system flushes dirty pages on its own schedule. */
+    OS
+}
@@ -0,0 +1,333 @@
+package com.example.tinyledger.common.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only log of {@link JournalRecord}s split into fixed-size, memory-mapped segment files.
+ *
+ * <p>Each record is stored as {@code [payload length][crc32c][payload]}; a zero length marks the end of a segment.
+ * Positions are logical offsets ({@code segment base + offset}) and only ever grow, so they can be used to tell
+ * whether a record has been made durable. With {@link FsyncPolicy#BATCH} the first writer waiting for durability
+ * forces everything appended so far while the others wait for it, so concurrent writers share one fsync.
+ */
+public final class Journal implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Journal.class);
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition durable = lock.newCondition();
+    private final CRC32C checksum = new CRC32C();
+    private final List<Segment> segments = new ArrayList<>();
+    private final ThreadLocal<long[]> lastAppendedPosition = ThreadLocal.withInitial(() -> new long[1]);
+    private final ScheduledExecutorService flusher;
+
+    private volatile long writePosition;
+    private long durablePosition;
+    private boolean forcing;
+    private boolean closed;
+
+    private Journal(Path directory, int segmentSize, FsyncPolicy fsyncPolicy, Duration fsyncInterval)
+            throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        Files.createDirectories(directory);
+        recover();
+        this.durablePosition = this.writePosition;
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "journal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            var intervalNanos = fsyncInterval.toNanos();
+            this.flusher.scheduleWithFixedDelay(this::flushQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    public static Journal open(Path directory, int segmentSize, FsyncPolicy fsyncPolicy, Duration fsyncInterval) {
+        try {
+            return new Journal(directory, segmentSize, fsyncPolicy, fsyncInterval);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open journal at %s".formatted(directory), e);
+        }
+    }
+
+    public long append(JournalRecord record) {
+        var payloadSize = record.size();
+        if (HEADER_SIZE + payloadSize > segmentSize) {
+            throw new IllegalArgumentException(
+                    "Journal record of %d bytes does not fit in a segment of %d bytes".formatted(payloadSize, segmentSize));
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            var segment = active();
+            if (segment.buffer().remaining() < HEADER_SIZE + payloadSize) {
+                segment = roll(segment);
+            }
+            var buffer = segment.buffer();
+            var offset = buffer.position();
+            buffer.position(offset + HEADER_SIZE);
+            record.writeTo(buffer);
+            checksum.reset();
+            checksum.update(buffer.slice(offset + HEADER_SIZE, payloadSize));
+            buffer.putInt(offset + Integer.BYTES, (int) checksum.getValue());
+            buffer.putInt(offset, payloadSize);
+            writePosition = segment.base() + buffer.position();
+            lastAppendedPosition.get()[0] = writePosition;
+            return writePosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Waits until the last record appended by the calling thread is durable under the configured policy. */
+    public void awaitDurable() {
+        awaitDurable(lastAppendedPosition());
+    }
+
+    /** Returns the end position of the last record appended by the calling thread. */
+    public long lastAppendedPosition() {
+        return lastAppendedPosition.get()[0];
+    }
+
+    public void awaitDurable(long position) {
+        if (fsyncPolicy != FsyncPolicy.BATCH) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (durablePosition < position) {
+                if (forcing) {
+                    durable.awaitUninterruptibly();
+                } else {
+                    forcePending();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void flush() {
+        lock.lock();
+        try {
+            while (forcing) {
+                durable.awaitUninterruptibly();
+            }
+            if (durablePosition < writePosition) {
+                forcePending();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long position() {
+        return writePosition;
+    }
+
+    public void replay(Consumer<JournalRecord> consumer) {
+        replay(0, consumer);
+    }
+
+    /** Replays every record appended at or after {@code fromPosition}, which must be a value of {@link #position()}. */
+    public void replay(long fromPosition, Consumer<JournalRecord> consumer) {
+        lock.lock();
+        try {
+            for (var segment : segments) {
+                var capacity = segment.buffer().capacity();
+                if (segment.base() + capacity <= fromPosition) {
+                    continue;
+                }
+                var offset = (int) Math.max(0, fromPosition - segment.base());
+                scan(segment.buffer().duplicate().position(offset), consumer);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Deletes the segments that only hold records before {@code position}; the active segment is always kept. */
+    public void deleteSegmentsBefore(long position) {
+        lock.lock();
+        try {
+            while (segments.size() > 1) {
+                var segment = segments.getFirst();
+                if (segment.base() + segment.buffer().capacity() > position) {
+                    break;
+                }
+                segments.removeFirst();
+                segment.channel().close();
+                Files.deleteIfExists(segment.path());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete journal segments before %d".formatted(position), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flush();
+        lock.lock();
+        try {
+            closed = true;
+            for (var segment : segments) {
+                segment.channel().close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            LOGGER.error("Could not flush journal at {}", directory, e);
+        }
+    }
+
+    // Called with the lock held; releases it while forcing so writers can keep appending to the next batch.
+    private void forcePending() {
+        forcing = true;
+        var target = writePosition;
+        var pending = segments.stream()
+                .filter(segment -> segment.base() + segment.buffer().capacity() > durablePosition)
+                .toList();
+        lock.unlock();
+        try {
+            pending.forEach(segment -> segment.buffer().force());
+        } finally {
+            lock.lock();
+            forcing = false;
+            durable.signalAll();
+        }
+        durablePosition = Math.max(durablePosition, target);
+    }
+
+    private Segment active() {
+        if (segments.isEmpty()) {
+            segments.add(createSegment(0));
+        }
+        return segments.getLast();
+    }
+
+    private Segment roll(Segment current) {
+        var next = createSegment(current.base() + current.buffer().capacity());
+        segments.add(next);
+        return next;
+    }
+
+    private Segment createSegment(long base) {
+        try {
+            return mapSegment(directory.resolve(segmentFileName(base)), base, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create journal segment at position %d".formatted(base), e);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (var file : files) {
+            var fileName = file.getFileName().toString();
+            var base = Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+            segments.add(mapSegment(file, base, (int) Files.size(file)));
+        }
+        for (var i = 0; i < segments.size(); i++) {
+            var segment = segments.get(i);
+            var buffer = segment.buffer();
+            var end = scan(buffer.duplicate().position(0), record -> {});
+            if (end < 0) {
+                if (i < segments.size() - 1) {
+                    throw new IllegalStateException("Journal segment %s is corrupted".formatted(segment.path()));
+                }
+                end = -end - 1;
+                LOGGER.warn("Discarding torn record at the tail of journal segment {}", segment.path());
+                for (var offset = end; offset < buffer.capacity(); offset++) {
+                    buffer.put(offset, (byte) 0);
+                }
+            }
+            buffer.position(end);
+            writePosition = segment.base() + end;
+        }
+    }
+
+    /** Returns the offset after the last valid record, or {@code -offset - 1} if a corrupted record was found. */
+    private int scan(ByteBuffer buffer, Consumer<JournalRecord> consumer) {
+        var crc = new CRC32C();
+        while (buffer.remaining() >= HEADER_SIZE) {
+            var offset = buffer.position();
+            var length = buffer.getInt(offset);
+            if (length == 0) {
+                return offset;
+            }
+            if (length < 0 || length > buffer.remaining() - HEADER_SIZE) {
+                return -offset - 1;
+            }
+            var payload = buffer.slice(offset + HEADER_SIZE, length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+                return -offset - 1;
+            }
+            consumer.accept(JournalRecord.readFrom(payload));
+            buffer.position(offset + HEADER_SIZE + length);
+        }
+        return buffer.position();
+    }
+
+    private static Segment mapSegment(Path path, long base, int size) throws IOException {
+        var channel = FileChannel.open(
+                path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(path, base, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    private static String segmentFileName(long base) {
+        return "%020d%s".formatted(base, SEGMENT_SUFFIX);
+    }
+
+    private record Segment(Path path, long base, FileChannel channel, MappedByteBuffer buffer) {}
+}
@@ -0,0 +1,28 @@
+package com.example.tinyledger.common.journal;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "tiny-ledger.repository", havingValue = "journaled")
+@EnableConfigurationProperties(JournalProperties.class)
+@EnableScheduling
+public class JournalConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public Journal journal(JournalProperties properties) {
+        return Journal.open(
+                properties.directory(),
+                Math.toIntExact(properties.segmentSize().toBytes()),
+                properties.fsyncPolicy(),
+                properties.fsyncInterval());
+    }
+
+    @Bean
+    public SnapshotStore snapshotStore(JournalProperties properties) {
+        return new SnapshotStore(properties.snapshotDirectory());
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.tinyledger.common.journal;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties("tiny-ledger.journal")
+public record JournalProperties(
+        @DefaultValue("data/journal") Path directory,
+        @DefaultValue("64MB") DataSize segmentSize,
+        @DefaultValue("batch") FsyncPolicy fsyncPolicy,
+        @DefaultValue("100ms") Duration fsyncInterval,
+        @DefaultValue("data/snapshots") Path snapshotDirectory,
+        @DefaultValue("10m") Duration snapshotInterval) {}
@@ -0,0 +1,165 @@
+package com.example.tinyledger.common.journal;
+
+import com.example.tinyledger.ledger.domain.Money;
+import com.example.tinyledger.ledger.domain.Transaction;
+import com.example.tinyledger.ledger.domain.TransactionType;
+import com.example.tinyledger.user.domain.User;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public sealed interface JournalRecord {
+    byte USER_CREATED = 1;
+    byte LEDGER_CREATED = 2;
+    byte TRANSACTION_APPENDED = 3;
+    byte TRANSACTIONS_APPENDED = 4;
+
+    int size();
+
+    void writeTo(ByteBuffer buffer);
+
+    static JournalRecord readFrom(ByteBuffer buffer) {
+        var type = buffer.get();
+        return switch (type) {
+            case USER_CREATED -> new UserCreated(
+                    new User(getUuid(buffer), getString(buffer), getString(buffer), getString(buffer)));
+            case LEDGER_CREATED -> new LedgerCreated(getUuid(buffer), getUuid(buffer), getString(buffer));
+            case TRANSACTION_APPENDED -> getTransactionAppended(buffer);
+            case TRANSACTIONS_APPENDED -> {
+                var count = buffer.getInt();
+                var transactions = new ArrayList<TransactionAppended>(count);
+                for (int i = 0; i < count; i++) {
+                    transactions.add(getTransactionAppended(buffer));
+                }
+                yield new TransactionsAppended(transactions);
+            }
+            default -> throw new IllegalStateException("Unknown journal record type: %d".formatted(type));
+        };
+    }
+
+    record UserCreated(User user) implements JournalRecord {
+        @Override
+        public int size() {
+            return Byte.BYTES
+                    + 2 * Long.BYTES
+                    + sizeOf(user.firstName())
+                    + sizeOf(user.lastName())
+                    + sizeOf(user.emailAddress());
+        }
+
+        @Override
+        public void writeTo(ByteBuffer buffer) {
+            buffer.put(USER_CREATED);
+            putUuid(buffer, user.id());
+            putString(buffer, user.firstName());
+            putString(buffer, user.lastName());
+            putString(buffer, user.emailAddress());
+        }
+    }
+
+    record LedgerCreated(UUID ledgerId, UUID userId, String name) implements JournalRecord {
+        @Override
+        public int size() {
+            return Byte.BYTES + 4 * Long.BYTES + sizeOf(name);
+        }
+
+        @Override
+        public void writeTo(ByteBuffer buffer) {
+            buffer.put(LEDGER_CREATED);
+            putUuid(buffer, ledgerId);
+            putUuid(buffer, userId);
+            putString(buffer, name);
+        }
+    }
+
+    /** {@code sequence} is the index of the transaction in its ledger's history. */
+    record TransactionAppended(Transaction transaction, long sequence) implements JournalRecord {
+        private static final int BODY_SIZE = 4 * Long.BYTES + Byte.BYTES + 3 * Long.BYTES + Integer.BYTES;
+
+        @Override
+        public int size() {
+            return Byte.BYTES + BODY_SIZE;
+        }
+
+        @Override
+        public void writeTo(ByteBuffer buffer) {
+            buffer.put(TRANSACTION_APPENDED);
+            writeBodyTo(buffer);
+        }
+
+        private void writeBodyTo(ByteBuffer buffer) {
+            putUuid(buffer, transaction.id());
+            putUuid(buffer, transaction.ledgerId());
+            buffer.put((byte) transaction.type().ordinal());
+            buffer.putLong(transaction.amount().amount());
+            buffer.putLong(transaction.occurredAt().getEpochSecond());
+            buffer.putInt(transaction.occurredAt().getNano());
+            buffer.putLong(sequence);
+        }
+    }
+
+    /**
+     * The transactions of a batch or of every leg of a posting, possibly across ledgers, in one record so that replay
+     * restores all of them or, when the record is torn, none.
+     */
+    record TransactionsAppended(List<TransactionAppended> transactions) implements JournalRecord {
+        @Override
+        public int size() {
+            return Byte.BYTES + Integer.BYTES + transactions.size() * TransactionAppended.BODY_SIZE;
+        }
+
+        @Override
+        public void writeTo(ByteBuffer buffer) {
+            buffer.put(TRANSACTIONS_APPENDED);
+            buffer.putInt(transactions.size());
+            transactions.forEach(appended -> appended.writeBodyTo(buffer));
+        }
+    }
+
+    private static TransactionAppended getTransactionAppended(ByteBuffer buffer) {
+        return new TransactionAppended(
+                new Transaction(
+                        getUuid(buffer),
+                        getUuid(buffer),
+                        TransactionType.values()[buffer.get()],
+                        new Money(buffer.getLong()),
+                        Instant.ofEpochSecond(buffer.getLong(), buffer.getInt())),
+                buffer.getLong());
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static int sizeOf(String value) {
+        return value == null ? Integer.BYTES : Integer.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        var length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        var bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
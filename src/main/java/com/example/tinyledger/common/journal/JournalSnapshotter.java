@@ -0,0 +1,51 @@
+package com.example.tinyledger.common.journal;
+
+import com.example.tinyledger.ledger.repository.LedgerJournaledRepository;
+import com.example.tinyledger.user.repository.UserJournaledRepository;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "tiny-ledger.repository", havingValue = "journaled")
+public class JournalSnapshotter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JournalSnapshotter.class);
+
+    private final Journal journal;
+    private final SnapshotStore snapshots;
+    private final UserJournaledRepository userRepository;
+    private final LedgerJournaledRepository ledgerRepository;
+
+    public JournalSnapshotter(
+            Journal journal,
+            SnapshotStore snapshots,
+            UserJournaledRepository userRepository,
+            LedgerJournaledRepository ledgerRepository) {
+        this.journal = journal;
+        this.snapshots = snapshots;
+        this.userRepository = userRepository;
+        this.ledgerRepository = ledgerRepository;
+    }
+
+    @Scheduled(
+            initialDelayString = "${tiny-ledger.journal.snapshot-interval}",
+            fixedDelayString = "${tiny-ledger.journal.snapshot-interval}")
+    public void snapshot() {
+        var startedAt = System.nanoTime();
+        var position = Math.min(userRepository.journalPosition(), ledgerRepository.journalPosition());
+        if (snapshots.latest().filter(latest -> latest.position() >= position).isPresent()) {
+            // Nothing was journaled since the latest snapshot
+            return;
+        }
+        var snapshot = snapshots.write(position, userRepository.getUsers(), ledgerRepository.getLedgers());
+        journal.deleteSegmentsBefore(position);
+        snapshots.deleteBefore(position);
+        LOGGER.info(
+                "Wrote snapshot {} in {} ms",
+                snapshot.directory(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.tinyledger.common.journal;
+
+import com.example.tinyledger.common.id.IdGenerator;
+import com.example.tinyledger.ledger.domain.Ledger;
+import com.example.tinyledger.ledger.domain.Money;
+import com.example.tinyledger.ledger.domain.Transaction;
+import com.example.tinyledger.ledger.domain.TransactionHistoryFactory;
+import com.example.tinyledger.ledger.domain.TransactionType;
+import com.example.tinyledger.user.domain.User;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Point-in-time images of every user and ledger, each tagged with the journal position it was started at.
+ *
+ * <p>Snapshots are fuzzy: they are taken while writes continue, so a ledger may already contain transactions that
+ * were journaled after the snapshot position. Replaying the journal from that position skips them by comparing the
+ * journaled sequence number with the ledger's transaction count. A transaction is journaled under its ledger's lock
+ * before it is added to the history, so each ledger's transactions are taken with
+ * {@link Ledger#getCommittedTransactions()}, which waits for that lock: every transaction journaled before the position
+ * is then in the snapshot. Ledgers are split into one file per available
+ * core so that both writing and loading run in parallel.
+ */
+public final class SnapshotStore {
+    private static final String PREFIX = "snapshot-";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String USERS_FILE = "users.bin";
+    private static final String LEDGERS_PREFIX = "ledgers-";
+
+    private final Path directory;
+
+    public SnapshotStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create snapshot directory %s".formatted(directory), e);
+        }
+    }
+
+    public record Snapshot(long position, Path directory) {}
+
+    public Optional<Snapshot> latest() {
+        return snapshots().stream().max(Comparator.comparingLong(Snapshot::position));
+    }
+
+    public Snapshot write(long position, Collection<User> users, Collection<Ledger> ledgers) {
+        var target = directory.resolve(PREFIX + position);
+        var temporary = directory.resolve(PREFIX + position + TEMPORARY_SUFFIX);
+        try {
+            Files.createDirectories(temporary);
+            writeUsers(temporary.resolve(USERS_FILE), users);
+            var ledgerList = List.copyOf(ledgers);
+            var partitions = Runtime.getRuntime().availableProcessors();
+            IntStream.range(0, partitions)
+                    .parallel()
+                    .forEach(partition -> writeLedgers(
+                            temporary.resolve("%s%03d.bin".formatted(LEDGERS_PREFIX, partition)),
+                            IntStream.iterate(partition, i -> i < ledgerList.size(), i -> i + partitions)
+                                    .mapToObj(ledgerList::get)
+                                    .toList()));
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            return new Snapshot(position, target);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write snapshot at position %d".formatted(position), e);
+        }
+    }
+
+    public List<User> readUsers(Snapshot snapshot) {
+        try (var input = open(snapshot.directory().resolve(USERS_FILE))) {
+            var count = input.readInt();
+            var users = new ArrayList<User>(count);
+            for (int i = 0; i < count; i++) {
+                users.add(new User(readUuid(input), readString(input), readString(input), readString(input)));
+            }
+            return users;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read users from %s".formatted(snapshot.directory()), e);
+        }
+    }
+
+    public List<Ledger> readLedgers(
+            Snapshot snapshot, TransactionHistoryFactory historyFactory, IdGenerator idGenerator) {
+        try (Stream<Path> files = Files.list(snapshot.directory())) {
+            return files.filter(file -> file.getFileName().toString().startsWith(LEDGERS_PREFIX))
+                    .toList()
+                    .parallelStream()
+                    .flatMap(file -> readLedgers(file, historyFactory, idGenerator).stream())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read ledgers from %s".formatted(snapshot.directory()), e);
+        }
+    }
+
+    public void deleteBefore(long position) {
+        for (var snapshot : snapshots()) {
+            if (snapshot.position() < position) {
+                delete(snapshot.directory());
+            }
+        }
+    }
+
+    private List<Snapshot> snapshots() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isDirectory)
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && !name.endsWith(TEMPORARY_SUFFIX))
+                    .map(name ->
+                            new Snapshot(Long.parseLong(name.substring(PREFIX.length())), directory.resolve(name)))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list snapshots in %s".formatted(directory), e);
+        }
+    }
+
+    private static void writeUsers(Path file, Collection<User> users) throws IOException {
+        try (var fileOutput = new FileOutputStream(file.toFile());
+                var output = new DataOutputStream(new BufferedOutputStream(fileOutput))) {
+            output.writeInt(users.size());
+            for (var user : users) {
+                writeUuid(output, user.id());
+                writeString(output, user.firstName());
+                writeString(output, user.lastName());
+                writeString(output, user.emailAddress());
+            }
+            output.flush();
+            fileOutput.getChannel().force(true);
+        }
+    }
+
+    private static void writeLedgers(Path file, List<Ledger> ledgers) {
+        try (var fileOutput = new FileOutputStream(file.toFile());
+                var output = new DataOutputStream(new BufferedOutputStream(fileOutput))) {
+            output.writeInt(ledgers.size());
+            for (var ledger : ledgers) {
+                var transactions = ledger.getCommittedTransactions();
+                writeUuid(output, ledger.getId());
+                writeUuid(output, ledger.getUserId());
+                writeString(output, ledger.getName());
+                var balance = 0L;
+                for (var transaction : transactions) {
+                    balance = switch (transaction.type()) {
+                        case DEPOSIT -> balance + transaction.amount().amount();
+                        case WITHDRAW -> balance - transaction.amount().amount();
+                    };
+                }
+                output.writeLong(balance);
+                output.writeInt(transactions.size());
+                for (var transaction : transactions) {
+                    writeUuid(output, transaction.id());
+                    output.writeByte(transaction.type().ordinal());
+                    output.writeLong(transaction.amount().amount());
+                    output.writeLong(transaction.occurredAt().getEpochSecond());
+                    output.writeInt(transaction.occurredAt().getNano());
+                }
+            }
+            output.flush();
+            fileOutput.getChannel().force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write snapshot file %s".formatted(file), e);
+        }
+    }
+
+    private static List<Ledger> readLedgers(
+            Path file, TransactionHistoryFactory historyFactory, IdGenerator idGenerator) {
+        try (var input = open(file)) {
+            var count = input.readInt();
+            var ledgers = new ArrayList<Ledger>(count);
+            for (int i = 0; i < count; i++) {
+                var id = readUuid(input);
+                var userId = readUuid(input);
+                var name = readString(input);
+                var balance = new Money(input.readLong());
+                var transactionCount = input.readInt();
+                var transactions = historyFactory.create(id);
+                for (int j = 0; j < transactionCount; j++) {
+                    transactions.append(new Transaction(
+                            readUuid(input),
+                            id,
+                            TransactionType.values()[input.readByte()],
+                            new Money(input.readLong()),
+                            Instant.ofEpochSecond(input.readLong(), input.readInt())));
+                }
+                ledgers.add(Ledger.restore(id, userId, name, balance, transactions, idGenerator));
+            }
+            return ledgers;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read snapshot file %s".formatted(file), e);
+        }
+    }
+
+    private static DataInputStream open(Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+    }
+
+    private static void delete(Path snapshot) {
+        try (Stream<Path> files = Files.list(snapshot)) {
+            for (var file : files.toList()) {
+                Files.delete(file);
+            }
+            Files.delete(snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete snapshot %s".formatted(snapshot), e);
+        }
+    }
+
+    private static void writeUuid(DataOutputStream output, UUID uuid) throws IOException {
+        output.writeLong(uuid.getMostSignificantBits());
+        output.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream input) throws IOException {
+        return new UUID(input.readLong(), input.readLong());
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        var length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(input.readNBytes(length), StandardCharsets.UTF_8);
+    }
+}
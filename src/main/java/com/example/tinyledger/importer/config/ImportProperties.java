@@ -0,0 +1,17 @@
+package com.example.tinyledger.importer.config;
+
+import java.nio.file.Path;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties("tiny-ledger.import")
+public record ImportProperties(
+        @DefaultValue("data/import") Path directory,
+        @DefaultValue("8MB") DataSize chunkSize,
+        @DefaultValue("0") int parallelism) {
+
+    public int parallelismCount() {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+}
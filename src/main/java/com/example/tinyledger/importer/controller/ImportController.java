@@ -0,0 +1,43 @@
+package com.example.tinyledger.importer.controller;
+
+import com.example.tinyledger.common.controller.response.CreateEntityResponse;
+import com.example.tinyledger.importer.controller.request.CreateImportRequest;
+import com.example.tinyledger.importer.controller.response.ImportResponse;
+import com.example.tinyledger.importer.service.ImportService;
+import jakarta.validation.Valid;
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/imports")
+public class ImportController {
+
+    private final ImportService importService;
+
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public CreateEntityResponse create(@Valid @RequestBody CreateImportRequest createImportRequest) {
+        var job = this.importService.startImport(
+                createImportRequest.getFormat(),
+                createImportRequest.getUsersFile(),
+                createImportRequest.getLedgersFile(),
+                createImportRequest.getTransactionsFile());
+        return new CreateEntityResponse(job.getId());
+    }
+
+    @GetMapping("/{id}")
+    public ImportResponse getImport(@PathVariable("id") UUID importId) {
+        return ImportResponse.from(this.importService.getImport(importId));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.tinyledger.importer.controller.request;
+
+import com.example.tinyledger.importer.domain.ImportFormat;
+import jakarta.validation.constraints.NotNull;
+
+public class CreateImportRequest {
+    @NotNull ImportFormat format;
+
+    String usersFile;
+
+    String ledgersFile;
+
+    String transactionsFile;
+
+    public CreateImportRequest(ImportFormat format, String usersFile, String ledgersFile, String transactionsFile) {
+        this.format = format;
+        this.usersFile = usersFile;
+        this.ledgersFile = ledgersFile;
+        this.transactionsFile = transactionsFile;
+    }
+
+    public CreateImportRequest() {}
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(ImportFormat format) {
+        this.format = format;
+    }
+
+    public String getUsersFile() {
+        return usersFile;
+    }
+
+    public void setUsersFile(String usersFile) {
+        this.usersFile = usersFile;
+    }
+
+    public String getLedgersFile() {
+        return ledgersFile;
+    }
+
+    public void setLedgersFile(String ledgersFile) {
+        this.ledgersFile = ledgersFile;
+    }
+
+    public String getTransactionsFile() {
+        return transactionsFile;
+    }
+
+    public void setTransactionsFile(String transactionsFile) {
+        this.transactionsFile = transactionsFile;
+    }
+}
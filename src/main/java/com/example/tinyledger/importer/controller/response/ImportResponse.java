@@ -0,0 +1,36 @@
+package com.example.tinyledger.importer.controller.response;
+
+import com.example.tinyledger.importer.domain.ImportError;
+import com.example.tinyledger.importer.domain.ImportFormat;
+import com.example.tinyledger.importer.domain.ImportJob;
+import com.example.tinyledger.importer.domain.ImportState;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record ImportResponse(
+        UUID id,
+        ImportFormat format,
+        ImportState state,
+        Instant startedAt,
+        long rowsRead,
+        long rowsImported,
+        long rowsRejected,
+        long rowsPerSecond,
+        String failure,
+        List<ImportError> errors) {
+
+    public static ImportResponse from(ImportJob job) {
+        return new ImportResponse(
+                job.getId(),
+                job.getFormat(),
+                job.getState(),
+                job.getStartedAt(),
+                job.getRowsRead(),
+                job.getRowsImported(),
+                job.getRowsRejected(),
+                job.getRowsPerSecond(),
+                job.getFailure(),
+                job.getErrors());
+    }
+}
@@ -0,0 +1,3 @@
+package com.example.tinyledger.importer.domain;
+
+public record ImportError(String file, long line, String message) {}
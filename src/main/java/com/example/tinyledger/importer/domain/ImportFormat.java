@@ -0,0 +1,6 @@
+package com.example.tinyledger.importer.domain;
+
+public enum ImportFormat {
+    CSV,
+    NDJSON,
+}
@@ -0,0 +1,109 @@
+package com.example.tinyledger.importer.domain;
+
+import jakarta.annotation.Nullable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Progress of a running or finished import. Counters are updated by the import workers and read lock-free. */
+public class ImportJob {
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private final UUID id;
+    private final ImportFormat format;
+    private final Instant startedAt;
+    private final long startedAtNanos;
+    private final LongAdder rowsRead = new LongAdder();
+    private final LongAdder rowsImported = new LongAdder();
+    private final LongAdder rowsRejected = new LongAdder();
+    private final List<ImportError> errors = new ArrayList<>();
+    private volatile ImportState state = ImportState.RUNNING;
+    private volatile long finishedAtNanos;
+
+    @Nullable
+    private volatile String failure;
+
+    public ImportJob(ImportFormat format) {
+        this.id = UUID.randomUUID();
+        this.format = format;
+        this.startedAt = Instant.now();
+        this.startedAtNanos = System.nanoTime();
+    }
+
+    public void rowsRead(int count) {
+        this.rowsRead.add(count);
+    }
+
+    public void rowsImported(int count) {
+        this.rowsImported.add(count);
+    }
+
+    public void reject(String file, long line, String message) {
+        this.rowsRejected.increment();
+        synchronized (this.errors) {
+            if (this.errors.size() < MAX_REPORTED_ERRORS) {
+                this.errors.add(new ImportError(file, line, message));
+            }
+        }
+    }
+
+    public void complete() {
+        this.finishedAtNanos = System.nanoTime();
+        this.state = ImportState.COMPLETED;
+    }
+
+    public void fail(String failure) {
+        this.failure = failure;
+        this.finishedAtNanos = System.nanoTime();
+        this.state = ImportState.FAILED;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public ImportState getState() {
+        return state;
+    }
+
+    @Nullable
+    public String getFailure() {
+        return failure;
+    }
+
+    public long getRowsRead() {
+        return rowsRead.sum();
+    }
+
+    public long getRowsImported() {
+        return rowsImported.sum();
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected.sum();
+    }
+
+    /** Rows read per second, measured up to now while running and up to the end once finished. */
+    public long getRowsPerSecond() {
+        var end = state == ImportState.RUNNING ? System.nanoTime() : finishedAtNanos;
+        var elapsedMicros = Math.max(TimeUnit.NANOSECONDS.toMicros(end - startedAtNanos), 1);
+        return getRowsRead() * 1_000_000 / elapsedMicros;
+    }
+
+    public List<ImportError> getErrors() {
+        synchronized (this.errors) {
+            return List.copyOf(this.errors);
+        }
+    }
+}
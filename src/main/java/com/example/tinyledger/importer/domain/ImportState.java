@@ -0,0 +1,7 @@
+package com.example.tinyledger.importer.domain;
+
+public enum ImportState {
+    RUNNING,
+    COMPLETED,
+    FAILED,
+}
@@ -0,0 +1,78 @@
+package com.example.tinyledger.importer.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a file into chunks of about {@code chunkSize} bytes that end on a line break, so that chunks can be read and
+ * parsed independently. Reads use positional reads on a shared {@link FileChannel}, which are safe to run in parallel.
+ */
+final class ImportChunks {
+    private static final int SCAN_BUFFER_SIZE = 4096;
+
+    private ImportChunks() {}
+
+    record Chunk(long offset, int length) {}
+
+    /** Returns the chunks covering the file from {@code start} to its end. */
+    static List<Chunk> split(FileChannel channel, long start, int chunkSize) throws IOException {
+        var size = channel.size();
+        var chunks = new ArrayList<Chunk>();
+        var offset = start;
+        while (offset < size) {
+            var end = offset + chunkSize >= size ? size : lineEnd(channel, offset + chunkSize);
+            chunks.add(new Chunk(offset, Math.toIntExact(end - offset)));
+            offset = end;
+        }
+        return chunks;
+    }
+
+    /** Returns the offset right after the first line break at or after {@code from}, or the file size. */
+    static long lineEnd(FileChannel channel, long from) throws IOException {
+        var buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        var position = from;
+        while (true) {
+            buffer.clear();
+            var read = channel.read(buffer, position);
+            if (read < 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Returns every line of the chunk without its line break, empty lines included so that callers can count lines.
+     */
+    static List<String> lines(FileChannel channel, Chunk chunk) throws IOException {
+        var bytes = new byte[chunk.length()];
+        var buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, chunk.offset() + buffer.position()) < 0) {
+                throw new IOException("File was truncated while importing");
+            }
+        }
+        var lines = new ArrayList<String>();
+        var lineStart = 0;
+        for (int i = 0; i <= bytes.length; i++) {
+            if (i == bytes.length || bytes[i] == '\n') {
+                if (i == bytes.length && lineStart == i) {
+                    break;
+                }
+                var lineEnd = i > lineStart && bytes[i - 1] == '\r' ? i - 1 : i;
+                lines.add(new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8));
+                lineStart = i + 1;
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.tinyledger.importer.service;
+
+import com.example.tinyledger.common.exception.InvalidImportException;
+import com.example.tinyledger.ledger.domain.TransactionCodec;
+import jakarta.annotation.Nullable;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.function.Function;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+/** One parsed line of an import file, with typed accessors that reject missing or malformed fields. */
+interface ImportRow {
+
+    @Nullable
+    String get(String field);
+
+    default String required(String field) {
+        var value = get(field);
+        if (value == null || value.isBlank()) {
+            throw InvalidImportException.missingField(field);
+        }
+        return value;
+    }
+
+    default UUID uuid(String field) {
+        var value = required(field);
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw InvalidImportException.invalidField(field, value);
+        }
+    }
+
+    default long number(String field) {
+        var value = required(field);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw InvalidImportException.invalidField(field, value);
+        }
+    }
+
+    /** Accepts only instants that transaction histories can store as epoch nanoseconds. */
+    default Instant instant(String field) {
+        var value = required(field);
+        Instant instant;
+        try {
+            instant = Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw InvalidImportException.invalidField(field, value);
+        }
+        if (instant.isBefore(TransactionCodec.MIN_INSTANT) || instant.isAfter(TransactionCodec.MAX_INSTANT)) {
+            throw InvalidImportException.invalidField(field, value);
+        }
+        return instant;
+    }
+
+    default <E extends Enum<E>> E enumValue(String field, Class<E> type) {
+        var value = required(field);
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            throw InvalidImportException.invalidField(field, value);
+        }
+    }
+
+    /** CSV rows are split on commas without quoting, the header line names the columns. */
+    static Function<String, ImportRow> csv(String header) {
+        var columns = new HashMap<String, Integer>();
+        var names = header.split(",", -1);
+        for (int i = 0; i < names.length; i++) {
+            columns.put(names[i].strip(), i);
+        }
+        return line -> {
+            var values = line.split(",", -1);
+            return field -> {
+                var index = columns.get(field);
+                return index == null || index >= values.length ? null : values[index].strip();
+            };
+        };
+    }
+
+    static Function<String, ImportRow> ndjson(ObjectMapper objectMapper) {
+        return line -> {
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JacksonException e) {
+                throw InvalidImportException.malformedLine();
+            }
+            if (node == null || !node.isObject()) {
+                throw InvalidImportException.malformedLine();
+            }
+            return field -> {
+                var value = node.get(field);
+                return value == null || value.isNull() ? null : value.asString();
+            };
+        };
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.tinyledger.importer.service;
+
+import com.example.tinyledger.common.exception.EntityAlreadyExistsException;
+import com.example.tinyledger.common.exception.EntityNotFoundException;
+import com.example.tinyledger.common.exception.InvalidImportException;
+import com.example.tinyledger.common.exception.InvalidMoneyOperationException;
+import com.example.tinyledger.common.id.IdGenerator;
+import com.example.tinyledger.importer.config.ImportProperties;
+import com.example.tinyledger.importer.domain.ImportFormat;
+import com.example.tinyledger.importer.domain.ImportJob;
+import com.example.tinyledger.ledger.domain.Ledger;
+import com.example.tinyledger.ledger.domain.Money;
+import com.example.tinyledger.ledger.domain.Transaction;
+import com.example.tinyledger.ledger.domain.TransactionHistoryFactory;
+import com.example.tinyledger.ledger.domain.TransactionType;
+import com.example.tinyledger.ledger.engine.LedgerCommandExecutor;
+import com.example.tinyledger.ledger.repository.LedgerRepository;
+import com.example.tinyledger.user.domain.User;
+import com.example.tinyledger.user.repository.UserRepository;
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Bulk loads users, ledgers and historical transactions from files in the import directory, bypassing the HTTP API.
+ *
+ * <p>Files are split into line-aligned chunks that are read and parsed in parallel, a window of {@code parallelism}
+ * chunks at a time. Chunks are loaded in file order; within a chunk, transactions are grouped by ledger and every group
+ * is recorded under a single lock acquisition, with the groups running in parallel. Each row is validated like the
+ * corresponding API call and rows that fail are reported and skipped, the rest of the file is still imported.
+ * Transactions keep their ids and timestamps and must be in {@code occurredAt} order per ledger.
+ */
+@Service
+public class ImportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportService.class);
+
+    private final UserRepository userRepository;
+    private final LedgerRepository ledgerRepository;
+    private final LedgerCommandExecutor commandExecutor;
+    private final TransactionHistoryFactory historyFactory;
+    private final IdGenerator idGenerator;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int chunkSize;
+    private final int parallelism;
+    private final ConcurrentHashMap<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportService(
+            UserRepository userRepository,
+            LedgerRepository ledgerRepository,
+            LedgerCommandExecutor commandExecutor,
+            TransactionHistoryFactory historyFactory,
+            ImportProperties importProperties,
+            IdGenerator idGenerator,
+            ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.commandExecutor = commandExecutor;
+        this.historyFactory = historyFactory;
+        this.idGenerator = idGenerator;
+        this.objectMapper = objectMapper;
+        this.directory = importProperties.directory().toAbsolutePath().normalize();
+        this.chunkSize = Math.toIntExact(importProperties.chunkSize().toBytes());
+        this.parallelism = importProperties.parallelismCount();
+    }
+
+    /**
+     * Starts importing the given files, each one optional, on a background thread. File names are resolved in the
+     * import directory and must exist before the import starts.
+     */
+    public ImportJob startImport(
+            ImportFormat format,
+            @Nullable String usersFile,
+            @Nullable String ledgersFile,
+            @Nullable String transactionsFile) {
+        if (usersFile == null && ledgersFile == null && transactionsFile == null) {
+            throw InvalidImportException.noFiles();
+        }
+        var users = resolve(usersFile);
+        var ledgers = resolve(ledgersFile);
+        var transactions = resolve(transactionsFile);
+        var job = new ImportJob(format);
+        this.jobs.put(job.getId(), job);
+        Thread.ofPlatform().name("import-" + job.getId()).start(() -> run(job, users, ledgers, transactions));
+        return job;
+    }
+
+    public ImportJob getImport(UUID id) {
+        var job = this.jobs.get(id);
+        if (job == null) {
+            throw EntityNotFoundException.importNotFound(id);
+        }
+        return job;
+    }
+
+    /** Runs the import on the calling thread. */
+    void run(ImportJob job, @Nullable Path users, @Nullable Path ledgers, @Nullable Path transactions) {
+        try {
+            if (users != null) {
+                importFile(job, users, this::toUser, this::loadUsers);
+            }
+            if (ledgers != null) {
+                importFile(job, ledgers, this::toLedger, this::loadLedgers);
+            }
+            if (transactions != null) {
+                importFile(job, transactions, this::toTransaction, this::loadTransactions);
+            }
+            job.complete();
+            LOGGER.info(
+                    "Import {} completed: {} rows imported, {} rejected, {} rows/s",
+                    job.getId(),
+                    job.getRowsImported(),
+                    job.getRowsRejected(),
+                    job.getRowsPerSecond());
+        } catch (RuntimeException | IOException e) {
+            LOGGER.error("Import {} failed", job.getId(), e);
+            job.fail(e.getMessage());
+        }
+    }
+
+    @Nullable
+    private Path resolve(@Nullable String file) {
+        if (file == null) {
+            return null;
+        }
+        var path = this.directory.resolve(file).normalize();
+        if (!path.startsWith(this.directory)) {
+            throw InvalidImportException.fileOutsideImportDirectory(file);
+        }
+        if (!Files.isRegularFile(path)) {
+            throw InvalidImportException.fileNotFound(file);
+        }
+        return path;
+    }
+
+    private <T> void importFile(ImportJob job, Path path, Function<ImportRow, T> mapper, Loader<T> loader)
+            throws IOException {
+        var file = path.getFileName().toString();
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Function<String, ImportRow> parser;
+            long dataStart;
+            long firstLine;
+            if (job.getFormat() == ImportFormat.CSV) {
+                dataStart = ImportChunks.lineEnd(channel, 0);
+                var header = ImportChunks.lines(channel, new ImportChunks.Chunk(0, Math.toIntExact(dataStart)));
+                parser = ImportRow.csv(header.isEmpty() ? "" : header.getFirst());
+                firstLine = 2;
+            } else {
+                dataStart = 0;
+                parser = ImportRow.ndjson(this.objectMapper);
+                firstLine = 1;
+            }
+            var chunks = ImportChunks.split(channel, dataStart, this.chunkSize);
+            var line = firstLine;
+            for (int from = 0; from < chunks.size(); from += this.parallelism) {
+                var window = chunks.subList(from, Math.min(from + this.parallelism, chunks.size()));
+                var parsedChunks = window.parallelStream()
+                        .map(chunk -> parse(channel, chunk, parser, mapper))
+                        .toList();
+                for (var parsed : parsedChunks) {
+                    var chunkFirstLine = line;
+                    RowRejecter reject =
+                            (rowLine, e) -> job.reject(file, chunkFirstLine + rowLine, e.getMessage());
+                    parsed.rejected().forEach(rejected -> reject.reject(rejected.line(), rejected.cause()));
+                    job.rowsRead(parsed.rows().size() + parsed.rejected().size());
+                    var journalPosition = loader.load(job, parsed.rows(), reject);
+                    this.ledgerRepository.awaitDurable(journalPosition);
+                    line += parsed.lineCount();
+                }
+                LOGGER.info(
+                        "Import {}: {} of {} chunks of {} loaded, {} rows/s",
+                        job.getId(),
+                        from + window.size(),
+                        chunks.size(),
+                        file,
+                        job.getRowsPerSecond());
+            }
+        }
+    }
+
+    private static <T> ParsedChunk<T> parse(
+            FileChannel channel,
+            ImportChunks.Chunk chunk,
+            Function<String, ImportRow> parser,
+            Function<ImportRow, T> mapper) {
+        List<String> lines;
+        try {
+            lines = ImportChunks.lines(channel, chunk);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        var rows = new ArrayList<Row<T>>(lines.size());
+        var rejected = new ArrayList<RejectedRow>();
+        for (int i = 0; i < lines.size(); i++) {
+            var line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                rows.add(new Row<>(i, mapper.apply(parser.apply(line))));
+            } catch (InvalidImportException | InvalidMoneyOperationException e) {
+                rejected.add(new RejectedRow(i, e));
+            }
+        }
+        return new ParsedChunk<>(rows, rejected, lines.size());
+    }
+
+    private User toUser(ImportRow row) {
+        return new User(row.uuid("id"), row.required("firstName"), row.required("lastName"), row.get("emailAddress"));
+    }
+
+    private Ledger toLedger(ImportRow row) {
+        return Ledger.restore(
+                row.uuid("id"), row.uuid("userId"), row.required("name"), this.historyFactory, this.idGenerator);
+    }
+
+    // Future timestamps are rejected: later live transactions would all take the imported one's occurredAt.
+    private Transaction toTransaction(ImportRow row) {
+        var id = row.uuid("id");
+        var occurredAt = row.instant("occurredAt");
+        if (occurredAt.isAfter(Instant.now())) {
+            throw InvalidImportException.transactionInFuture(id, occurredAt);
+        }
+        return new Transaction(
+                id,
+                row.uuid("ledgerId"),
+                row.enumValue("type", TransactionType.class),
+                new Money(row.number("amount")),
+                occurredAt);
+    }
+
+    private long loadUsers(ImportJob job, List<Row<User>> rows, RowRejecter reject) {
+        rows.parallelStream().forEach(row -> {
+            try {
+                this.userRepository.save(row.value());
+                job.rowsImported(1);
+            } catch (EntityAlreadyExistsException e) {
+                reject.reject(row.line(), e);
+            }
+        });
+        return 0;
+    }
+
+    private long loadLedgers(ImportJob job, List<Row<Ledger>> rows, RowRejecter reject) {
+        rows.parallelStream().forEach(row -> {
+            var ledger = row.value();
+            try {
+                if (this.userRepository.get(ledger.getUserId()).isEmpty()) {
+                    throw EntityNotFoundException.userNotFound(ledger.getUserId());
+                }
+                this.ledgerRepository.save(ledger);
+                job.rowsImported(1);
+            } catch (EntityNotFoundException | EntityAlreadyExistsException e) {
+                reject.reject(row.line(), e);
+            }
+        });
+        return 0;
+    }
+
+    private long loadTransactions(ImportJob job, List<Row<Transaction>> rows, RowRejecter reject) {
+        var byLedger = rows.stream()
+                .collect(Collectors.groupingBy(row -> row.value().ledgerId(), LinkedHashMap::new, Collectors.toList()));
+        return byLedger.entrySet().parallelStream()
+                .mapToLong(group -> loadLedgerTransactions(job, group.getKey(), group.getValue(), reject))
+                .max()
+                .orElse(0);
+    }
+
+    private long loadLedgerTransactions(
+            ImportJob job, UUID ledgerId, List<Row<Transaction>> rows, RowRejecter reject) {
+        var ledger = this.ledgerRepository.get(ledgerId);
+        if (ledger.isEmpty()) {
+            var notFound = EntityNotFoundException.ledgerNotFound(ledgerId);
+            rows.forEach(row -> reject.reject(row.line(), notFound));
+            return 0;
+        }
+        var transactions = rows.stream().map(Row::value).toList();
+        return this.commandExecutor.execute(ledgerId, () -> {
+            // Rejections are reported in order, so the matching row is always ahead of the previous one
+            var cursor = new int[1];
+            var imported = ledger.get().importTransactions(transactions, (transaction, e) -> {
+                while (rows.get(cursor[0]).value() != transaction) {
+                    cursor[0]++;
+                }
+                reject.reject(rows.get(cursor[0]).line(), e);
+            });
+            job.rowsImported(imported);
+            return this.ledgerRepository.lastAppendedPosition();
+        });
+    }
+
+    /** Loads parsed rows and returns the journal position to wait for before the next chunk. */
+    @FunctionalInterface
+    private interface Loader<T> {
+        long load(ImportJob job, List<Row<T>> rows, RowRejecter reject);
+    }
+
+    @FunctionalInterface
+    private interface RowRejecter {
+        void reject(int line, RuntimeException cause);
+    }
+
+    // Line numbers are relative to the start of the chunk until the chunk is loaded.
+    private record Row<T>(int line, T value) {}
+
+    private record RejectedRow(int line, RuntimeException cause) {}
+
+    private record ParsedChunk<T>(List<Row<T>> rows, List<RejectedRow> rejected, int lineCount) {}
+}
@@ -0,0 +1,12 @@
+package com.example.tinyledger.ledger.config;
+
+import java.nio.file.Path;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("tiny-ledger.ledger.tiering")
+public record HistoryTieringProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("65536") int hotTransactions,
+        @DefaultValue("16384") int segmentTransactions,
+        @DefaultValue("data/history") Path directory) {}
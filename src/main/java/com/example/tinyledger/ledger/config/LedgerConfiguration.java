@@ -0,0 +1,34 @@
+package com.example.tinyledger.ledger.config;
+
+import com.example.tinyledger.ledger.domain.TieredHistoryStorage;
+import com.example.tinyledger.ledger.domain.TransactionHistoryFactory;
+import com.example.tinyledger.ledger.engine.LedgerEngineProperties;
+import com.example.tinyledger.ledger.stream.TransactionStreamProperties;
+import com.example.tinyledger.ledger.tcp.TcpIngestionProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties({
+    LedgerProperties.class,
+    HistoryTieringProperties.class,
+    LedgerEngineProperties.class,
+    TransactionStreamProperties.class,
+    TcpIngestionProperties.class
+})
+public class LedgerConfiguration {
+
+    @Bean
+    public TransactionHistoryFactory transactionHistoryFactory(
+            LedgerProperties properties, HistoryTieringProperties tiering) {
+        if (!tiering.enabled()) {
+            return properties.historyStorage();
+        }
+        return new TieredHistoryStorage(
+                properties.historyStorage(),
+                tiering.directory(),
+                tiering.hotTransactions(),
+                tiering.segmentTransactions());
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.tinyledger.ledger.config;
+
+import com.example.tinyledger.ledger.domain.HistoryStorage;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("tiny-ledger.ledger")
+public record LedgerProperties(@DefaultValue("objects") HistoryStorage historyStorage) {}
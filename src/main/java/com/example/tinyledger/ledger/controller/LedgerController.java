@@ -1,33 +1,55 @@
 package com.example.tinyledger.ledger.controller;
 
 import com.example.tinyledger.common.controller.response.CreateEntityResponse;
+import com.example.tinyledger.ledger.controller.export.TransactionExportFormat;
 import com.example.tinyledger.ledger.controller.request.CreateLedgerRequest;
+import com.example.tinyledger.ledger.controller.request.CreateTransactionBatchRequest;
 import com.example.tinyledger.ledger.controller.request.CreateTransactionRequest;
+import com.example.tinyledger.ledger.controller.request.TransactionCursor;
 import com.example.tinyledger.ledger.controller.response.BalanceResponse;
+import com.example.tinyledger.ledger.controller.response.CreateTransactionBatchResponse;
 import com.example.tinyledger.ledger.controller.response.LedgerResponse;
+import com.example.tinyledger.ledger.controller.response.RollupResponse;
 import com.example.tinyledger.ledger.controller.response.TransactionResponse;
+import com.example.tinyledger.ledger.domain.Money;
+import com.example.tinyledger.ledger.domain.RollupGranularity;
+import com.example.tinyledger.ledger.domain.TransactionCommand;
+import com.example.tinyledger.ledger.domain.TransactionOrder;
 import com.example.tinyledger.ledger.service.LedgerService;
+import com.example.tinyledger.ledger.stream.TransactionStreams;
 import jakarta.validation.Valid;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/ledgers")
 public class LedgerController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
 
     private final LedgerService ledgerService;
+    private final TransactionStreams transactionStreams;
 
-    public LedgerController(LedgerService ledgerService) {
+    public LedgerController(LedgerService ledgerService, TransactionStreams transactionStreams) {
         this.ledgerService = ledgerService;
+        this.transactionStreams = transactionStreams;
     }
 
     @GetMapping
@@ -52,23 +74,108 @@ public class LedgerController {
 
     @PostMapping("/{id}/transactions")
     @ResponseStatus(HttpStatus.CREATED)
-    public CreateEntityResponse createTransaction(
-            @PathVariable("id") UUID ledgerId, @Valid @RequestBody CreateTransactionRequest transaction) {
+    // A CreateEntityResponse, or with the partitioned engine a CompletableFuture of one: the request thread is then
+    // released while the command waits for its partition and the journal.
+    public Object createTransaction(
+            @PathVariable("id") UUID ledgerId,
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody CreateTransactionRequest transaction) {
+        if (idempotencyKey != null) {
+            return new CreateEntityResponse(this.ledgerService.createTransaction(
+                    ledgerId, transaction.getAmount(), transaction.getTransactionType(), idempotencyKey));
+        }
+        if (this.ledgerService.createsTransactionsAsynchronously()) {
+            return this.ledgerService
+                    .createTransactionAsync(ledgerId, transaction.getAmount(), transaction.getTransactionType())
+                    .thenApply(transactionCreated -> new CreateEntityResponse(transactionCreated.id()));
+        }
         var transactionCreated = this.ledgerService.createTransaction(
                 ledgerId, transaction.getAmount(), transaction.getTransactionType());
         return new CreateEntityResponse(transactionCreated.id());
     }
 
-    @GetMapping("/{id}/transactions")
-    public List<TransactionResponse> getTransactions(@PathVariable("id") UUID ledgerId) {
-        return this.ledgerService.getTransactions(ledgerId).stream()
-                .map(TransactionResponse::from)
+    @PostMapping("/{id}/transactions/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public CreateTransactionBatchResponse createTransactions(
+            @PathVariable("id") UUID ledgerId, @Valid @RequestBody CreateTransactionBatchRequest batch) {
+        var commands = batch.getTransactions().stream()
+                .map(transaction ->
+                        new TransactionCommand(transaction.getTransactionType(), new Money(transaction.getAmount())))
                 .toList();
+        return CreateTransactionBatchResponse.from(this.ledgerService.createTransactions(ledgerId, commands));
+    }
+
+    @GetMapping("/{id}/transactions")
+    public ResponseEntity<List<TransactionResponse>> getTransactions(
+            @PathVariable("id") UUID ledgerId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "OLDEST_FIRST") TransactionOrder order,
+            WebRequest request) {
+        if (notModified(ledgerId, request)) {
+            return null;
+        }
+        var page = this.ledgerService.getTransactions(
+                ledgerId, TransactionCursor.decode(cursor), limit == null ? Integer.MAX_VALUE : limit, order);
+        var response = ResponseEntity.ok();
+        if (page.nextPosition() != null) {
+            response.header(NEXT_CURSOR_HEADER, TransactionCursor.encode(page.nextPosition()));
+        }
+        return response.body(
+                page.transactions().stream().map(TransactionResponse::from).toList());
+    }
+
+    @GetMapping("/{id}/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @PathVariable("id") UUID ledgerId,
+            @RequestParam(defaultValue = "NDJSON") TransactionExportFormat format) {
+        // Taken before the response is committed: unknown ledgers still get a 404 and later appends are not exported
+        var transactions = this.ledgerService.streamTransactions(ledgerId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.contentType()))
+                .body(output -> format.write(transactions, output));
+    }
+
+    @GetMapping(path = "/{id}/transactions/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTransactions(
+            @PathVariable("id") UUID ledgerId,
+            @RequestHeader(name = LAST_EVENT_ID_HEADER, required = false) UUID lastEventId) {
+        var ledger = this.ledgerService.getLedger(ledgerId);
+        return this.transactionStreams.subscribe(ledger, lastEventId);
     }
 
     @GetMapping("/{id}/balance")
-    public BalanceResponse getBalance(@PathVariable("id") UUID ledgerId) {
-        var currentBalance = this.ledgerService.getBalance(ledgerId);
-        return BalanceResponse.from(currentBalance);
+    public BalanceResponse getBalance(
+            @PathVariable("id") UUID ledgerId, @RequestParam(required = false) Instant asOf, WebRequest request) {
+        if (notModified(ledgerId, request)) {
+            return null;
+        }
+        var balance = this.ledgerService.getBalance(ledgerId, asOf);
+        return BalanceResponse.from(balance);
+    }
+
+    @GetMapping("/{id}/rollups")
+    public List<RollupResponse> getRollups(
+            @PathVariable("id") UUID ledgerId,
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            WebRequest request) {
+        if (notModified(ledgerId, request)) {
+            return null;
+        }
+        return this.ledgerService.getRollups(ledgerId, granularity, from, to).stream()
+                .map(RollupResponse::from)
+                .toList();
+    }
+
+    /**
+     * Sets the ledger's version as the {@code ETag} and returns whether it matches {@code If-None-Match}, in which case
+     * the response is already a 304 and nothing else must be written. Every representation of a ledger is derived from
+     * its history, so it cannot have changed while the version has not. The version is read before the representation
+     * is built: a transaction in between gives a body newer than its ETag, which only costs the client one more 200.
+     */
+    private boolean notModified(UUID ledgerId, WebRequest request) {
+        return request.checkNotModified(Long.toString(this.ledgerService.getVersion(ledgerId)));
     }
 }
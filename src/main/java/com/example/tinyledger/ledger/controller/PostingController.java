@@ -0,0 +1,34 @@
+package com.example.tinyledger.ledger.controller;
+
+import com.example.tinyledger.ledger.controller.request.CreatePostingRequest;
+import com.example.tinyledger.ledger.controller.response.CreateTransactionBatchResponse;
+import com.example.tinyledger.ledger.domain.Money;
+import com.example.tinyledger.ledger.domain.PostingLeg;
+import com.example.tinyledger.ledger.service.LedgerService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/postings")
+public class PostingController {
+
+    private final LedgerService ledgerService;
+
+    public PostingController(LedgerService ledgerService) {
+        this.ledgerService = ledgerService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public CreateTransactionBatchResponse createPosting(@Valid @RequestBody CreatePostingRequest createPostingRequest) {
+        var legs = createPostingRequest.getLegs().stream()
+                .map(leg -> new PostingLeg(leg.getLedgerId(), leg.getTransactionType(), new Money(leg.getAmount())))
+                .toList();
+        return CreateTransactionBatchResponse.from(this.ledgerService.createPosting(legs));
+    }
+}
@@ -28,6 +28,8 @@ public record ApiError(ErrorCode code, String message, List<ApiFieldError> detai
         ENTITY_NOT_FOUND,
         INVALID_MONEY_OPERATION,
         BAD_REQUEST,
+        INVALID_IDEMPOTENCY_KEY,
+        SERVICE_UNAVAILABLE,
         INTERNAL_SERVER_ERROR
     }
 }
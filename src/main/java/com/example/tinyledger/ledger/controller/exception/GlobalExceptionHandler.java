@@ -1,8 +1,13 @@
 /* (C) 2026 */
 package com.example.tinyledger.ledger.controller.exception;
 
+import com.example.tinyledger.common.exception.CommandRejectedException;
 import com.example.tinyledger.common.exception.EntityNotFoundException;
+import com.example.tinyledger.common.exception.IdempotencyKeyException;
+import com.example.tinyledger.common.exception.InvalidImportException;
 import com.example.tinyledger.common.exception.InvalidMoneyOperationException;
+import com.example.tinyledger.common.exception.InvalidPageRequestException;
+import com.example.tinyledger.ledger.metrics.LedgerMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -10,26 +15,63 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     private final Logger LOGGER = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+    private final LedgerMetrics metrics;
+
+    public GlobalExceptionHandler(LedgerMetrics metrics) {
+        this.metrics = metrics;
+    }
 
     @ExceptionHandler(EntityNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ApiError handleEntityNotFound(EntityNotFoundException ex) {
-        return ApiError.of(ApiError.ErrorCode.ENTITY_NOT_FOUND, ex.getMessage());
+        return error(ApiError.ErrorCode.ENTITY_NOT_FOUND, ex.getMessage());
     }
 
     @ExceptionHandler(InvalidMoneyOperationException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ApiError handleInvalidMoneyOperationException(InvalidMoneyOperationException ex) {
-        return ApiError.of(ApiError.ErrorCode.INVALID_MONEY_OPERATION, ex.getMessage());
+        return error(ApiError.ErrorCode.INVALID_MONEY_OPERATION, ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidPageRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleInvalidPageRequestException(InvalidPageRequestException ex) {
+        return error(ApiError.ErrorCode.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidImportException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleInvalidImportException(InvalidImportException ex) {
+        return error(ApiError.ErrorCode.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(IdempotencyKeyException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_CONTENT)
+    public ApiError handleIdempotencyKeyException(IdempotencyKeyException ex) {
+        return error(ApiError.ErrorCode.INVALID_IDEMPOTENCY_KEY, ex.getMessage());
+    }
+
+    @ExceptionHandler(CommandRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ApiError handleCommandRejectedException(CommandRejectedException ex) {
+        return error(ApiError.ErrorCode.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException ex) {
+        return error(ApiError.ErrorCode.BAD_REQUEST, "Invalid value for parameter: %s".formatted(ex.getName()));
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ApiError handleMethodArgumentNotValidException(MethodArgumentNotValidException ex) {
+        this.metrics.recordError(ApiError.ErrorCode.BAD_REQUEST);
         return ApiError.from(ApiError.ErrorCode.BAD_REQUEST, "Request body is invalid", ex.getBindingResult());
     }
 
@@ -37,6 +79,11 @@ public class GlobalExceptionHandler {
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ApiError handleRuntimeException(Exception ex) {
         LOGGER.error(ex.getMessage(), ex);
-        return ApiError.of(ApiError.ErrorCode.INTERNAL_SERVER_ERROR, "Internal server error");
+        return error(ApiError.ErrorCode.INTERNAL_SERVER_ERROR, "Internal server error");
+    }
+
+    private ApiError error(ApiError.ErrorCode code, String message) {
+        this.metrics.recordError(code);
+        return ApiError.of(code, message);
     }
 }
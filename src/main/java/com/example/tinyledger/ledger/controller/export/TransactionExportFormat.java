@@ -0,0 +1,120 @@
+package com.example.tinyledger.ledger.controller.export;
+
+import com.example.tinyledger.ledger.domain.Transaction;
+import com.example.tinyledger.ledger.domain.TransactionCodec;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * Formats written one transaction at a time, through a fixed-size buffer so that memory use does not depend on the
+ * number of transactions. In the line-oriented ones every field is a UUID, enum, number or instant, so nothing needs
+ * escaping.
+ */
+public enum TransactionExportFormat {
+    NDJSON("application/x-ndjson") {
+        @Override
+        public void write(Stream<Transaction> transactions, OutputStream output) throws IOException {
+            writeLines(transactions, output, "", TransactionExportFormat::writeJsonLine);
+        }
+    },
+    CSV("text/csv") {
+        @Override
+        public void write(Stream<Transaction> transactions, OutputStream output) throws IOException {
+            writeLines(transactions, output, CSV_HEADER, TransactionExportFormat::writeCsvLine);
+        }
+    },
+    /**
+     * A magic number, then for a non-empty history the 16 bytes of the ledger id followed by every transaction in the
+     * {@link TransactionCodec} encoding until the end of the stream.
+     */
+    BINARY("application/octet-stream") {
+        @Override
+        public void write(Stream<Transaction> transactions, OutputStream output) throws IOException {
+            var buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            var encoder = new TransactionCodec.Encoder();
+            buffer.putInt(BINARY_MAGIC);
+            var first = true;
+            for (var iterator = transactions.iterator(); iterator.hasNext(); ) {
+                var transaction = iterator.next();
+                if (first) {
+                    buffer.putLong(transaction.ledgerId().getMostSignificantBits());
+                    buffer.putLong(transaction.ledgerId().getLeastSignificantBits());
+                    first = false;
+                }
+                if (buffer.remaining() < TransactionCodec.MAX_RECORD_BYTES) {
+                    output.write(buffer.array(), 0, buffer.position());
+                    buffer.clear();
+                }
+                encoder.encode(transaction, buffer);
+            }
+            output.write(buffer.array(), 0, buffer.position());
+            output.flush();
+        }
+    };
+
+    public static final int BINARY_MAGIC = 0x544C4231;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "id,ledgerId,type,amount,occurredAt\n";
+
+    private final String contentType;
+
+    TransactionExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public abstract void write(Stream<Transaction> transactions, OutputStream output) throws IOException;
+
+    @FunctionalInterface
+    private interface LineWriter {
+        void write(Transaction transaction, Writer writer) throws IOException;
+    }
+
+    private static void writeLines(
+            Stream<Transaction> transactions, OutputStream output, String header, LineWriter lineWriter)
+            throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(header);
+        for (var iterator = transactions.iterator(); iterator.hasNext(); ) {
+            lineWriter.write(iterator.next(), writer);
+        }
+        writer.flush();
+    }
+
+    private static void writeJsonLine(Transaction transaction, Writer writer) throws IOException {
+        writer.write("{\"id\":\"");
+        writer.write(transaction.id().toString());
+        writer.write("\",\"ledgerId\":\"");
+        writer.write(transaction.ledgerId().toString());
+        writer.write("\",\"type\":\"");
+        writer.write(transaction.type().name());
+        writer.write("\",\"amount\":");
+        writer.write(Long.toString(transaction.amount().amount()));
+        writer.write(",\"occurredAt\":\"");
+        writer.write(transaction.occurredAt().toString());
+        writer.write("\"}\n");
+    }
+
+    private static void writeCsvLine(Transaction transaction, Writer writer) throws IOException {
+        writer.write(transaction.id().toString());
+        writer.write(',');
+        writer.write(transaction.ledgerId().toString());
+        writer.write(',');
+        writer.write(transaction.type().name());
+        writer.write(',');
+        writer.write(Long.toString(transaction.amount().amount()));
+        writer.write(',');
+        writer.write(transaction.occurredAt().toString());
+        writer.write('\n');
+    }
+}
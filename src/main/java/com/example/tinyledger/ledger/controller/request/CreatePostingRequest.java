@@ -0,0 +1,20 @@
+package com.example.tinyledger.ledger.controller.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class CreatePostingRequest {
+    @NotNull @Size(min = 2, max = 100) @Valid List<PostingLegRequest> legs;
+
+    public CreatePostingRequest() {}
+
+    public CreatePostingRequest(List<PostingLegRequest> legs) {
+        this.legs = legs;
+    }
+
+    public List<PostingLegRequest> getLegs() {
+        return legs;
+    }
+}
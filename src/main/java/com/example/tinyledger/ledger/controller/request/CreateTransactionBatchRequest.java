@@ -0,0 +1,20 @@
+package com.example.tinyledger.ledger.controller.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class CreateTransactionBatchRequest {
+    @NotEmpty @Size(max = 10_000) @Valid List<CreateTransactionRequest> transactions;
+
+    public CreateTransactionBatchRequest() {}
+
+    public CreateTransactionBatchRequest(List<CreateTransactionRequest> transactions) {
+        this.transactions = transactions;
+    }
+
+    public List<CreateTransactionRequest> getTransactions() {
+        return transactions;
+    }
+}
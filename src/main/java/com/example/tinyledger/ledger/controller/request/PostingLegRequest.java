@@ -0,0 +1,35 @@
+package com.example.tinyledger.ledger.controller.request;
+
+import com.example.tinyledger.ledger.domain.TransactionType;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.util.UUID;
+
+public class PostingLegRequest {
+
+    @NotNull UUID ledgerId;
+
+    @NotNull TransactionType transactionType;
+
+    @Positive @NotNull long amount;
+
+    public PostingLegRequest() {}
+
+    public PostingLegRequest(UUID ledgerId, TransactionType transactionType, long amount) {
+        this.ledgerId = ledgerId;
+        this.transactionType = transactionType;
+        this.amount = amount;
+    }
+
+    public UUID getLedgerId() {
+        return ledgerId;
+    }
+
+    public TransactionType getTransactionType() {
+        return transactionType;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+}
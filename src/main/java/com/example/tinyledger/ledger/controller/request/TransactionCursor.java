@@ -0,0 +1,34 @@
+package com.example.tinyledger.ledger.controller.request;
+
+import com.example.tinyledger.common.exception.InvalidPageRequestException;
+import jakarta.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public final class TransactionCursor {
+    private static final String PREFIX = "tx:";
+
+    private TransactionCursor() {}
+
+    public static String encode(int position) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((PREFIX + position).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Nullable
+    public static Integer decode(@Nullable String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) {
+                throw InvalidPageRequestException.invalidCursor(cursor);
+            }
+            return Integer.parseInt(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw InvalidPageRequestException.invalidCursor(cursor);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.tinyledger.ledger.controller.response;
+
+import com.example.tinyledger.ledger.domain.Transaction;
+import java.util.List;
+import java.util.UUID;
+
+public record CreateTransactionBatchResponse(List<UUID> ids) {
+    public static CreateTransactionBatchResponse from(List<Transaction> transactions) {
+        return new CreateTransactionBatchResponse(
+                transactions.stream().map(Transaction::id).toList());
+    }
+}
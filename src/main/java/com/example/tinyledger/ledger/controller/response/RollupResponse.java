@@ -0,0 +1,22 @@
+package com.example.tinyledger.ledger.controller.response;
+
+import com.example.tinyledger.ledger.domain.RollupBucket;
+import java.time.Instant;
+
+public record RollupResponse(
+        Instant start,
+        long depositTotal,
+        int depositCount,
+        long withdrawTotal,
+        int withdrawCount,
+        boolean saturated) {
+    public static RollupResponse from(RollupBucket bucket) {
+        return new RollupResponse(
+                bucket.start(),
+                bucket.depositTotal(),
+                bucket.depositCount(),
+                bucket.withdrawTotal(),
+                bucket.withdrawCount(),
+                bucket.saturated());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.tinyledger.ledger.domain;
+
+import java.util.Arrays;
+
+/**
+ * Running balances taken every {@link #INTERVAL} transactions, so the balance after any prefix of the history is the
+ * nearest checkpoint plus at most {@code INTERVAL - 1} transactions. Checkpoint {@code i} is the balance after
+ * {@code i * INTERVAL} transactions; checkpoint 0 is always zero and is not stored. At 8 bytes per 64 transactions the
+ * checkpoints add well under one percent to the history they cover.
+ *
+ * <p>Like {@link TransactionHistory}, there is a single writer (the ledger, under its lock) that records the checkpoint
+ * after appending the transaction it follows, so a reader may see a history size whose checkpoint is not recorded yet;
+ * {@link #nearest} falls back to the one before it.
+ */
+final class BalanceCheckpoints {
+    static final int INTERVAL = 64;
+    private static final int INITIAL_CAPACITY = 4;
+
+    private volatile long[] balances = new long[INITIAL_CAPACITY];
+    private volatile int size;
+
+    /** Records {@code balance} if {@code transactionCount} transactions close a checkpoint interval. */
+    void onAppend(int transactionCount, long balance) {
+        if (transactionCount % INTERVAL != 0) {
+            return;
+        }
+        var index = this.size;
+        var current = this.balances;
+        if (index == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+            this.balances = current;
+        }
+        current[index] = balance;
+        this.size = index + 1;
+    }
+
+    /** Returns {@code checkpoint}, or the last recorded checkpoint if that one is not recorded yet. */
+    int nearest(int checkpoint) {
+        return Math.min(checkpoint, this.size);
+    }
+
+    /** Returns the balance after {@code checkpoint * INTERVAL} transactions, which must be recorded. */
+    long balanceAt(int checkpoint) {
+        return checkpoint == 0 ? 0 : this.balances[checkpoint - 1];
+    }
+}
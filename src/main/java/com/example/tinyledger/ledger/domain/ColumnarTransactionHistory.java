@@ -0,0 +1,131 @@
+package com.example.tinyledger.ledger.domain;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Keeps the history in primitive columns: id halves, amounts, {@code occurredAt} as epoch nanoseconds and the type
+ * ordinal. The ledger id is shared by every entry, so it is not stored. {@link Transaction} objects are only
+ * materialized on read, which keeps the retained heap at about 33 bytes per entry and out of the GC-traced object
+ * graph.
+ */
+public final class ColumnarTransactionHistory implements TransactionHistory {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final long BYTES_PER_ENTRY = 4 * Long.BYTES + 1;
+    private static final long ARRAY_HEADER_BYTES = 16;
+
+    private final UUID ledgerId;
+    private volatile Columns columns;
+    private volatile int size;
+
+    public ColumnarTransactionHistory(UUID ledgerId) {
+        this.ledgerId = ledgerId;
+        this.columns = new Columns(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public void append(Transaction transaction) {
+        var index = this.size;
+        var current = this.columns;
+        if (index == current.capacity()) {
+            current = current.grow();
+            this.columns = current;
+        }
+        current.idMostSignificantBits[index] = transaction.id().getMostSignificantBits();
+        current.idLeastSignificantBits[index] = transaction.id().getLeastSignificantBits();
+        current.amounts[index] = transaction.amount().amount();
+        current.occurredAtNanos[index] = toEpochNanos(transaction.occurredAt());
+        current.types[index] = (byte) transaction.type().ordinal();
+        this.size = index + 1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Transaction get(int index) {
+        var current = this.columns;
+        var occurredAtNanos = current.occurredAtNanos[index];
+        return new Transaction(
+                new UUID(current.idMostSignificantBits[index], current.idLeastSignificantBits[index]),
+                this.ledgerId,
+                TYPES[current.types[index]],
+                new Money(current.amounts[index]),
+                Instant.ofEpochSecond(
+                        Math.floorDiv(occurredAtNanos, NANOS_PER_SECOND),
+                        Math.floorMod(occurredAtNanos, NANOS_PER_SECOND)));
+    }
+
+    // Compares the epoch nanosecond column directly instead of materializing a transaction per probe.
+    @Override
+    public int countOccurredAtOrBefore(Instant instant) {
+        var count = this.size;
+        var occurredAtNanos = this.columns.occurredAtNanos;
+        var target = TransactionCodec.saturatedEpochNanos(instant);
+        var low = 0;
+        var high = count;
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (occurredAtNanos[middle] > target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return 5 * ARRAY_HEADER_BYTES + this.columns.capacity() * BYTES_PER_ENTRY;
+    }
+
+    private static long toEpochNanos(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND), instant.getNano());
+    }
+
+    private static final class Columns {
+        private final long[] idMostSignificantBits;
+        private final long[] idLeastSignificantBits;
+        private final long[] amounts;
+        private final long[] occurredAtNanos;
+        private final byte[] types;
+
+        private Columns(int capacity) {
+            this(new long[capacity], new long[capacity], new long[capacity], new long[capacity], new byte[capacity]);
+        }
+
+        private Columns(
+                long[] idMostSignificantBits,
+                long[] idLeastSignificantBits,
+                long[] amounts,
+                long[] occurredAtNanos,
+                byte[] types) {
+            this.idMostSignificantBits = idMostSignificantBits;
+            this.idLeastSignificantBits = idLeastSignificantBits;
+            this.amounts = amounts;
+            this.occurredAtNanos = occurredAtNanos;
+            this.types = types;
+        }
+
+        private int capacity() {
+            return types.length;
+        }
+
+        // Grows by half, like ArrayList, to keep the transient copy small for very long histories.
+        private Columns grow() {
+            var capacity = capacity() + (capacity() >> 1);
+            return new Columns(
+                    Arrays.copyOf(idMostSignificantBits, capacity),
+                    Arrays.copyOf(idLeastSignificantBits, capacity),
+                    Arrays.copyOf(amounts, capacity),
+                    Arrays.copyOf(occurredAtNanos, capacity),
+                    Arrays.copyOf(types, capacity));
+        }
+    }
+}
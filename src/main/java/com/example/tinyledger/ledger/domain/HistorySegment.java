@@ -0,0 +1,178 @@
+package com.example.tinyledger.ledger.domain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * An immutable run of transactions sealed in the {@link TransactionCodec} encoding into a region of a memory-mapped
+ * file that {@link TieredHistoryStorage} shares between segments.
+ *
+ * <p>Entries are split into blocks of {@link #BLOCK_SIZE} that are encoded independently, so reading one transaction
+ * decodes a single block. Only the block offsets and the id and time of each block's first entry are kept on the heap,
+ * which lets binary searches skip whole blocks without decoding them. The file is never forced to disk, because the
+ * journal and snapshots, not segments, are what survives a restart.
+ */
+final class HistorySegment {
+    static final int BLOCK_SIZE = 256;
+
+    private static final long OBJECT_BYTES = 48;
+    private static final long ARRAY_HEADER_BYTES = 16;
+
+    private final UUID ledgerId;
+    private final ByteBuffer data;
+    private final int size;
+    private final int[] blockOffsets;
+    private final long[] blockFirstIdMostSignificantBits;
+    private final long[] blockFirstOccurredAtNanos;
+
+    private HistorySegment(
+            UUID ledgerId,
+            ByteBuffer data,
+            int size,
+            int[] blockOffsets,
+            long[] blockFirstIdMostSignificantBits,
+            long[] blockFirstOccurredAtNanos) {
+        this.ledgerId = ledgerId;
+        this.data = data;
+        this.size = size;
+        this.blockOffsets = blockOffsets;
+        this.blockFirstIdMostSignificantBits = blockFirstIdMostSignificantBits;
+        this.blockFirstOccurredAtNanos = blockFirstOccurredAtNanos;
+    }
+
+    /** Where {@link #write} puts the encoded entries: copies them to mapped memory and returns a view of the copy. */
+    @FunctionalInterface
+    interface Target {
+        ByteBuffer put(ByteBuffer encoded) throws IOException;
+    }
+
+    /**
+     * Encodes every transaction of {@code transactions} and hands them to {@code target}. The encoder and the scratch
+     * buffer, which must hold {@link TransactionCodec#MAX_RECORD_BYTES} per transaction, are reused across segments.
+     */
+    static HistorySegment write(
+            UUID ledgerId,
+            TransactionHistory transactions,
+            TransactionCodec.Encoder encoder,
+            ByteBuffer scratch,
+            Target target)
+            throws IOException {
+        var count = transactions.size();
+        var blockCount = Math.ceilDiv(count, BLOCK_SIZE);
+        var blockOffsets = new int[blockCount + 1];
+        var blockFirstIdMostSignificantBits = new long[blockCount];
+        var blockFirstOccurredAtNanos = new long[blockCount];
+        scratch.clear();
+        for (int blockIndex = 0; blockIndex < blockCount; blockIndex++) {
+            encoder.reset();
+            var first = blockIndex * BLOCK_SIZE;
+            var last = Math.min(first + BLOCK_SIZE, count);
+            for (int i = first; i < last; i++) {
+                var transaction = transactions.get(i);
+                if (i == first) {
+                    blockFirstIdMostSignificantBits[blockIndex] = transaction.id().getMostSignificantBits();
+                    blockFirstOccurredAtNanos[blockIndex] = TransactionCodec.toEpochNanos(transaction.occurredAt());
+                }
+                encoder.encode(transaction, scratch);
+            }
+            blockOffsets[blockIndex + 1] = scratch.position();
+        }
+        var data = target.put(scratch.flip());
+        return new HistorySegment(
+                ledgerId, data, count, blockOffsets, blockFirstIdMostSignificantBits, blockFirstOccurredAtNanos);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long firstIdMostSignificantBits(int blockIndex) {
+        return blockFirstIdMostSignificantBits[blockIndex];
+    }
+
+    long firstOccurredAtNanos(int blockIndex) {
+        return blockFirstOccurredAtNanos[blockIndex];
+    }
+
+    long fileBytes() {
+        return data.capacity();
+    }
+
+    long estimatedBytes() {
+        return 2 * OBJECT_BYTES
+                + 3 * ARRAY_HEADER_BYTES
+                + (long) blockOffsets.length * Integer.BYTES
+                + 2L * blockFirstOccurredAtNanos.length * Long.BYTES;
+    }
+
+    /** Decodes the block holding the entries from {@code blockIndex * BLOCK_SIZE} into primitive columns. */
+    Block block(int blockIndex) {
+        var block = new Block(Math.min(BLOCK_SIZE, size - blockIndex * BLOCK_SIZE));
+        var encoded = data.slice(blockOffsets[blockIndex], blockOffsets[blockIndex + 1] - blockOffsets[blockIndex]);
+        var decoder = new TransactionCodec.Decoder(ledgerId);
+        for (int i = 0; i < block.types.length; i++) {
+            decoder.decode(encoded, block);
+        }
+        return block;
+    }
+
+    static final class Block implements TransactionCodec.Sink {
+        private static final TransactionType[] TYPES = TransactionType.values();
+
+        private final long[] idMostSignificantBits;
+        private final long[] idLeastSignificantBits;
+        private final long[] amounts;
+        private final long[] occurredAtNanos;
+        private final byte[] types;
+        private int decoded;
+
+        private Block(int size) {
+            this.idMostSignificantBits = new long[size];
+            this.idLeastSignificantBits = new long[size];
+            this.amounts = new long[size];
+            this.occurredAtNanos = new long[size];
+            this.types = new byte[size];
+        }
+
+        @Override
+        public void accept(
+                long idMostSignificantBits,
+                long idLeastSignificantBits,
+                TransactionType type,
+                long amount,
+                long epochNanos) {
+            this.idMostSignificantBits[decoded] = idMostSignificantBits;
+            this.idLeastSignificantBits[decoded] = idLeastSignificantBits;
+            this.amounts[decoded] = amount;
+            this.occurredAtNanos[decoded] = epochNanos;
+            this.types[decoded] = (byte) type.ordinal();
+            decoded++;
+        }
+
+        int size() {
+            return types.length;
+        }
+
+        long idMostSignificantBits(int index) {
+            return idMostSignificantBits[index];
+        }
+
+        long occurredAtNanos(int index) {
+            return occurredAtNanos[index];
+        }
+
+        Transaction get(UUID ledgerId, int index) {
+            return new Transaction(
+                    new UUID(idMostSignificantBits[index], idLeastSignificantBits[index]),
+                    ledgerId,
+                    TYPES[types[index]],
+                    new Money(amounts[index]),
+                    TransactionCodec.ofEpochNanos(occurredAtNanos[index]));
+        }
+
+        long estimatedBytes() {
+            return OBJECT_BYTES + 5 * ARRAY_HEADER_BYTES + types.length * (4L * Long.BYTES + 1);
+        }
+    }
+}
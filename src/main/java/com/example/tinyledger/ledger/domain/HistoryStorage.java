@@ -0,0 +1,18 @@
+package com.example.tinyledger.ledger.domain;
+
+import java.util.UUID;
+
+public enum HistoryStorage implements TransactionHistoryFactory {
+    /** Every transaction is retained as a {@link Transaction} object. */
+    OBJECTS,
+    /** Transactions are retained in primitive columns and materialized on read. */
+    COLUMNAR;
+
+    @Override
+    public TransactionHistory create(UUID ledgerId) {
+        return switch (this) {
+            case OBJECTS -> new ObjectTransactionHistory();
+            case COLUMNAR -> new ColumnarTransactionHistory(ledgerId);
+        };
+    }
+}
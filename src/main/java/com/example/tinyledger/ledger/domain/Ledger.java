@@ -1,58 +1,534 @@
 package com.example.tinyledger.ledger.domain;
 
+import com.example.tinyledger.common.exception.InvalidImportException;
 import com.example.tinyledger.common.exception.InvalidMoneyOperationException;
+import com.example.tinyledger.common.id.IdGenerator;
+import com.example.tinyledger.common.id.TimeOrderedIdGenerator;
+import jakarta.annotation.Nullable;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 public class Ledger {
+    private static final int MAX_POSITION_PROBES = 16_384;
+
     private final UUID id;
     private final UUID userId;
     private final String name;
-    private Money balance;
-    private final List<Transaction> transactions;
+    // Written under the lock, read without it. A primitive, so updating it allocates nothing.
+    private volatile long balance;
+    private final TransactionHistory transactions;
+    private final BalanceCheckpoints checkpoints = new BalanceCheckpoints();
+    private final TransactionRollups rollups = new TransactionRollups();
+    private final IdGenerator idGenerator;
+    private TransactionListener transactionListener;
+    private TransactionJournal journal = TransactionJournal.NONE;
+    // A ReentrantLock rather than a monitor: listeners may block on journal I/O, which would pin a virtual thread's
+    // carrier for the whole write if it happened inside a synchronized block.
+    private final ReentrantLock lock = new ReentrantLock();
+    // When the current holder acquired the lock, guarded by it.
+    private long lockedAt;
+    private LedgerLockListener lockListener = LedgerLockListener.NONE;
+    private LedgerBalanceListener balanceListener = LedgerBalanceListener.NONE;
+    // Replaced rather than modified, under the lock
+    private TransactionAppendedListener[] appendedListeners = new TransactionAppendedListener[0];
 
-    private Ledger(UUID id, UUID userId, String name, Money money, List<Transaction> transactions) {
+    private Ledger(
+            UUID id,
+            UUID userId,
+            String name,
+            Money money,
+            TransactionHistory transactions,
+            IdGenerator idGenerator) {
         this.id = id;
         this.userId = userId;
         this.name = name;
-        this.balance = money;
+        this.balance = money.amount();
         this.transactions = transactions;
+        this.idGenerator = idGenerator;
+        this.transactionListener = TransactionListener.NONE;
+        var runningBalance = 0L;
+        for (int i = 0, count = transactions.size(); i < count; i++) {
+            var transaction = transactions.get(i);
+            runningBalance = switch (transaction.type()) {
+                case DEPOSIT -> runningBalance + transaction.amount().amount();
+                case WITHDRAW -> runningBalance - transaction.amount().amount();
+            };
+            this.checkpoints.onAppend(i + 1, runningBalance);
+            this.rollups.onAppend(transaction);
+        }
     }
 
     public Ledger(String name, UUID userId) {
-        this(UUID.randomUUID(), userId, name, Money.zero(), new ArrayList<>());
+        this(name, userId, HistoryStorage.OBJECTS);
+    }
+
+    public Ledger(String name, UUID userId, TransactionHistoryFactory historyFactory) {
+        this(name, userId, historyFactory, IdGenerator.timeOrdered());
+    }
+
+    public Ledger(String name, UUID userId, TransactionHistoryFactory historyFactory, IdGenerator idGenerator) {
+        this(idGenerator.nextId(), userId, name, historyFactory, idGenerator);
     }
 
-    public synchronized Transaction deposit(Money depositAmount) {
-        this.balance = this.balance.add(depositAmount);
-        var transaction =
-                new Transaction(UUID.randomUUID(), this.getId(), TransactionType.DEPOSIT, depositAmount, Instant.now());
-        this.transactions.add(transaction);
-        return transaction;
+    private Ledger(
+            UUID id, UUID userId, String name, TransactionHistoryFactory historyFactory, IdGenerator idGenerator) {
+        this(id, userId, name, Money.zero(), historyFactory.create(id), idGenerator);
     }
 
-    public synchronized Transaction withdraw(Money withdrawAmount) {
-        if (this.getBalance().isLessThan(withdrawAmount)) {
-            throw InvalidMoneyOperationException.insufficientFunds(this.getBalance(), withdrawAmount);
+    public static Ledger restore(
+            UUID id, UUID userId, String name, TransactionHistoryFactory historyFactory, IdGenerator idGenerator) {
+        return new Ledger(id, userId, name, historyFactory, idGenerator);
+    }
+
+    public static Ledger restore(
+            UUID id,
+            UUID userId,
+            String name,
+            Money balance,
+            TransactionHistory transactions,
+            IdGenerator idGenerator) {
+        return new Ledger(id, userId, name, balance, transactions, idGenerator);
+    }
+
+    public Transaction deposit(Money depositAmount) {
+        var waitNanos = this.lock();
+        try {
+            var newBalance = Money.add(this.balance, depositAmount.amount());
+            var transaction = new Transaction(
+                    this.idGenerator.nextId(),
+                    this.getId(),
+                    TransactionType.DEPOSIT,
+                    depositAmount,
+                    this.nextOccurredAt());
+            this.journal(transaction);
+            this.commit(transaction, newBalance);
+            return transaction;
+        } finally {
+            this.unlock(LedgerOperation.DEPOSIT, waitNanos);
         }
-        this.balance = this.balance.subtract(withdrawAmount);
-        var transaction = new Transaction(
-                UUID.randomUUID(), this.getId(), TransactionType.WITHDRAW, withdrawAmount, Instant.now());
-        this.transactions.add(transaction);
-        return transaction;
     }
 
-    public synchronized List<Transaction> getTransactions() {
-        return transactions.stream()
-                .sorted(Comparator.comparing(Transaction::occurredAt))
+    public Transaction withdraw(Money withdrawAmount) {
+        var waitNanos = this.lock();
+        try {
+            if (this.balance < withdrawAmount.amount()) {
+                throw InvalidMoneyOperationException.insufficientFunds(this.balance, withdrawAmount.amount());
+            }
+            var newBalance = this.balance - withdrawAmount.amount();
+            var transaction = new Transaction(
+                    this.idGenerator.nextId(),
+                    this.getId(),
+                    TransactionType.WITHDRAW,
+                    withdrawAmount,
+                    this.nextOccurredAt());
+            this.journal(transaction);
+            this.commit(transaction, newBalance);
+            return transaction;
+        } finally {
+            this.unlock(LedgerOperation.WITHDRAW, waitNanos);
+        }
+    }
+
+    /**
+     * Applies every command or none of them: the whole batch is checked against the running balance before the first
+     * transaction is recorded, is journaled as one unit, and all transactions share one {@code occurredAt}.
+     */
+    public List<Transaction> apply(List<TransactionCommand> commands) {
+        var waitNanos = this.lock();
+        try {
+            var runningBalance = this.balance;
+            for (var command : commands) {
+                runningBalance = applyTo(runningBalance, command.type(), command.amount());
+            }
+            var occurredAt = this.nextOccurredAt();
+            var transactions = new ArrayList<Transaction>(commands.size());
+            for (var command : commands) {
+                transactions.add(this.newTransaction(command.type(), command.amount(), occurredAt));
+            }
+            var sequenced = new ArrayList<SequencedTransaction>(transactions.size());
+            for (var transaction : transactions) {
+                sequenced.add(new SequencedTransaction(transaction, this.transactions.size() + sequenced.size()));
+            }
+            this.journal.append(sequenced);
+            for (var transaction : transactions) {
+                this.commit(transaction);
+            }
+            return transactions;
+        } finally {
+            this.unlock(LedgerOperation.APPLY, waitNanos);
+        }
+    }
+
+    /**
+     * Applies every leg or none of them, across any number of ledgers. Ledger locks are taken in ledger id order,
+     * so postings over overlapping ledgers cannot deadlock and postings over disjoint ledgers never contend. Every leg
+     * is journaled in one unit while all the locks are held, so a restart restores the whole posting or none of it.
+     * The ledgers must share their journal. Returns the recorded transactions in leg order.
+     */
+    public static List<Transaction> post(List<PostingLeg> legs, Map<UUID, Ledger> ledgersById) {
+        var debits = 0L;
+        var credits = 0L;
+        for (var leg : legs) {
+            switch (leg.type()) {
+                case DEPOSIT -> credits = Money.add(credits, leg.amount().amount());
+                case WITHDRAW -> debits = Money.add(debits, leg.amount().amount());
+            }
+        }
+        if (debits != credits) {
+            throw InvalidMoneyOperationException.unbalancedPosting(debits, credits);
+        }
+        var ledgers = legs.stream()
+                .map(leg -> ledgersById.get(leg.ledgerId()))
+                .distinct()
+                .sorted(Comparator.comparing(Ledger::getId))
                 .toList();
+        var waitNanos = new long[ledgers.size()];
+        var locked = 0;
+        try {
+            for (var ledger : ledgers) {
+                waitNanos[locked] = ledger.lock();
+                locked++;
+            }
+            var runningBalances = new IdentityHashMap<Ledger, Long>();
+            for (var leg : legs) {
+                var ledger = ledgersById.get(leg.ledgerId());
+                var runningBalance = runningBalances.getOrDefault(ledger, ledger.balance);
+                runningBalances.put(ledger, applyTo(runningBalance, leg.type(), leg.amount()));
+            }
+            var occurredAt = ledgers.stream()
+                    .map(Ledger::nextOccurredAt)
+                    .max(Comparator.naturalOrder())
+                    .orElseThrow();
+            var journal = ledgers.getFirst().journal;
+            var nextSequences = new IdentityHashMap<Ledger, Integer>();
+            var transactions = new ArrayList<Transaction>(legs.size());
+            var sequenced = new ArrayList<SequencedTransaction>(legs.size());
+            for (var leg : legs) {
+                var ledger = ledgersById.get(leg.ledgerId());
+                if (ledger.journal != journal) {
+                    throw new IllegalArgumentException("Ledgers of a posting must share a journal");
+                }
+                var transaction = ledger.newTransaction(leg.type(), leg.amount(), occurredAt);
+                var sequence = nextSequences.getOrDefault(ledger, ledger.transactions.size());
+                nextSequences.put(ledger, sequence + 1);
+                transactions.add(transaction);
+                sequenced.add(new SequencedTransaction(transaction, sequence));
+            }
+            journal.append(sequenced);
+            for (var transaction : transactions) {
+                ledgersById.get(transaction.ledgerId()).commit(transaction);
+            }
+            return transactions;
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                ledgers.get(i).unlock(LedgerOperation.POST, waitNanos[i]);
+            }
+        }
+    }
+
+    /**
+     * Records historical transactions with their original ids and timestamps, in order. Each one is checked like a new
+     * deposit or withdrawal and must not be older than the latest recorded transaction; rejected transactions are
+     * handed to {@code rejected} and skipped. Returns the number of transactions recorded.
+     */
+    public int importTransactions(List<Transaction> transactions, BiConsumer<Transaction, RuntimeException> rejected) {
+        var waitNanos = this.lock();
+        try {
+            var imported = 0;
+            for (var transaction : transactions) {
+                try {
+                    var last = this.transactions.last();
+                    if (last != null && transaction.occurredAt().isBefore(last.occurredAt())) {
+                        throw InvalidImportException.transactionOlderThanHistory(transaction.id(), last.occurredAt());
+                    }
+                    var newBalance = applyTo(this.balance, transaction.type(), transaction.amount());
+                    this.journal(transaction);
+                    this.commit(transaction, newBalance);
+                    imported++;
+                } catch (InvalidImportException | InvalidMoneyOperationException e) {
+                    rejected.accept(transaction, e);
+                }
+            }
+            return imported;
+        } finally {
+            this.unlock(LedgerOperation.IMPORT, waitNanos);
+        }
+    }
+
+    public void replay(Transaction transaction) {
+        this.lock.lock();
+        try {
+            var newBalance = switch (transaction.type()) {
+                case DEPOSIT -> Money.add(this.balance, transaction.amount().amount());
+                case WITHDRAW -> Money.subtract(this.balance, transaction.amount().amount());
+            };
+            this.append(transaction, newBalance);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public void addTransactionListener(TransactionListener transactionListener) {
+        this.lock.lock();
+        try {
+            this.transactionListener = this.transactionListener == TransactionListener.NONE
+                    ? transactionListener
+                    : this.transactionListener.andThen(transactionListener);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /** Sets where new transactions are journaled; replayed transactions are not. */
+    public void setJournal(TransactionJournal journal) {
+        this.lock.lock();
+        try {
+            this.journal = journal;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public void setLockListener(LedgerLockListener lockListener) {
+        this.lock.lock();
+        try {
+            this.lockListener = lockListener;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /** Adds a listener to those called after every append, in the order they were added. */
+    public void addAppendedListener(TransactionAppendedListener appendedListener) {
+        this.lock.lock();
+        try {
+            var listeners = Arrays.copyOf(this.appendedListeners, this.appendedListeners.length + 1);
+            listeners[listeners.length - 1] = appendedListener;
+            this.appendedListeners = listeners;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /** Removes a listener added with {@link #addAppendedListener}; does nothing if it is not there. */
+    public void removeAppendedListener(TransactionAppendedListener appendedListener) {
+        this.lock.lock();
+        try {
+            this.appendedListeners = Arrays.stream(this.appendedListeners)
+                    .filter(listener -> listener != appendedListener)
+                    .toArray(TransactionAppendedListener[]::new);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /** Attaches the listener and reports the current balance to it as its first change. */
+    public void setBalanceListener(LedgerBalanceListener balanceListener) {
+        this.lock.lock();
+        try {
+            this.balanceListener = balanceListener;
+            balanceListener.onBalanceChanged(this.balance);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public List<Transaction> getTransactions() {
+        return transactions.toList();
+    }
+
+    /**
+     * Returns every transaction recorded before this call, including one that a write in progress has already handed
+     * to the transaction listeners. Waiting for the lock lets that write finish, so a transaction the journal holds
+     * before this call is never missing; the history is then read without the lock.
+     */
+    public List<Transaction> getCommittedTransactions() {
+        int count;
+        this.lock.lock();
+        try {
+            count = transactions.size();
+        } finally {
+            this.lock.unlock();
+        }
+        var committed = new ArrayList<Transaction>(count);
+        for (int i = 0; i < count; i++) {
+            committed.add(transactions.get(i));
+        }
+        return committed;
+    }
+
+    public TransactionPage getTransactions(@Nullable Integer position, int limit, TransactionOrder order) {
+        return transactions.page(position, limit, order);
+    }
+
+    public Stream<Transaction> streamTransactions() {
+        return transactions.stream();
+    }
+
+    /**
+     * Returns the number of transactions up to and including the one with the given id, or -1 if there is none.
+     *
+     * <p>Transaction ids are generated under the ledger lock, so time-ordered ids carry millisecond timestamps that
+     * grow with the history: a binary search on them finds where the transaction should be, and the ids around that
+     * position are compared. Other ids, and imported transactions whose ids follow no such order, are looked for among
+     * the newest transactions. Each search compares at most 16384 ids, so looking up an id that is not there costs the
+     * same whatever the length of the history.
+     */
+    public int getPositionAfter(UUID transactionId) {
+        var count = transactions.size();
+        if (transactionId.version() == 7) {
+            var millis = TimeOrderedIdGenerator.timestampOf(transactionId);
+            var start = Math.min(transactions.countGeneratedBefore(millis), count);
+            var position = findPosition(transactionId, start, 0, count);
+            if (position >= 0) {
+                return position;
+            }
+        }
+        return findPosition(transactionId, count, Math.max(0, count - MAX_POSITION_PROBES), count);
+    }
+
+    // Compares the ids in [from, to) nearest to start first, alternating below and above it; from <= start <= to.
+    private int findPosition(UUID transactionId, int start, int from, int to) {
+        var probes = 0;
+        for (int distance = 0; probes < MAX_POSITION_PROBES; distance++) {
+            var below = start - 1 - distance;
+            var above = start + distance;
+            if (below < from && above >= to) {
+                break;
+            }
+            if (below >= from) {
+                probes++;
+                if (transactions.get(below).id().equals(transactionId)) {
+                    return below + 1;
+                }
+            }
+            if (above < to) {
+                probes++;
+                if (transactions.get(above).id().equals(transactionId)) {
+                    return above + 1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public int getTransactionCount() {
+        return transactions.size();
+    }
+
+    /**
+     * Changes with every transaction and never goes back to an earlier value, because the history is append-only: it is
+     * the number of transactions. Read without the lock.
+     */
+    public long getVersion() {
+        return transactions.size();
+    }
+
+    public Money getBalance() {
+        return new Money(this.balance);
+    }
+
+    /**
+     * Returns the balance after every transaction that occurred at or before {@code asOf}: a binary search over the
+     * history finds them, the nearest checkpoint covers all but at most {@code BalanceCheckpoints.INTERVAL - 1} of
+     * them, and only those are summed.
+     */
+    public Money getBalance(Instant asOf) {
+        var count = transactions.countOccurredAtOrBefore(asOf);
+        var checkpoint = checkpoints.nearest(count / BalanceCheckpoints.INTERVAL);
+        var balance = checkpoints.balanceAt(checkpoint);
+        for (int i = checkpoint * BalanceCheckpoints.INTERVAL; i < count; i++) {
+            var transaction = transactions.get(i);
+            balance = switch (transaction.type()) {
+                case DEPOSIT -> balance + transaction.amount().amount();
+                case WITHDRAW -> balance - transaction.amount().amount();
+            };
+        }
+        return new Money(balance);
+    }
+
+    /** Returns the totals per bucket overlapping {@code [from, to)}, oldest first; null bounds are open. */
+    public List<RollupBucket> getRollups(RollupGranularity granularity, @Nullable Instant from, @Nullable Instant to) {
+        return rollups.get(granularity, from, to);
+    }
+
+    public long getEstimatedHistoryBytes() {
+        return transactions.estimatedBytes();
+    }
+
+    // Returns how long the caller waited for the lock.
+    private long lock() {
+        var requestedAt = System.nanoTime();
+        this.lock.lock();
+        this.lockedAt = System.nanoTime();
+        return this.lockedAt - requestedAt;
+    }
+
+    private void unlock(LedgerOperation operation, long waitNanos) {
+        var holdNanos = System.nanoTime() - this.lockedAt;
+        var listener = this.lockListener;
+        this.lock.unlock();
+        listener.onLockReleased(operation, waitNanos, holdNanos);
+    }
+
+    private Transaction newTransaction(TransactionType type, Money amount, Instant occurredAt) {
+        return new Transaction(this.idGenerator.nextId(), this.getId(), type, amount, occurredAt);
+    }
+
+    // Callers hold this ledger's lock and have checked the transaction against the balance.
+    private void journal(Transaction transaction) {
+        this.journal.append(transaction, this.transactions.size());
+    }
+
+    // Callers hold this ledger's lock and have journaled the transaction after checking it against the balance.
+    private void commit(Transaction transaction) {
+        this.commit(transaction, applyTo(this.balance, transaction.type(), transaction.amount()));
+    }
+
+    private void commit(Transaction transaction, long newBalance) {
+        this.append(transaction, newBalance);
+        this.transactionListener.onTransaction(transaction);
+    }
+
+    // Callers hold this ledger's lock. The history goes first: it is the only step that can fail, on a transaction
+    // its storage cannot hold, and then the balance, checkpoints, rollups and listeners are still untouched.
+    private void append(Transaction transaction, long newBalance) {
+        this.transactions.append(transaction);
+        this.balanceListener.onBalanceChanged(newBalance - this.balance);
+        this.balance = newBalance;
+        this.checkpoints.onAppend(this.transactions.size(), newBalance);
+        this.rollups.onAppend(transaction);
+        for (var appendedListener : this.appendedListeners) {
+            appendedListener.onAppended(transaction);
+        }
+    }
+
+    private static long applyTo(long balance, TransactionType type, Money amount) {
+        return switch (type) {
+            case DEPOSIT -> Money.add(balance, amount.amount());
+            case WITHDRAW -> {
+                if (balance < amount.amount()) {
+                    throw InvalidMoneyOperationException.insufficientFunds(balance, amount.amount());
+                }
+                yield balance - amount.amount();
+            }
+        };
     }
 
-    public synchronized Money getBalance() {
-        return this.balance;
+    // Keeps history in occurredAt order even if the wall clock steps backwards.
+    private Instant nextOccurredAt() {
+        var now = Instant.now();
+        var last = this.transactions.last();
+        return last != null && now.isBefore(last.occurredAt()) ? last.occurredAt() : now;
     }
 
     public UUID getId() {
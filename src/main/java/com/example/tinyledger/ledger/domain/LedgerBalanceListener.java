@@ -0,0 +1,13 @@
+package com.example.tinyledger.ledger.domain;
+
+/**
+ * Called by {@link Ledger} while it holds its lock, with how much each transaction moves its balance: positive for
+ * deposits, negative for withdrawals. Replayed transactions are reported too, so an aggregate fed by this listener
+ * stays in step with the ledger however its history was loaded.
+ */
+@FunctionalInterface
+public interface LedgerBalanceListener {
+    LedgerBalanceListener NONE = delta -> {};
+
+    void onBalanceChanged(long delta);
+}
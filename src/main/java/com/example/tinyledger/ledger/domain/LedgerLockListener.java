@@ -0,0 +1,12 @@
+package com.example.tinyledger.ledger.domain;
+
+/**
+ * Called by {@link Ledger} right after it releases its lock, with how long the operation waited for the lock and how
+ * long it then held it. Durations are passed as primitives so that listening does not allocate on the write path.
+ */
+@FunctionalInterface
+public interface LedgerLockListener {
+    LedgerLockListener NONE = (operation, waitNanos, holdNanos) -> {};
+
+    void onLockReleased(LedgerOperation operation, long waitNanos, long holdNanos);
+}
@@ -0,0 +1,10 @@
+package com.example.tinyledger.ledger.domain;
+
+/** Operations that take a {@link Ledger}'s lock to change it. */
+public enum LedgerOperation {
+    DEPOSIT,
+    WITHDRAW,
+    APPLY,
+    POST,
+    IMPORT
+}
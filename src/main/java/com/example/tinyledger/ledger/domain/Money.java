@@ -2,31 +2,47 @@ package com.example.tinyledger.ledger.domain;
 
 import com.example.tinyledger.common.exception.InvalidMoneyOperationException;
 
-public record Money(Long amount) {
-    private static final long ZERO = 0;
+/**
+ * A non-negative amount in minor units. The static {@code long} operations are the same arithmetic without the
+ * wrapper, for callers that keep amounts as primitives and must not allocate.
+ */
+public record Money(long amount) {
+    private static final Money ZERO = new Money(0);
 
     public Money {
-        if (amount == null || amount < 0) {
+        if (amount < 0) {
             throw InvalidMoneyOperationException.amountMustBePositiveNumber(amount);
         }
     }
 
     public static Money zero() {
-        return new Money(ZERO);
+        return ZERO;
     }
 
     public Money add(Money other) {
-        return new Money(this.amount + other.amount);
+        return new Money(add(this.amount, other.amount));
     }
 
     public Money subtract(Money other) {
-        if (this.amount < other.amount) {
-            throw InvalidMoneyOperationException.couldNotSubtractGreaterNumber(this, other);
-        }
-        return new Money(this.amount - other.amount);
+        return new Money(subtract(this.amount, other.amount));
     }
 
     public boolean isLessThan(Money withdrawAmount) {
         return this.amount < withdrawAmount.amount;
     }
+
+    public static long add(long amount, long other) {
+        try {
+            return Math.addExact(amount, other);
+        } catch (ArithmeticException e) {
+            throw InvalidMoneyOperationException.overflow(amount, other);
+        }
+    }
+
+    public static long subtract(long amount, long other) {
+        if (amount < other) {
+            throw InvalidMoneyOperationException.couldNotSubtractGreaterNumber(amount, other);
+        }
+        return amount - other;
+    }
 }
@@ -0,0 +1,53 @@
+package com.example.tinyledger.ledger.domain;
+
+import java.util.Arrays;
+import java.util.List;
+
+/** Keeps every {@link Transaction} as an object in a growable array. */
+public final class ObjectTransactionHistory implements TransactionHistory {
+    private static final int INITIAL_CAPACITY = 8;
+    // Transaction (32), its UUID id (32), Money (24) and Instant (24); the ledger id and type are shared.
+    private static final long BYTES_PER_TRANSACTION = 112;
+    private static final long ARRAY_HEADER_BYTES = 16;
+    private static final long REFERENCE_BYTES = 4;
+
+    private volatile Transaction[] entries;
+    private volatile int size;
+
+    public ObjectTransactionHistory() {
+        this.entries = new Transaction[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public void append(Transaction transaction) {
+        var index = this.size;
+        var current = this.entries;
+        if (index == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+            this.entries = current;
+        }
+        current[index] = transaction;
+        this.size = index + 1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Transaction get(int index) {
+        return this.entries[index];
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return ARRAY_HEADER_BYTES + this.entries.length * REFERENCE_BYTES + this.size * BYTES_PER_TRANSACTION;
+    }
+
+    @Override
+    public List<Transaction> toList() {
+        var count = this.size;
+        return List.of(Arrays.copyOf(this.entries, count));
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.tinyledger.ledger.domain;
+
+import java.util.UUID;
+
+public record PostingLeg(UUID ledgerId, TransactionType type, Money amount) {}
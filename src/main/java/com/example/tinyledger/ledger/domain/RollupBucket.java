@@ -0,0 +1,10 @@
+package com.example.tinyledger.ledger.domain;
+
+import java.time.Instant;
+
+/** A total that would exceed {@link Long#MAX_VALUE} stays there, and the bucket is then {@link #saturated}. */
+public record RollupBucket(Instant start, long depositTotal, int depositCount, long withdrawTotal, int withdrawCount) {
+    public boolean saturated() {
+        return depositTotal == Long.MAX_VALUE || withdrawTotal == Long.MAX_VALUE;
+    }
+}
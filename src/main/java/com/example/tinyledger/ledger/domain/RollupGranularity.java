@@ -0,0 +1,37 @@
+package com.example.tinyledger.ledger.domain;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+/** Bucket sizes for {@link Ledger#getRollups}, aligned to UTC. */
+public enum RollupGranularity {
+    HOUR,
+    DAY,
+    MONTH;
+
+    private static final long SECONDS_PER_HOUR = 3_600;
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    /** Returns the epoch second at which the bucket containing {@code epochSecond} starts. */
+    long bucketStart(long epochSecond) {
+        return switch (this) {
+            case HOUR -> Math.floorDiv(epochSecond, SECONDS_PER_HOUR) * SECONDS_PER_HOUR;
+            case DAY -> Math.floorDiv(epochSecond, SECONDS_PER_DAY) * SECONDS_PER_DAY;
+            case MONTH -> LocalDate.ofEpochDay(Math.floorDiv(epochSecond, SECONDS_PER_DAY))
+                    .withDayOfMonth(1)
+                    .toEpochSecond(LocalTime.MIDNIGHT, ZoneOffset.UTC);
+        };
+    }
+
+    /** Returns the epoch second at which the bucket starting at {@code bucketStart} ends. */
+    long bucketEnd(long bucketStart) {
+        return switch (this) {
+            case HOUR -> bucketStart + SECONDS_PER_HOUR;
+            case DAY -> bucketStart + SECONDS_PER_DAY;
+            case MONTH -> LocalDate.ofEpochDay(bucketStart / SECONDS_PER_DAY)
+                    .plusMonths(1)
+                    .toEpochSecond(LocalTime.MIDNIGHT, ZoneOffset.UTC);
+        };
+    }
+}
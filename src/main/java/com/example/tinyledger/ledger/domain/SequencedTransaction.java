@@ -0,0 +1,4 @@
+package com.example.tinyledger.ledger.domain;
+
+/** A transaction and its index in its ledger's history. */
+public record SequencedTransaction(Transaction transaction, long sequence) {}
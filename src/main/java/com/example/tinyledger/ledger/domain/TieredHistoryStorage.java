@@ -0,0 +1,135 @@
+package com.example.tinyledger.ledger.domain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Creates {@link TieredTransactionHistory} instances that keep {@code hotTransactions} recent transactions of each
+ * ledger in {@code hotStorage} and seal older ones, {@code segmentTransactions} at a time, into segment files under
+ * {@code directory}.
+ *
+ * <p>The segments of all ledgers are packed one after another into shared files of {@code fileBytes}, each mapped once
+ * when it is created, so the number of mappings grows with the sealed bytes rather than with the number of segments and
+ * stays far below the operating system's limit ({@code vm.max_map_count} on Linux). Segments only hold history that the
+ * journal or the snapshots can rebuild, so segment files left over from a previous run are deleted on startup. Sealing
+ * runs on a single background thread shared by all ledgers, which keeps encoding and file I/O off the ledger lock.
+ */
+public final class TieredHistoryStorage implements TransactionHistoryFactory, AutoCloseable {
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final int FILE_BYTES = 256 * 1024 * 1024;
+
+    private final HistoryStorage hotStorage;
+    private final Path directory;
+    private final int segmentTransactions;
+    private final int hotChunks;
+    private final int fileBytes;
+    private final ExecutorService sealer;
+    // Only used on the sealing thread
+    private final TransactionCodec.Encoder encoder = new TransactionCodec.Encoder();
+    private final ByteBuffer scratch;
+    private MappedByteBuffer file;
+    private int fileCount;
+
+    public TieredHistoryStorage(
+            HistoryStorage hotStorage, Path directory, int hotTransactions, int segmentTransactions) {
+        this(hotStorage, directory, hotTransactions, segmentTransactions, FILE_BYTES);
+    }
+
+    TieredHistoryStorage(
+            HistoryStorage hotStorage, Path directory, int hotTransactions, int segmentTransactions, int fileBytes) {
+        if (hotTransactions < 0 || segmentTransactions <= 0) {
+            throw new IllegalArgumentException("Hot transactions must not be negative and segments must not be empty");
+        }
+        this.hotStorage = hotStorage;
+        this.directory = directory;
+        this.segmentTransactions = segmentTransactions;
+        this.hotChunks = Math.ceilDiv(hotTransactions, segmentTransactions);
+        this.scratch = ByteBuffer.allocate(Math.multiplyExact(segmentTransactions, TransactionCodec.MAX_RECORD_BYTES));
+        // Any segment fits in a file of its own
+        this.fileBytes = Math.max(fileBytes, scratch.capacity());
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (var file : files.toList()) {
+                    if (file.getFileName().toString().endsWith(SEGMENT_SUFFIX)) {
+                        Files.delete(file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not prepare history directory %s".formatted(directory), e);
+        }
+        this.sealer = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "history-sealer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public TransactionHistory create(UUID ledgerId) {
+        return new TieredTransactionHistory(ledgerId, this);
+    }
+
+    @Override
+    public void close() {
+        sealer.shutdownNow();
+    }
+
+    int segmentTransactions() {
+        return segmentTransactions;
+    }
+
+    int hotChunks() {
+        return hotChunks;
+    }
+
+    TransactionHistory createChunk(UUID ledgerId) {
+        return hotStorage.create(ledgerId);
+    }
+
+    /** Queues a seal, returning false once the storage is closed. */
+    boolean submit(Runnable seal) {
+        try {
+            sealer.execute(seal);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    HistorySegment write(UUID ledgerId, TransactionHistory chunk) throws IOException {
+        return HistorySegment.write(ledgerId, chunk, encoder, scratch, this::append);
+    }
+
+    // Copies an encoded segment to the end of the current file, starting a new file when it does not fit
+    private ByteBuffer append(ByteBuffer encoded) throws IOException {
+        if (file == null || file.remaining() < encoded.remaining()) {
+            var path = directory.resolve("history-" + fileCount + SEGMENT_SUFFIX);
+            try (var channel = FileChannel.open(
+                    path,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                file = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes);
+            }
+            fileCount++;
+        }
+        var offset = file.position();
+        var length = encoded.remaining();
+        file.put(encoded);
+        return file.slice(offset, length);
+    }
+}
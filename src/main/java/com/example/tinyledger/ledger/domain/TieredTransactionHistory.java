@@ -0,0 +1,271 @@
+package com.example.tinyledger.ledger.domain;
+
+import com.example.tinyledger.common.id.TimeOrderedIdGenerator;
+import java.io.IOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToIntFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the most recent transactions in memory and seals older ones into compact, memory-mapped
+ * {@link HistorySegment} files, so the heap a ledger retains is bounded by its hot window rather than by its history.
+ *
+ * <p>The history is cut into chunks of {@code segmentTransactions} entries, each kept in the configured
+ * {@link HistoryStorage} while it is hot. Once more full chunks than fit in the hot window exist, the oldest is sealed
+ * on the storage's sealing thread and then swapped for its segment. Both tiers are published together in one immutable
+ * {@link Tiers} value and hold identical entries, so a reader sees every index below the size it observed whichever
+ * tier it finds it in. If sealing fails, the chunk simply stays in memory.
+ *
+ * <p>Recently decoded blocks are cached by their place in the history, so a sequential read decodes each block once and
+ * readers at different places do not evict each other's blocks. Binary searches over the sealed tier compare the first
+ * entry of each block, which segments keep on the heap, and decode only the block the answer falls in.
+ */
+public final class TieredTransactionHistory implements TransactionHistory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TieredTransactionHistory.class);
+    // A power of two
+    private static final int CACHED_BLOCKS = 8;
+
+    private final UUID ledgerId;
+    private final TieredHistoryStorage storage;
+    private final int segmentTransactions;
+    private final int segmentBlocks;
+    private final AtomicReference<Tiers> tiers = new AtomicReference<>(Tiers.EMPTY);
+    // Indexed by the block's number in the sealed history, modulo CACHED_BLOCKS
+    private final AtomicReferenceArray<DecodedBlock> decodedBlocks = new AtomicReferenceArray<>(CACHED_BLOCKS);
+    private volatile int size;
+    private volatile boolean sealingFailed;
+    private int sealsRequested;
+
+    TieredTransactionHistory(UUID ledgerId, TieredHistoryStorage storage) {
+        this.ledgerId = ledgerId;
+        this.storage = storage;
+        this.segmentTransactions = storage.segmentTransactions();
+        this.segmentBlocks = Math.ceilDiv(segmentTransactions, HistorySegment.BLOCK_SIZE);
+    }
+
+    @Override
+    public void append(Transaction transaction) {
+        var index = this.size;
+        if (index % segmentTransactions == 0) {
+            var chunk = storage.createChunk(ledgerId);
+            this.tiers.updateAndGet(current -> current.withChunk(chunk));
+            requestSeals(index / segmentTransactions);
+        }
+        this.tiers.get().lastChunk().append(transaction);
+        this.size = index + 1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Transaction get(int index) {
+        var slot = index / segmentTransactions;
+        var offset = index % segmentTransactions;
+        var current = this.tiers.get();
+        var sealed = current.segments.length;
+        if (slot >= sealed) {
+            return current.chunks[slot - sealed].get(offset);
+        }
+        var block = block(current.segments, slot * segmentBlocks + offset / HistorySegment.BLOCK_SIZE);
+        return block.get(ledgerId, offset % HistorySegment.BLOCK_SIZE);
+    }
+
+    @Override
+    public int countOccurredAtOrBefore(Instant instant) {
+        return countUpTo(
+                SortKey.OCCURRED_AT,
+                TransactionCodec.saturatedEpochNanos(instant),
+                chunk -> chunk.countOccurredAtOrBefore(instant));
+    }
+
+    @Override
+    public int countGeneratedBefore(long millis) {
+        return countUpTo(SortKey.ID_MILLIS, millis - 1, chunk -> chunk.countGeneratedBefore(millis));
+    }
+
+    @Override
+    public long estimatedBytes() {
+        var current = this.tiers.get();
+        var bytes = 0L;
+        for (var segment : current.segments) {
+            bytes += segment.estimatedBytes();
+        }
+        for (var chunk : current.chunks) {
+            bytes += chunk.estimatedBytes();
+        }
+        for (int i = 0; i < CACHED_BLOCKS; i++) {
+            var decoded = this.decodedBlocks.get(i);
+            if (decoded != null) {
+                bytes += decoded.block.estimatedBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /** Bytes of the segment files backing the sealed part of the history, which are mapped rather than on the heap. */
+    public long sealedBytes() {
+        return Arrays.stream(this.tiers.get().segments)
+                .mapToLong(HistorySegment::fileBytes)
+                .sum();
+    }
+
+    public int sealedCount() {
+        return this.tiers.get().segments.length * segmentTransactions;
+    }
+
+    // The block numbered from the start of the sealed history, decoded unless it is still cached
+    private HistorySegment.Block block(HistorySegment[] segments, int number) {
+        var segment = segments[number / segmentBlocks];
+        var index = number % segmentBlocks;
+        var cacheIndex = number & (CACHED_BLOCKS - 1);
+        var decoded = this.decodedBlocks.get(cacheIndex);
+        if (decoded == null || decoded.segment != segment || decoded.index != index) {
+            decoded = new DecodedBlock(segment, index, segment.block(index));
+            this.decodedBlocks.set(cacheIndex, decoded);
+        }
+        return decoded.block;
+    }
+
+    // How many entries have a key of at most target: the sealed blocks are searched by their first keys, then at most
+    // one of them is decoded, and the hot chunks are only searched when every sealed entry is counted.
+    private int countUpTo(SortKey key, long target, ToIntFunction<TransactionHistory> countInChunk) {
+        var count = this.size;
+        var current = this.tiers.get();
+        var segments = current.segments;
+        var sealedBlocks = segments.length * segmentBlocks;
+        var low = 0;
+        var high = sealedBlocks;
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (key.first(segments[middle / segmentBlocks], middle % segmentBlocks) > target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        if (low == 0 && sealedBlocks > 0) {
+            return 0;
+        }
+        if (low > 0) {
+            var number = low - 1;
+            var block = block(segments, number);
+            var inBlock = countUpTo(key, target, block);
+            if (low < sealedBlocks || inBlock < block.size()) {
+                return (number / segmentBlocks) * segmentTransactions
+                        + (number % segmentBlocks) * HistorySegment.BLOCK_SIZE
+                        + inBlock;
+            }
+        }
+        var counted = segments.length * segmentTransactions;
+        for (var chunk : current.chunks) {
+            var inChunk = countInChunk.applyAsInt(chunk);
+            counted += inChunk;
+            if (inChunk < segmentTransactions) {
+                break;
+            }
+        }
+        return Math.min(counted, count);
+    }
+
+    private static int countUpTo(SortKey key, long target, HistorySegment.Block block) {
+        var low = 0;
+        var high = block.size();
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (key.of(block, middle) > target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    // Called by the writer whenever a chunk fills up; seals run in order on the storage's single sealing thread.
+    private void requestSeals(int fullChunks) {
+        while (!sealingFailed && fullChunks - sealsRequested > storage.hotChunks()) {
+            sealsRequested++;
+            if (!storage.submit(this::sealOldestChunk)) {
+                return;
+            }
+        }
+    }
+
+    // Only the sealing thread removes chunks, so the oldest chunk is always the next slot to seal
+    private void sealOldestChunk() {
+        if (sealingFailed) {
+            return;
+        }
+        try {
+            var current = this.tiers.get();
+            var segment = storage.write(ledgerId, current.chunks[0]);
+            this.tiers.updateAndGet(latest -> latest.sealFirstChunk(segment));
+        } catch (ClosedByInterruptException e) {
+            // The storage is closing
+        } catch (IOException | RuntimeException e) {
+            sealingFailed = true;
+            LOGGER.warn("Could not seal history of ledger {}, keeping it in memory", ledgerId, e);
+        }
+    }
+
+    private record Tiers(HistorySegment[] segments, TransactionHistory[] chunks) {
+        private static final Tiers EMPTY = new Tiers(new HistorySegment[0], new TransactionHistory[0]);
+
+        private TransactionHistory lastChunk() {
+            return chunks[chunks.length - 1];
+        }
+
+        private Tiers withChunk(TransactionHistory chunk) {
+            var grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[chunks.length] = chunk;
+            return new Tiers(segments, grown);
+        }
+
+        private Tiers sealFirstChunk(HistorySegment segment) {
+            var grown = Arrays.copyOf(segments, segments.length + 1);
+            grown[segments.length] = segment;
+            return new Tiers(grown, Arrays.copyOfRange(chunks, 1, chunks.length));
+        }
+    }
+
+    private record DecodedBlock(HistorySegment segment, int index, HistorySegment.Block block) {}
+
+    // Keys that never decrease along a ledger's history, read from sealed blocks without creating transactions
+    private enum SortKey {
+        OCCURRED_AT {
+            @Override
+            long first(HistorySegment segment, int blockIndex) {
+                return segment.firstOccurredAtNanos(blockIndex);
+            }
+
+            @Override
+            long of(HistorySegment.Block block, int index) {
+                return block.occurredAtNanos(index);
+            }
+        },
+        ID_MILLIS {
+            @Override
+            long first(HistorySegment segment, int blockIndex) {
+                return TimeOrderedIdGenerator.timestampOf(segment.firstIdMostSignificantBits(blockIndex));
+            }
+
+            @Override
+            long of(HistorySegment.Block block, int index) {
+                return TimeOrderedIdGenerator.timestampOf(block.idMostSignificantBits(index));
+            }
+        };
+
+        abstract long first(HistorySegment segment, int blockIndex);
+
+        abstract long of(HistorySegment.Block block, int index);
+    }
+}
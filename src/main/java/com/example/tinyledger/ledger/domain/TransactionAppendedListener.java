@@ -0,0 +1,11 @@
+package com.example.tinyledger.ledger.domain;
+
+/**
+ * Called by {@link Ledger} while it holds its lock, right after a transaction has become visible to readers. It runs on
+ * the write path, so it must return quickly and never block.
+ */
+@FunctionalInterface
+public interface TransactionAppendedListener {
+
+    void onAppended(Transaction transaction);
+}
@@ -0,0 +1,182 @@
+package com.example.tinyledger.ledger.domain;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding for a run of transactions of one ledger, in append order.
+ *
+ * <p>The ledger id is implied by the run and not written. Each record is:
+ *
+ * <ul>
+ *   <li>the high half of the id as a zig-zag varint delta from the previous one, which is a byte or a few for
+ *       time-ordered ids, followed by the random low half as 8 fixed bytes
+ *   <li>the amount shifted left by one bit with the type in the freed bit, as a varint: amounts are never negative, so
+ *       the bit zig-zag encoding would spend on the sign carries the type instead
+ *   <li>{@code occurredAt} in epoch nanoseconds as a zig-zag varint delta of deltas, which is small when transactions
+ *       arrive at a steady rate
+ * </ul>
+ *
+ * <p>Records are self-delimiting and at most {@link #MAX_RECORD_BYTES} long. {@link Encoder} and {@link Decoder} keep
+ * the previous values of their run, write to and read from caller-provided buffers and never allocate per record, so
+ * the same instances can be reused across runs after {@code reset()}. Only instants within about 292 years of the epoch
+ * can be encoded.
+ */
+public final class TransactionCodec {
+    public static final int MAX_RECORD_BYTES = 10 + Long.BYTES + 10 + 10;
+    /** The earliest instant epoch nanoseconds can hold, in 1677. */
+    public static final Instant MIN_INSTANT = Instant.ofEpochSecond(0, Long.MIN_VALUE);
+    /** The latest instant epoch nanoseconds can hold, in 2262. */
+    public static final Instant MAX_INSTANT = Instant.ofEpochSecond(0, Long.MAX_VALUE);
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final int TYPE_BITS = 1;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    static {
+        if (TYPES.length > 1 << TYPE_BITS) {
+            throw new ExceptionInInitializerError("Transaction types do not fit in " + TYPE_BITS + " bit");
+        }
+    }
+
+    private TransactionCodec() {}
+
+    /** Receives decoded records as primitives, so decoding into columns allocates nothing. */
+    @FunctionalInterface
+    public interface Sink {
+        void accept(
+                long idMostSignificantBits,
+                long idLeastSignificantBits,
+                TransactionType type,
+                long amount,
+                long epochNanos);
+    }
+
+    public static final class Encoder {
+        private long previousIdBits;
+        private long previousEpochNanos;
+        private long previousDelta;
+
+        public void reset() {
+            previousIdBits = 0;
+            previousEpochNanos = 0;
+            previousDelta = 0;
+        }
+
+        /** Appends one record to {@code buffer}, which must have {@link #MAX_RECORD_BYTES} remaining. */
+        public void encode(Transaction transaction, ByteBuffer buffer) {
+            var idBits = transaction.id().getMostSignificantBits();
+            var epochNanos = toEpochNanos(transaction.occurredAt());
+            var delta = epochNanos - previousEpochNanos;
+            putVarint(buffer, zigZag(idBits - previousIdBits));
+            buffer.putLong(transaction.id().getLeastSignificantBits());
+            putVarint(buffer, transaction.amount().amount() << TYPE_BITS | transaction.type().ordinal());
+            putVarint(buffer, zigZag(delta - previousDelta));
+            previousIdBits = idBits;
+            previousEpochNanos = epochNanos;
+            previousDelta = delta;
+        }
+    }
+
+    public static final class Decoder {
+        private final UUID ledgerId;
+        private long previousIdBits;
+        private long previousEpochNanos;
+        private long previousDelta;
+        private long idLeastSignificantBits;
+        private long amountAndType;
+
+        public Decoder(UUID ledgerId) {
+            this.ledgerId = ledgerId;
+        }
+
+        public void reset() {
+            previousIdBits = 0;
+            previousEpochNanos = 0;
+            previousDelta = 0;
+        }
+
+        /** Reads the next record from {@code buffer} into {@code sink}. */
+        public void decode(ByteBuffer buffer, Sink sink) {
+            next(buffer);
+            sink.accept(previousIdBits, idLeastSignificantBits, type(), amount(), previousEpochNanos);
+        }
+
+        /** Reads the next record from {@code buffer} as a {@link Transaction}. */
+        public Transaction decode(ByteBuffer buffer) {
+            next(buffer);
+            return new Transaction(
+                    new UUID(previousIdBits, idLeastSignificantBits),
+                    ledgerId,
+                    type(),
+                    new Money(amount()),
+                    ofEpochNanos(previousEpochNanos));
+        }
+
+        private void next(ByteBuffer buffer) {
+            previousIdBits += unZigZag(getVarint(buffer));
+            idLeastSignificantBits = buffer.getLong();
+            amountAndType = getVarint(buffer);
+            previousDelta += unZigZag(getVarint(buffer));
+            previousEpochNanos += previousDelta;
+        }
+
+        private TransactionType type() {
+            return TYPES[(int) (amountAndType & ((1 << TYPE_BITS) - 1))];
+        }
+
+        private long amount() {
+            return amountAndType >>> TYPE_BITS;
+        }
+    }
+
+    public static long toEpochNanos(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND), instant.getNano());
+    }
+
+    /**
+     * Like {@link #toEpochNanos} for instants that queries may ask about beyond the roughly 292 years epoch nanoseconds
+     * can hold, which fall before or after every recorded transaction.
+     */
+    public static long saturatedEpochNanos(Instant instant) {
+        try {
+            return toEpochNanos(instant);
+        } catch (ArithmeticException e) {
+            return instant.getEpochSecond() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    public static Instant ofEpochNanos(long epochNanos) {
+        return Instant.ofEpochSecond(
+                Math.floorDiv(epochNanos, NANOS_PER_SECOND), Math.floorMod(epochNanos, NANOS_PER_SECOND));
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarint(ByteBuffer buffer) {
+        var value = 0L;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            var next = buffer.get();
+            value |= (next & 0x7FL) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint longer than 10 bytes");
+    }
+}
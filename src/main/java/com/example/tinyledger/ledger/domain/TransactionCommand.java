@@ -0,0 +1,3 @@
+package com.example.tinyledger.ledger.domain;
+
+public record TransactionCommand(TransactionType type, Money amount) {}
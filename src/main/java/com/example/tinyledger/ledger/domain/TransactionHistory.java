@@ -0,0 +1,123 @@
+package com.example.tinyledger.ledger.domain;
+
+import com.example.tinyledger.common.exception.InvalidPageRequestException;
+import com.example.tinyledger.common.id.TimeOrderedIdGenerator;
+import jakarta.annotation.Nullable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Append-only transaction history kept in append order, which {@link Ledger} guarantees is also {@code occurredAt}
+ * order.
+ *
+ * <p>There is a single writer (the ledger, under its lock) and any number of lock-free readers. Implementations store
+ * the entry first and only then publish the new size through a volatile write; readers read {@link #size()} first, so
+ * every index below the size they observed can be read with {@link #get(int)}.
+ */
+public interface TransactionHistory {
+
+    void append(Transaction transaction);
+
+    int size();
+
+    Transaction get(int index);
+
+    /** Approximate heap retained by the history, assuming a 64-bit JVM with compressed references. */
+    long estimatedBytes();
+
+    @Nullable
+    default Transaction last() {
+        var count = size();
+        return count == 0 ? null : get(count - 1);
+    }
+
+    /** Returns how many transactions occurred at or before {@code instant}, by binary search over the history. */
+    default int countOccurredAtOrBefore(Instant instant) {
+        var low = 0;
+        var high = size();
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (get(middle).occurredAt().isAfter(instant)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns how many transactions have time-ordered ids generated before the Unix millisecond {@code millis}, by
+     * binary search over the history. Only meaningful where ids were generated in append order, as {@link Ledger} does.
+     */
+    default int countGeneratedBefore(long millis) {
+        var low = 0;
+        var high = size();
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (TimeOrderedIdGenerator.timestampOf(get(middle).id()) < millis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    default List<Transaction> toList() {
+        var count = size();
+        var transactions = new Transaction[count];
+        for (int i = 0; i < count; i++) {
+            transactions[i] = get(i);
+        }
+        return Arrays.asList(transactions);
+    }
+
+    /**
+     * Lazily streams the transactions appended before this call. Later appends are not included, so the stream is a
+     * consistent snapshot that never holds a lock.
+     */
+    default Stream<Transaction> stream() {
+        var count = size();
+        return IntStream.range(0, count).mapToObj(this::get);
+    }
+
+    /**
+     * Returns up to {@code limit} transactions starting at {@code position}, or at the oldest/newest transaction when
+     * {@code position} is null. Positions are stable because the history is append-only: for oldest-first pages the
+     * next position is the first index not returned, for newest-first pages it is the last index returned.
+     */
+    default TransactionPage page(@Nullable Integer position, int limit, TransactionOrder order) {
+        var count = size();
+        var transactions = new ArrayList<Transaction>(Math.min(limit, count));
+        return switch (order) {
+            case OLDEST_FIRST -> {
+                var from = position == null ? 0 : checkPosition(position, count);
+                var to = (int) Math.min((long) from + limit, count);
+                for (int i = from; i < to; i++) {
+                    transactions.add(get(i));
+                }
+                yield new TransactionPage(transactions, to < count ? to : null);
+            }
+            case NEWEST_FIRST -> {
+                var to = position == null ? count : checkPosition(position, count);
+                var from = (int) Math.max((long) to - limit, 0);
+                for (int i = to - 1; i >= from; i--) {
+                    transactions.add(get(i));
+                }
+                yield new TransactionPage(transactions, from > 0 ? from : null);
+            }
+        };
+    }
+
+    private static int checkPosition(int position, int count) {
+        if (position < 0 || position > count) {
+            throw InvalidPageRequestException.positionOutOfRange(position);
+        }
+        return position;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.tinyledger.ledger.domain;
+
+import java.util.UUID;
+
+/** Creates the empty history of a new or restored ledger. */
+@FunctionalInterface
+public interface TransactionHistoryFactory {
+
+    TransactionHistory create(UUID ledgerId);
+}
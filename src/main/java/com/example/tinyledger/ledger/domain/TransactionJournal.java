@@ -0,0 +1,24 @@
+package com.example.tinyledger.ledger.domain;
+
+import java.util.List;
+
+/**
+ * Makes the transactions of one operation durable as a unit: a deposit or withdrawal, a batch or every leg of a
+ * posting. Called by {@link Ledger} while it holds the lock of every ledger involved, before any of the transactions
+ * becomes visible and before the transaction listeners run. Throwing aborts the operation and leaves every ledger
+ * unchanged.
+ */
+public interface TransactionJournal {
+    TransactionJournal NONE = new TransactionJournal() {
+        @Override
+        public void append(Transaction transaction, long sequence) {}
+
+        @Override
+        public void append(List<SequencedTransaction> transactions) {}
+    };
+
+    /** Journals a deposit or withdrawal, the transaction at {@code sequence}, without allocating a list for it. */
+    void append(Transaction transaction, long sequence);
+
+    void append(List<SequencedTransaction> transactions);
+}
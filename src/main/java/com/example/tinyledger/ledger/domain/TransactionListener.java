@@ -0,0 +1,19 @@
+package com.example.tinyledger.ledger.domain;
+
+/**
+ * Called by {@link Ledger} while it holds its lock, once a new transaction has been journaled and recorded. The
+ * transaction is already durable by then, so the listener must not throw.
+ */
+@FunctionalInterface
+public interface TransactionListener {
+    TransactionListener NONE = transaction -> {};
+
+    void onTransaction(Transaction transaction);
+
+    default TransactionListener andThen(TransactionListener next) {
+        return transaction -> {
+            this.onTransaction(transaction);
+            next.onTransaction(transaction);
+        };
+    }
+}
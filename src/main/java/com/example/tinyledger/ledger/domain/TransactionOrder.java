@@ -0,0 +1,6 @@
+package com.example.tinyledger.ledger.domain;
+
+public enum TransactionOrder {
+    OLDEST_FIRST,
+    NEWEST_FIRST,
+}
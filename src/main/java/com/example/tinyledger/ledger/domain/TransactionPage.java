@@ -0,0 +1,6 @@
+package com.example.tinyledger.ledger.domain;
+
+import jakarta.annotation.Nullable;
+import java.util.List;
+
+public record TransactionPage(List<Transaction> transactions, @Nullable Integer nextPosition) {}
@@ -0,0 +1,179 @@
+package com.example.tinyledger.ledger.domain;
+
+import jakarta.annotation.Nullable;
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Deposit and withdrawal totals and counts per hour, day and month, updated as each transaction is appended so that
+ * reading them never scans the history.
+ *
+ * <p>Transactions arrive in {@code occurredAt} order, so buckets are only ever appended or added to at the end and
+ * each series is a set of primitive columns sorted by bucket start: 32 bytes per non-empty bucket, and a range
+ * query is a binary search. Totals saturate at {@link Long#MAX_VALUE} instead of overflowing. There is a single
+ * writer (the ledger, under its lock). Readers never take the lock: the writer makes {@code version} odd while it
+ * updates a series, and a reader retries if the version it read before copying is odd or has changed by the time it
+ * is done.
+ */
+final class TransactionRollups {
+    private static final RollupGranularity[] GRANULARITIES = RollupGranularity.values();
+
+    private final Series[] series = new Series[GRANULARITIES.length];
+
+    TransactionRollups() {
+        for (var granularity : GRANULARITIES) {
+            series[granularity.ordinal()] = new Series(granularity);
+        }
+    }
+
+    void onAppend(Transaction transaction) {
+        var epochSecond = transaction.occurredAt().getEpochSecond();
+        var amount = transaction.amount().amount();
+        for (var current : series) {
+            current.add(epochSecond, transaction.type(), amount);
+        }
+    }
+
+    /** Returns the buckets overlapping {@code [from, to)}, oldest first; a null bound leaves that side open. */
+    List<RollupBucket> get(RollupGranularity granularity, @Nullable Instant from, @Nullable Instant to) {
+        return series[granularity.ordinal()].get(from, to);
+    }
+
+    private static final class Series {
+        private static final int INITIAL_CAPACITY = 4;
+
+        private final RollupGranularity granularity;
+        private volatile int version;
+        // Guarded by version.
+        private Columns columns = new Columns(INITIAL_CAPACITY);
+        private int size;
+        // Only used by the writer: where the last bucket ends, so most appends skip the bucket arithmetic.
+        private long lastBucketEnd = Long.MIN_VALUE;
+
+        private Series(RollupGranularity granularity) {
+            this.granularity = granularity;
+        }
+
+        private void add(long epochSecond, TransactionType type, long amount) {
+            var stamp = this.version;
+            this.version = stamp + 1;
+            VarHandle.storeStoreFence();
+            var current = this.columns;
+            if (epochSecond >= lastBucketEnd) {
+                var start = granularity.bucketStart(epochSecond);
+                if (size == current.capacity()) {
+                    current = current.grow();
+                    this.columns = current;
+                }
+                current.starts[size] = start;
+                size++;
+                lastBucketEnd = granularity.bucketEnd(start);
+            }
+            var index = size - 1;
+            switch (type) {
+                case DEPOSIT -> {
+                    current.depositTotals[index] = saturatedAdd(current.depositTotals[index], amount);
+                    current.depositCounts[index]++;
+                }
+                case WITHDRAW -> {
+                    current.withdrawTotals[index] = saturatedAdd(current.withdrawTotals[index], amount);
+                    current.withdrawCounts[index]++;
+                }
+            }
+            this.version = stamp + 2;
+        }
+
+        // Runs after the transaction was appended, so rather than fail it keeps the total at the maximum
+        private static long saturatedAdd(long total, long amount) {
+            try {
+                return Math.addExact(total, amount);
+            } catch (ArithmeticException e) {
+                return Long.MAX_VALUE;
+            }
+        }
+
+        private List<RollupBucket> get(@Nullable Instant from, @Nullable Instant to) {
+            var fromSecond = from == null ? Long.MIN_VALUE : granularity.bucketStart(from.getEpochSecond());
+            // Bucket starts are whole seconds, so a start is before to exactly when it is before this second.
+            var toSecond = to == null ? Long.MAX_VALUE : to.getEpochSecond() + (to.getNano() > 0 ? 1 : 0);
+            while (true) {
+                var stamp = this.version;
+                var current = this.columns;
+                // A racing writer can leave size and columns mismatched; the stamp check below discards the copy.
+                var count = Math.min(this.size, current.capacity());
+                var buckets = new ArrayList<RollupBucket>();
+                for (int i = current.firstAtOrAfter(fromSecond, count);
+                        i < count && current.starts[i] < toSecond;
+                        i++) {
+                    buckets.add(current.bucket(i));
+                }
+                VarHandle.loadLoadFence();
+                if ((stamp & 1) == 0 && stamp == this.version) {
+                    return buckets;
+                }
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static final class Columns {
+        private final long[] starts;
+        private final long[] depositTotals;
+        private final long[] withdrawTotals;
+        private final int[] depositCounts;
+        private final int[] withdrawCounts;
+
+        private Columns(int capacity) {
+            this(new long[capacity], new long[capacity], new long[capacity], new int[capacity], new int[capacity]);
+        }
+
+        private Columns(
+                long[] starts, long[] depositTotals, long[] withdrawTotals, int[] depositCounts, int[] withdrawCounts) {
+            this.starts = starts;
+            this.depositTotals = depositTotals;
+            this.withdrawTotals = withdrawTotals;
+            this.depositCounts = depositCounts;
+            this.withdrawCounts = withdrawCounts;
+        }
+
+        private int capacity() {
+            return starts.length;
+        }
+
+        private Columns grow() {
+            var capacity = capacity() * 2;
+            return new Columns(
+                    Arrays.copyOf(starts, capacity),
+                    Arrays.copyOf(depositTotals, capacity),
+                    Arrays.copyOf(withdrawTotals, capacity),
+                    Arrays.copyOf(depositCounts, capacity),
+                    Arrays.copyOf(withdrawCounts, capacity));
+        }
+
+        private int firstAtOrAfter(long start, int count) {
+            var low = 0;
+            var high = count;
+            while (low < high) {
+                var middle = (low + high) >>> 1;
+                if (starts[middle] < start) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private RollupBucket bucket(int index) {
+            return new RollupBucket(
+                    Instant.ofEpochSecond(starts[index]),
+                    depositTotals[index],
+                    depositCounts[index],
+                    withdrawTotals[index],
+                    withdrawCounts[index]);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.tinyledger.ledger.engine;
+
+import jakarta.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer.
+ *
+ * <p>Every slot carries a sequence number. A producer claims a slot by advancing {@code tail} with a CAS once the
+ * slot's sequence says it is free for that lap, stores the element, and publishes it by setting the sequence to
+ * {@code position + 1}. The consumer takes the element once it observes that sequence and frees the slot for the next
+ * lap by setting it to {@code position + capacity}. No locks are taken and a full buffer is reported instead of waited
+ * on.
+ */
+final class CommandRingBuffer<E> {
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    CommandRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: %d".formatted(capacity));
+        }
+        this.elements = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /** Returns false when the buffer is full. Safe to call from any thread. */
+    boolean offer(E element) {
+        var position = tail.get();
+        while (true) {
+            var index = (int) (position & mask);
+            var difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[index] = element;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /** Returns null when the buffer is empty. Must only be called from the consumer thread. */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    E poll() {
+        var index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        var element = (E) elements[index];
+        elements[index] = null;
+        sequences.set(index, head + elements.length);
+        head++;
+        return element;
+    }
+
+    boolean isEmpty() {
+        return sequences.get((int) (head & mask)) != head + 1;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.tinyledger.ledger.engine;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Runs commands on the calling thread, relying on the ledger's own lock. */
+@Component
+@ConditionalOnProperty(name = "tiny-ledger.engine.enabled", havingValue = "false", matchIfMissing = true)
+public class DirectLedgerCommandExecutor implements LedgerCommandExecutor {
+
+    @Override
+    public <T> T execute(UUID ledgerId, Supplier<T> command) {
+        return command.get();
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(UUID ledgerId, Supplier<T> command) {
+        try {
+            return CompletableFuture.completedFuture(command.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
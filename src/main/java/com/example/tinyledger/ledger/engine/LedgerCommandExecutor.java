@@ -0,0 +1,22 @@
+package com.example.tinyledger.ledger.engine;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/** Runs a command that mutates a single ledger and returns its result to the caller. */
+public interface LedgerCommandExecutor {
+
+    <T> T execute(UUID ledgerId, Supplier<T> command);
+
+    /**
+     * Runs the command like {@link #execute(UUID, Supplier)} but hands its result, or the exception it threw, over
+     * through a future instead of blocking the caller while it waits for its turn.
+     */
+    <T> CompletableFuture<T> submit(UUID ledgerId, Supplier<T> command);
+
+    /** Whether commands wait for their turn on another thread, which callers may rather not block on. */
+    default boolean isQueued() {
+        return false;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.tinyledger.ledger.engine;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("tiny-ledger.engine")
+public record LedgerEngineProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("0") int partitions,
+        @DefaultValue("1024") int ringBufferSize) {
+
+    public int partitionCount() {
+        return partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.tinyledger.ledger.engine;
+
+import com.example.tinyledger.common.exception.CommandRejectedException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routes every command by ledger id to one of N partitions, each drained by a single thread, so commands for the same
+ * ledger never contend with each other. Callers hand commands over through a bounded lock-free ring buffer and are
+ * rejected instead of queued when their partition is full.
+ */
+@Component
+@ConditionalOnProperty(name = "tiny-ledger.engine.enabled", havingValue = "true")
+public class PartitionedLedgerCommandExecutor implements LedgerCommandExecutor, AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartitionedLedgerCommandExecutor.class);
+    private static final int SPINS_BEFORE_PARK = 100;
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Partition[] partitions;
+    private volatile boolean running = true;
+
+    public PartitionedLedgerCommandExecutor(LedgerEngineProperties properties) {
+        this.partitions = new Partition[properties.partitionCount()];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition(i, properties.ringBufferSize());
+        }
+        LOGGER.info(
+                "Started ledger engine with {} partitions of {} commands",
+                partitions.length,
+                properties.ringBufferSize());
+    }
+
+    /** Hands the command to its partition and returns a future completed by the partition thread. */
+    @Override
+    public boolean isQueued() {
+        return true;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(UUID ledgerId, Supplier<T> command) {
+        var partition = partitions[partitionOf(ledgerId)];
+        var task = new Command<>(command);
+        if (!running) {
+            throw CommandRejectedException.engineStopped();
+        }
+        if (!partition.ring.offer(task)) {
+            throw CommandRejectedException.partitionQueueFull(partition.index);
+        }
+        partition.wakeUp();
+        return task.result;
+    }
+
+    @Override
+    public <T> T execute(UUID ledgerId, Supplier<T> command) {
+        try {
+            return submit(ledgerId, command).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        for (var partition : partitions) {
+            LockSupport.unpark(partition.thread);
+        }
+        for (var partition : partitions) {
+            partition.thread.join();
+            // A command offered while the partition was stopping would otherwise never complete
+            for (var command = partition.ring.poll(); command != null; command = partition.ring.poll()) {
+                command.result.completeExceptionally(CommandRejectedException.engineStopped());
+            }
+        }
+    }
+
+    private int partitionOf(UUID ledgerId) {
+        var hash = ledgerId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitions.length);
+    }
+
+    private final class Partition implements Runnable {
+        private final int index;
+        private final CommandRingBuffer<Command<?>> ring;
+        private final Thread thread;
+        private volatile boolean parked;
+
+        private Partition(int index, int ringBufferSize) {
+            this.index = index;
+            this.ring = new CommandRingBuffer<>(ringBufferSize);
+            this.thread = Thread.ofPlatform()
+                    .name("ledger-engine-" + index)
+                    .daemon()
+                    .start(this);
+        }
+
+        // A producer publishes its command before reading parked, and this thread sets parked before re-checking the
+        // ring, so either the command is seen here or the producer sees parked and unparks.
+        private void wakeUp() {
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            var idle = 0;
+            while (running || !ring.isEmpty()) {
+                var command = ring.poll();
+                if (command != null) {
+                    command.run();
+                    idle = 0;
+                } else if (++idle < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    parked = true;
+                    if (ring.isEmpty() && running) {
+                        LockSupport.parkNanos(this, PARK_NANOS);
+                    }
+                    parked = false;
+                    idle = 0;
+                }
+            }
+        }
+    }
+
+    private static final class Command<T> implements Runnable {
+        private final Supplier<T> action;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Command(Supplier<T> action) {
+            this.action = action;
+        }
+
+        @Override
+        public void run() {
+            // Whatever the command throws belongs to its caller; the partition thread goes on with the next one
+            try {
+                result.complete(action.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
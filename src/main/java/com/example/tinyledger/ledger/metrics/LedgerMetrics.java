@@ -0,0 +1,115 @@
+package com.example.tinyledger.ledger.metrics;
+
+import com.example.tinyledger.ledger.controller.exception.ApiError;
+import com.example.tinyledger.ledger.domain.LedgerLockListener;
+import com.example.tinyledger.ledger.domain.LedgerOperation;
+import com.example.tinyledger.ledger.domain.Transaction;
+import com.example.tinyledger.ledger.domain.TransactionListener;
+import com.example.tinyledger.ledger.domain.TransactionType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timers and counters for ledger operations. Every meter is registered up front and looked up by ordinal, so recording
+ * is a plain array read plus the meter update and allocates nothing.
+ */
+@Component
+public class LedgerMetrics implements LedgerLockListener, TransactionListener {
+    /** Registers no-op meters, for ledgers and services used outside of the application. */
+    public static final LedgerMetrics NONE = new LedgerMetrics(new CompositeMeterRegistry());
+
+    private final Timer[] serviceTimers;
+    private final Timer[] lockWaitTimers;
+    private final Timer[] lockHoldTimers;
+    private final Counter[] transactionCounters;
+    private final Counter[] errorCounters;
+
+    public LedgerMetrics(MeterRegistry registry) {
+        var operations = ServiceOperation.values();
+        this.serviceTimers = new Timer[operations.length];
+        for (var operation : operations) {
+            serviceTimers[operation.ordinal()] = Timer.builder("ledger.service")
+                    .description("Time spent in LedgerService operations")
+                    .tag("operation", operation.tag)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+        var ledgerOperations = LedgerOperation.values();
+        this.lockWaitTimers = new Timer[ledgerOperations.length];
+        this.lockHoldTimers = new Timer[ledgerOperations.length];
+        for (var operation : ledgerOperations) {
+            var tag = operation.name().toLowerCase();
+            lockWaitTimers[operation.ordinal()] = Timer.builder("ledger.lock.wait")
+                    .description("Time spent waiting for a ledger's lock")
+                    .tag("operation", tag)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            lockHoldTimers[operation.ordinal()] = Timer.builder("ledger.lock.hold")
+                    .description("Time a ledger's lock was held")
+                    .tag("operation", tag)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+        var types = TransactionType.values();
+        this.transactionCounters = new Counter[types.length];
+        for (var type : types) {
+            transactionCounters[type.ordinal()] = Counter.builder("ledger.transactions")
+                    .description("Transactions recorded")
+                    .tag("type", type.name().toLowerCase())
+                    .register(registry);
+        }
+        var codes = ApiError.ErrorCode.values();
+        this.errorCounters = new Counter[codes.length];
+        for (var code : codes) {
+            errorCounters[code.ordinal()] = Counter.builder("ledger.api.errors")
+                    .description("Error responses by error code")
+                    .tag("code", code.name())
+                    .register(registry);
+        }
+    }
+
+    /** Records the time since {@code startedAt}, a {@link System#nanoTime()} reading. */
+    public void recordServiceOperation(ServiceOperation operation, long startedAt) {
+        serviceTimers[operation.ordinal()].record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordError(ApiError.ErrorCode code) {
+        errorCounters[code.ordinal()].increment();
+    }
+
+    @Override
+    public void onLockReleased(LedgerOperation operation, long waitNanos, long holdNanos) {
+        lockWaitTimers[operation.ordinal()].record(waitNanos, TimeUnit.NANOSECONDS);
+        lockHoldTimers[operation.ordinal()].record(holdNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onTransaction(Transaction transaction) {
+        transactionCounters[transaction.type().ordinal()].increment();
+    }
+
+    public enum ServiceOperation {
+        GET_LEDGERS("getLedgers"),
+        GET_LEDGER("getLedger"),
+        CREATE_TRANSACTION("createTransaction"),
+        CREATE_TRANSACTION_IDEMPOTENT("createTransactionIdempotent"),
+        CREATE_TRANSACTIONS("createTransactions"),
+        CREATE_POSTING("createPosting"),
+        GET_TRANSACTIONS("getTransactions"),
+        CREATE_LEDGER("createLedger"),
+        GET_BALANCE("getBalance"),
+        GET_ROLLUPS("getRollups"),
+        GET_USER_BALANCE("getUserBalance"),
+        GET_VERSION("getVersion");
+
+        private final String tag;
+
+        ServiceOperation(String tag) {
+            this.tag = tag;
+        }
+    }
+}
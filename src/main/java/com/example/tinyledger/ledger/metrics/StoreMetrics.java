@@ -0,0 +1,57 @@
+package com.example.tinyledger.ledger.metrics;
+
+import com.example.tinyledger.ledger.repository.LedgerRepository;
+import com.example.tinyledger.user.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gauges for the size of the stores. They are computed when scraped: ledger and user counts are map sizes, transaction
+ * counts and history heap walk every ledger.
+ */
+@Component
+public class StoreMetrics implements MeterBinder {
+    private final LedgerRepository ledgerRepository;
+    private final UserRepository userRepository;
+
+    public StoreMetrics(LedgerRepository ledgerRepository, UserRepository userRepository) {
+        this.ledgerRepository = ledgerRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ledger.store.ledgers", ledgerRepository, LedgerRepository::count)
+                .description("Ledgers in the store")
+                .register(registry);
+        Gauge.builder("ledger.store.users", userRepository, UserRepository::count)
+                .description("Users in the store")
+                .register(registry);
+        Gauge.builder("ledger.store.transactions", ledgerRepository, StoreMetrics::transactionCount)
+                .description("Transactions in the history of every ledger")
+                .register(registry);
+        Gauge.builder("ledger.store.history.heap", ledgerRepository, StoreMetrics::estimatedHistoryBytes)
+                .description("Estimated heap retained by transaction histories")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+
+    private static double transactionCount(LedgerRepository repository) {
+        long count = 0;
+        for (var ledger : repository.getLedgers()) {
+            count += ledger.getTransactionCount();
+        }
+        return count;
+    }
+
+    private static double estimatedHistoryBytes(LedgerRepository repository) {
+        long bytes = 0;
+        for (var ledger : repository.getLedgers()) {
+            bytes += ledger.getEstimatedHistoryBytes();
+        }
+        return bytes;
+    }
+}
@@ -2,27 +2,53 @@ package com.example.tinyledger.ledger.repository;
 
 import com.example.tinyledger.common.exception.EntityAlreadyExistsException;
 import com.example.tinyledger.ledger.domain.Ledger;
+import com.example.tinyledger.ledger.metrics.LedgerMetrics;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 @Repository
+@ConditionalOnProperty(name = "tiny-ledger.repository", havingValue = "in-memory", matchIfMissing = true)
 public class LedgerInMemoryRepository implements LedgerRepository {
     private final Map<UUID, Ledger> ledgers;
+    private final Map<UUID, Set<UUID>> ledgerIdsByUserId;
+    // Striped so that busy ledgers of the same user do not contend on one counter.
+    private final Map<UUID, LongAdder> balancesByUserId;
+    private final LedgerMetrics metrics;
+    private final ReentrantLock lock = new ReentrantLock();
 
-    public LedgerInMemoryRepository() {
+    public LedgerInMemoryRepository(LedgerMetrics metrics) {
+        this.metrics = metrics;
         this.ledgers = new ConcurrentHashMap<>();
+        this.ledgerIdsByUserId = new ConcurrentHashMap<>();
+        this.balancesByUserId = new ConcurrentHashMap<>();
     }
 
-    public synchronized Ledger save(Ledger ledger) {
-        if (ledgers.containsKey(ledger.getId())) {
-            throw EntityAlreadyExistsException.ledgerAlreadyExists(ledger.getId());
+    public Ledger save(Ledger ledger) {
+        lock.lock();
+        try {
+            if (ledgers.containsKey(ledger.getId())) {
+                throw EntityAlreadyExistsException.ledgerAlreadyExists(ledger.getId());
+            }
+            ledger.addTransactionListener(metrics);
+            ledger.setLockListener(metrics);
+            ledger.setBalanceListener(balancesByUserId
+                    .computeIfAbsent(ledger.getUserId(), userId -> new LongAdder())::add);
+            ledgers.put(ledger.getId(), ledger);
+            ledgerIdsByUserId
+                    .computeIfAbsent(ledger.getUserId(), userId -> ConcurrentHashMap.newKeySet())
+                    .add(ledger.getId());
+            return ledger;
+        } finally {
+            lock.unlock();
         }
-        ledgers.put(ledger.getId(), ledger);
-        return ledger;
     }
 
     public Optional<Ledger> get(UUID id) {
@@ -35,8 +61,27 @@ public class LedgerInMemoryRepository implements LedgerRepository {
 
     @Override
     public List<Ledger> getLedgersByUserId(UUID uuid) {
-        return this.getLedgers().stream()
-                .filter(ledger -> ledger.getUserId().equals(uuid))
+        return ledgerIdsByUserId.getOrDefault(uuid, Set.of()).stream()
+                .map(ledgers::get)
                 .toList();
     }
+
+    @Override
+    public int count() {
+        return ledgers.size();
+    }
+
+    @Override
+    public long getBalanceByUserId(UUID userId) {
+        var balance = balancesByUserId.get(userId);
+        return balance == null ? 0 : balance.sum();
+    }
+
+    @Override
+    public long lastAppendedPosition() {
+        return 0;
+    }
+
+    @Override
+    public void awaitDurable(long position) {}
 }
@@ -0,0 +1,188 @@
+package com.example.tinyledger.ledger.repository;
+
+import com.example.tinyledger.common.exception.EntityAlreadyExistsException;
+import com.example.tinyledger.common.id.IdGenerator;
+import com.example.tinyledger.common.journal.Journal;
+import com.example.tinyledger.common.journal.JournalRecord;
+import com.example.tinyledger.common.journal.SnapshotStore;
+import com.example.tinyledger.ledger.domain.Ledger;
+import com.example.tinyledger.ledger.domain.SequencedTransaction;
+import com.example.tinyledger.ledger.domain.Transaction;
+import com.example.tinyledger.ledger.domain.TransactionHistoryFactory;
+import com.example.tinyledger.ledger.domain.TransactionJournal;
+import com.example.tinyledger.ledger.metrics.LedgerMetrics;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@ConditionalOnProperty(name = "tiny-ledger.repository", havingValue = "journaled")
+public class LedgerJournaledRepository implements LedgerRepository {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LedgerJournaledRepository.class);
+    private final Journal journal;
+    private final LedgerInMemoryRepository ledgers;
+    private final ReentrantLock saveLock = new ReentrantLock();
+    // One instance shared by every ledger, as postings require
+    private final TransactionJournal transactionJournal = new TransactionJournal() {
+        @Override
+        public void append(Transaction transaction, long sequence) {
+            journal.append(new JournalRecord.TransactionAppended(transaction, sequence));
+        }
+
+        @Override
+        public void append(List<SequencedTransaction> transactions) {
+            journal(transactions);
+        }
+    };
+
+    public LedgerJournaledRepository(
+            Journal journal,
+            SnapshotStore snapshots,
+            TransactionHistoryFactory historyFactory,
+            IdGenerator idGenerator,
+            LedgerMetrics metrics) {
+        this.journal = journal;
+        this.ledgers = new LedgerInMemoryRepository(metrics);
+
+        var startedAt = System.nanoTime();
+        var snapshot = snapshots.latest();
+        snapshot.ifPresent(latest -> snapshots.readLedgers(latest, historyFactory, idGenerator).forEach(this::restore));
+        var snapshotLoadedAt = System.nanoTime();
+        var replayed = new long[1];
+        this.journal.replay(snapshot.map(SnapshotStore.Snapshot::position).orElse(0L), record -> {
+            replayed[0]++;
+            switch (record) {
+                case JournalRecord.LedgerCreated created -> {
+                    if (this.ledgers.get(created.ledgerId()).isEmpty()) {
+                        restore(Ledger.restore(
+                                created.ledgerId(), created.userId(), created.name(), historyFactory, idGenerator));
+                    }
+                }
+                case JournalRecord.TransactionAppended appended -> replay(List.of(appended));
+                case JournalRecord.TransactionsAppended appended -> replay(appended.transactions());
+                case JournalRecord.UserCreated ignored -> {}
+            }
+        });
+        LOGGER.info(
+                "Restored {} ledgers: snapshot loaded in {} ms, {} journal records replayed in {} ms",
+                this.ledgers.count(),
+                TimeUnit.NANOSECONDS.toMillis(snapshotLoadedAt - startedAt),
+                replayed[0],
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - snapshotLoadedAt));
+    }
+
+    @Override
+    public Ledger save(Ledger ledger) {
+        saveLock.lock();
+        try {
+            if (ledgers.get(ledger.getId()).isPresent()) {
+                throw EntityAlreadyExistsException.ledgerAlreadyExists(ledger.getId());
+            }
+            journal.append(new JournalRecord.LedgerCreated(ledger.getId(), ledger.getUserId(), ledger.getName()));
+            ledger.setJournal(transactionJournal);
+            ledgers.save(ledger);
+        } finally {
+            saveLock.unlock();
+        }
+        journal.awaitDurable();
+        return ledger;
+    }
+
+    @Override
+    public Optional<Ledger> get(UUID id) {
+        return ledgers.get(id);
+    }
+
+    @Override
+    public List<Ledger> getLedgers() {
+        return ledgers.getLedgers();
+    }
+
+    @Override
+    public List<Ledger> getLedgersByUserId(UUID uuid) {
+        return ledgers.getLedgersByUserId(uuid);
+    }
+
+    @Override
+    public int count() {
+        return ledgers.count();
+    }
+
+    @Override
+    public long getBalanceByUserId(UUID userId) {
+        return ledgers.getBalanceByUserId(userId);
+    }
+
+    @Override
+    public long lastAppendedPosition() {
+        return journal.lastAppendedPosition();
+    }
+
+    @Override
+    public void awaitDurable(long position) {
+        journal.awaitDurable(position);
+    }
+
+    // Taken under the save lock, so every ledger created before the returned position is already visible in memory.
+    // Transactions journaled before it may still be on their way into a ledger's history; snapshots wait for them with
+    // Ledger.getCommittedTransactions.
+    public long journalPosition() {
+        saveLock.lock();
+        try {
+            return journal.position();
+        } finally {
+            saveLock.unlock();
+        }
+    }
+
+    // Replayed transactions are not journaled, so the journal can be attached before they are replayed.
+    private void restore(Ledger ledger) {
+        ledger.setJournal(transactionJournal);
+        this.ledgers.save(ledger);
+    }
+
+    // Every transaction of the record is checked before any is replayed. Those the snapshot already holds are skipped:
+    // it reads each ledger separately, so it may hold some legs of a posting and not others.
+    private void replay(List<JournalRecord.TransactionAppended> appended) {
+        var nextSequences = new HashMap<Ledger, Integer>();
+        var missing = new ArrayList<Transaction>(appended.size());
+        for (var entry : appended) {
+            var transaction = entry.transaction();
+            var ledger = this.ledgers
+                    .get(transaction.ledgerId())
+                    .orElseThrow(() -> new IllegalStateException(
+                            "Journal references unknown ledger: %s".formatted(transaction.ledgerId())));
+            var transactionCount = nextSequences.getOrDefault(ledger, ledger.getTransactionCount());
+            if (entry.sequence() > transactionCount) {
+                throw new IllegalStateException("Journal is missing transactions %d to %d of ledger %s"
+                        .formatted(transactionCount, entry.sequence() - 1, ledger.getId()));
+            }
+            if (entry.sequence() == transactionCount) {
+                nextSequences.put(ledger, transactionCount + 1);
+                missing.add(transaction);
+            }
+        }
+        for (var transaction : missing) {
+            this.ledgers.get(transaction.ledgerId()).orElseThrow().replay(transaction);
+        }
+    }
+
+    private void journal(List<SequencedTransaction> transactions) {
+        if (transactions.size() == 1) {
+            var only = transactions.getFirst();
+            transactionJournal.append(only.transaction(), only.sequence());
+            return;
+        }
+        journal.append(new JournalRecord.TransactionsAppended(transactions.stream()
+                .map(sequenced -> new JournalRecord.TransactionAppended(sequenced.transaction(), sequenced.sequence()))
+                .toList()));
+    }
+}
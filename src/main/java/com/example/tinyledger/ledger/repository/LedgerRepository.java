@@ -13,4 +13,22 @@ public interface LedgerRepository {
     List<Ledger> getLedgers();
 
     List<Ledger> getLedgersByUserId(UUID uuid);
+
+    int count();
+
+    /**
+     * Sum of the balances of every ledger of the user, maintained as transactions are applied rather than computed.
+     * Exact whenever none of the user's ledgers is being written; a read racing with writes may include some of them
+     * and not others.
+     */
+    long getBalanceByUserId(UUID userId);
+
+    /** Journal position of the last record appended by the calling thread, or 0 when nothing is journaled. */
+    long lastAppendedPosition();
+
+    void awaitDurable(long position);
+
+    default void awaitDurable() {
+        awaitDurable(lastAppendedPosition());
+    }
 }
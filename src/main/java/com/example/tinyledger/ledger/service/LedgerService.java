@@ -1,61 +1,280 @@
 package com.example.tinyledger.ledger.service;
 
 import com.example.tinyledger.common.exception.EntityNotFoundException;
+import com.example.tinyledger.common.exception.InvalidPageRequestException;
+import com.example.tinyledger.common.id.IdGenerator;
+import com.example.tinyledger.common.idempotency.IdempotencyCache;
 import com.example.tinyledger.ledger.domain.Balance;
 import com.example.tinyledger.ledger.domain.Ledger;
 import com.example.tinyledger.ledger.domain.Money;
+import com.example.tinyledger.ledger.domain.PostingLeg;
+import com.example.tinyledger.ledger.domain.RollupBucket;
+import com.example.tinyledger.ledger.domain.RollupGranularity;
 import com.example.tinyledger.ledger.domain.Transaction;
+import com.example.tinyledger.ledger.domain.TransactionCommand;
+import com.example.tinyledger.ledger.domain.TransactionHistoryFactory;
+import com.example.tinyledger.ledger.domain.TransactionOrder;
+import com.example.tinyledger.ledger.domain.TransactionPage;
 import com.example.tinyledger.ledger.domain.TransactionType;
+import com.example.tinyledger.ledger.domain.UserBalance;
+import com.example.tinyledger.ledger.engine.LedgerCommandExecutor;
+import com.example.tinyledger.ledger.metrics.LedgerMetrics;
+import com.example.tinyledger.ledger.metrics.LedgerMetrics.ServiceOperation;
 import com.example.tinyledger.ledger.repository.LedgerRepository;
 import com.example.tinyledger.user.service.UserService;
 import jakarta.annotation.Nullable;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.springframework.stereotype.Service;
 
 @Service
 public class LedgerService {
+    // Waits for the journal to be durable without holding an engine or request thread for it
+    private static final Executor DURABILITY_WAITERS =
+            runnable -> Thread.ofVirtual().name("durability-wait").start(runnable);
 
     private final LedgerRepository ledgerRepository;
     private final UserService userService;
+    private final TransactionHistoryFactory historyFactory;
+    private final LedgerCommandExecutor commandExecutor;
+    private final IdempotencyCache idempotencyCache;
+    private final IdGenerator idGenerator;
+    private final LedgerMetrics metrics;
 
-    public LedgerService(LedgerRepository ledgerRepository, UserService userService) {
+    public LedgerService(
+            LedgerRepository ledgerRepository,
+            UserService userService,
+            TransactionHistoryFactory historyFactory,
+            LedgerCommandExecutor commandExecutor,
+            IdempotencyCache idempotencyCache,
+            IdGenerator idGenerator,
+            LedgerMetrics metrics) {
         this.ledgerRepository = ledgerRepository;
         this.userService = userService;
+        this.historyFactory = historyFactory;
+        this.commandExecutor = commandExecutor;
+        this.idempotencyCache = idempotencyCache;
+        this.idGenerator = idGenerator;
+        this.metrics = metrics;
     }
 
     public List<Ledger> getLedgers(@Nullable UUID userId) {
-        return Optional.ofNullable(userId)
-                .map(this.ledgerRepository::getLedgersByUserId)
-                .orElseGet(this.ledgerRepository::getLedgers);
+        var startedAt = System.nanoTime();
+        try {
+            return Optional.ofNullable(userId)
+                    .map(this.ledgerRepository::getLedgersByUserId)
+                    .orElseGet(this.ledgerRepository::getLedgers);
+        } finally {
+            this.metrics.recordServiceOperation(ServiceOperation.GET_LEDGERS, startedAt);
+        }
     }
 
     public Ledger getLedger(UUID id) {
-        return this.ledgerRepository.get(id).orElseThrow(() -> EntityNotFoundException.ledgerNotFound(id));
+        var startedAt = System.nanoTime();
+        try {
+            return findLedger(id);
+        } finally {
+            this.metrics.recordServiceOperation(ServiceOperation.GET_LEDGER, startedAt);
+        }
     }
 
-    public Transaction createTransaction(UUID ledgerId, Long requestedAmount, TransactionType type) {
-        var ledger = getLedger(ledgerId);
-        var amount = new Money(requestedAmount);
-        return switch (type) {
-            case DEPOSIT -> ledger.deposit(amount);
-            case WITHDRAW -> ledger.withdraw(amount);
-        };
+    public Transaction createTransaction(UUID ledgerId, long requestedAmount, TransactionType type) {
+        var startedAt = System.nanoTime();
+        try {
+            return applyTransaction(ledgerId, requestedAmount, type);
+        } finally {
+            this.metrics.recordServiceOperation(ServiceOperation.CREATE_TRANSACTION, startedAt);
+        }
     }
 
-    public List<Transaction> getTransactions(UUID ledgerId) {
-        return getLedger(ledgerId).getTransactions();
+    /**
+     * Creates the transaction like {@link #createTransaction(UUID, long, TransactionType)} without blocking the caller:
+     * the future completes once the transaction is applied and durable, or fails with what the synchronous call would
+     * have thrown.
+     */
+    public CompletableFuture<Transaction> createTransactionAsync(
+            UUID ledgerId, long requestedAmount, TransactionType type) {
+        var startedAt = System.nanoTime();
+        CompletableFuture<Transaction> created;
+        try {
+            var ledger = findLedger(ledgerId);
+            var amount = new Money(requestedAmount);
+            created = this.commandExecutor
+                    .submit(ledgerId, () -> applyCommand(ledger, amount, type))
+                    .thenCompose(this::awaitDurableAsync);
+        } catch (RuntimeException e) {
+            created = CompletableFuture.failedFuture(e);
+        }
+        return created.whenComplete((transaction, failure) ->
+                this.metrics.recordServiceOperation(ServiceOperation.CREATE_TRANSACTION, startedAt));
+    }
+
+    /**
+     * Whether {@link #createTransactionAsync} releases the caller: only when commands are queued on engine partitions,
+     * since otherwise they run on the calling thread anyway.
+     */
+    public boolean createsTransactionsAsynchronously() {
+        return this.commandExecutor.isQueued();
+    }
+
+    /** Creates the transaction once per idempotency key and returns the id of the transaction created first. */
+    public UUID createTransaction(UUID ledgerId, long requestedAmount, TransactionType type, String idempotencyKey) {
+        var startedAt = System.nanoTime();
+        try {
+            return this.idempotencyCache.execute(
+                    ledgerId,
+                    idempotencyKey,
+                    new TransactionFingerprint(requestedAmount, type),
+                    () -> applyTransaction(ledgerId, requestedAmount, type).id());
+        } finally {
+            this.metrics.recordServiceOperation(ServiceOperation.CREATE_TRANSACTION_IDEMPOTENT, startedAt);
+        }
+    }
+
+    public List<Transaction> createTransactions(UUID ledgerId, List<TransactionCommand> commands) {
+        var startedAt = System.nanoTime();
+        try {
+            var ledger = findLedger(ledgerId);
+            var applied = this.commandExecutor.execute(ledgerId, () -> {
+                var transactions = ledger.apply(commands);
+                return new AppliedTransactions(transactions, this.ledgerRepository.lastAppendedPosition());
+            });
+            this.ledgerRepository.awaitDurable(applied.journalPosition());
+            return applied.transactions();
+        } finally {
+            this.metrics.recordServiceOperation(ServiceOperation.CREATE_TRANSACTIONS, startedAt);
+        }
+    }
+
+    public List<Transaction> createPosting(List<PostingLeg> legs) {
+        var startedAt = System.nanoTime();
+        try {
+            var ledgers = legs.stream()
+                    .map(PostingLeg::ledgerId)
+                    .distinct()
+                    .collect(Collectors.toMap(Function.identity(), this::findLedger));
+            var transactions = Ledger.post(legs, ledgers);
+            this.ledgerRepository.awaitDurable();
+            return transactions;
+        } finally {
+            this.metrics.recordServiceOperation(ServiceOperation.CREATE_POSTING, startedAt);
+        }
+    }
+
+    public TransactionPage getTransactions(
+            UUID ledgerId, @Nullable Integer position, int limit, TransactionOrder order) {
+        var startedAt = System.nanoTime();
+        try {
+            if (limit <= 0) {
+                throw InvalidPageRequestException.limitMustBePositive(limit);
+            }
+            return findLedger(ledgerId).getTransactions(position, limit, order);
+        } finally {
+            this.metrics.recordServiceOperation(ServiceOperation.GET_TRANSACTIONS, startedAt);
+        }
+    }
+
+    // Not timed: the stream is lazy and consumed by the caller, so only its setup would be measured.
+    public Stream<Transaction> streamTransactions(UUID ledgerId) {
+        return findLedger(ledgerId).streamTransactions();
     }
 
     public Ledger createLedger(String ledgerName, UUID userId) {
-        var user = this.userService.getUser(userId);
-        var ledger = new Ledger(ledgerName, user.id());
-        return this.ledgerRepository.save(ledger);
+        var startedAt = System.nanoTime();
+        try {
+            var user = this.userService.getUser(userId);
+            var ledger = new Ledger(ledgerName, user.id(), this.historyFactory, this.idGenerator);
+            return this.ledgerRepository.save(ledger);
+        } finally {
+            this.metrics.recordServiceOperation(ServiceOperation.CREATE_LEDGER, startedAt);
+        }
+    }
+
+    /** Returns the current balance, or the balance as of {@code asOf} when it is given. */
+    public Balance getBalance(UUID ledgerId, @Nullable Instant asOf) {
+        var startedAt = System.nanoTime();
+        try {
+            var ledger = this.findLedger(ledgerId);
+            return new Balance(ledgerId, asOf == null ? ledger.getBalance() : ledger.getBalance(asOf));
+        } finally {
+            this.metrics.recordServiceOperation(ServiceOperation.GET_BALANCE, startedAt);
+        }
     }
 
-    public Balance getBalance(UUID ledgerId) {
-        var ledger = this.getLedger(ledgerId);
-        return new Balance(ledgerId, ledger.getBalance());
+    public List<RollupBucket> getRollups(
+            UUID ledgerId, RollupGranularity granularity, @Nullable Instant from, @Nullable Instant to) {
+        var startedAt = System.nanoTime();
+        try {
+            return findLedger(ledgerId).getRollups(granularity, from, to);
+        } finally {
+            this.metrics.recordServiceOperation(ServiceOperation.GET_ROLLUPS, startedAt);
+        }
     }
+
+    public long getVersion(UUID ledgerId) {
+        var startedAt = System.nanoTime();
+        try {
+            return findLedger(ledgerId).getVersion();
+        } finally {
+            this.metrics.recordServiceOperation(ServiceOperation.GET_VERSION, startedAt);
+        }
+    }
+
+    /** Returns the sum of the balances of every ledger of the user, without visiting the ledgers. */
+    public UserBalance getUserBalance(UUID userId) {
+        var startedAt = System.nanoTime();
+        try {
+            var user = this.userService.getUser(userId);
+            return new UserBalance(user.id(), this.ledgerRepository.getBalanceByUserId(user.id()));
+        } finally {
+            this.metrics.recordServiceOperation(ServiceOperation.GET_USER_BALANCE, startedAt);
+        }
+    }
+
+    private Ledger findLedger(UUID id) {
+        return this.ledgerRepository.get(id).orElseThrow(() -> EntityNotFoundException.ledgerNotFound(id));
+    }
+
+    private Transaction applyTransaction(UUID ledgerId, long requestedAmount, TransactionType type) {
+        var ledger = findLedger(ledgerId);
+        var amount = new Money(requestedAmount);
+        var applied = this.commandExecutor.execute(ledgerId, () -> applyCommand(ledger, amount, type));
+        this.ledgerRepository.awaitDurable(applied.journalPosition());
+        return applied.transaction();
+    }
+
+    // The command may run on an engine thread, so the journal position it reached is carried back from there
+    private AppliedTransaction applyCommand(Ledger ledger, Money amount, TransactionType type) {
+        var transaction =
+                switch (type) {
+                    case DEPOSIT -> ledger.deposit(amount);
+                    case WITHDRAW -> ledger.withdraw(amount);
+                };
+        return new AppliedTransaction(transaction, this.ledgerRepository.lastAppendedPosition());
+    }
+
+    private CompletableFuture<Transaction> awaitDurableAsync(AppliedTransaction applied) {
+        if (applied.journalPosition() == 0) {
+            return CompletableFuture.completedFuture(applied.transaction());
+        }
+        return CompletableFuture.supplyAsync(
+                () -> {
+                    this.ledgerRepository.awaitDurable(applied.journalPosition());
+                    return applied.transaction();
+                },
+                DURABILITY_WAITERS);
+    }
+
+    private record TransactionFingerprint(long amount, TransactionType type) {}
+
+    private record AppliedTransaction(Transaction transaction, long journalPosition) {}
+
+    private record AppliedTransactions(List<Transaction> transactions, long journalPosition) {}
 }
@@ -0,0 +1,18 @@
+package com.example.tinyledger.ledger.stream;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param maxLag how many transactions a subscriber that has caught up may fall behind before it is disconnected
+ * @param heartbeat how long a subscriber may go without an event before it is sent a comment, which is how connections
+ *     closed by the client are noticed
+ * @param sendTimeout how long sending a batch of events or a heartbeat to a subscriber may take before it is
+ *     disconnected, so that a client that stops reading cannot hold its thread forever
+ */
+@ConfigurationProperties("tiny-ledger.stream")
+public record TransactionStreamProperties(
+        @DefaultValue("10000") int maxLag,
+        @DefaultValue("15s") Duration heartbeat,
+        @DefaultValue("30s") Duration sendTimeout) {}
@@ -0,0 +1,249 @@
+package com.example.tinyledger.ledger.stream;
+
+import com.example.tinyledger.common.exception.EntityNotFoundException;
+import com.example.tinyledger.ledger.controller.response.TransactionResponse;
+import com.example.tinyledger.ledger.domain.Ledger;
+import com.example.tinyledger.ledger.domain.Transaction;
+import com.example.tinyledger.ledger.domain.TransactionAppendedListener;
+import com.example.tinyledger.ledger.domain.TransactionOrder;
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes the transactions of a ledger to Server-Sent Events subscribers as they are appended.
+ *
+ * <p>Subscribers do not get a queue of their own: the append-only history is the buffer they all share, and each
+ * subscriber is a position in it served by its own virtual thread. The write path only schedules a wake-up for the
+ * ledger's subscribers, at most one at a time however many there are, so a slow or stuck client can block nothing but
+ * its own thread. A subscriber that has caught up and then falls more than {@code maxLag} transactions behind is
+ * disconnected; it can reconnect with {@code Last-Event-ID} and catch up from the history. So is one whose client stops
+ * reading: every send has a deadline of {@code sendTimeout}, after which its thread is interrupted and the emitter
+ * completed with an error. A ledger's feed is dropped, and stops listening to the ledger, with its last subscriber.
+ */
+@Component
+public class TransactionStreams implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransactionStreams.class);
+    private static final int BATCH_SIZE = 256;
+
+    private final int maxLag;
+    private final long heartbeatNanos;
+    private final long sendTimeoutNanos;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledThreadPoolExecutor deadlines = new ScheduledThreadPoolExecutor(
+            1, Thread.ofPlatform().name("stream-send-deadlines").daemon().factory());
+    private final Map<UUID, Feed> feeds = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    public TransactionStreams(TransactionStreamProperties properties) {
+        this.maxLag = properties.maxLag();
+        this.heartbeatNanos = properties.heartbeat().toNanos();
+        this.sendTimeoutNanos = properties.sendTimeout().toNanos();
+        // Nearly every deadline is cancelled, so cancelled ones must not pile up in the queue
+        this.deadlines.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Streams the transactions appended after {@code lastEventId}, or from now on when it is null. Every event carries
+     * the transaction id as its SSE id, so a client that reconnects with {@code Last-Event-ID} misses nothing.
+     */
+    public SseEmitter subscribe(Ledger ledger, @Nullable UUID lastEventId) {
+        // Never times out: the heartbeat notices connections closed by the client
+        return subscribe(ledger, lastEventId, new SseEmitter(0L));
+    }
+
+    SseEmitter subscribe(Ledger ledger, @Nullable UUID lastEventId, SseEmitter emitter) {
+        var position = lastEventId == null ? ledger.getTransactionCount() : ledger.getPositionAfter(lastEventId);
+        if (position < 0) {
+            throw EntityNotFoundException.transactionNotFound(lastEventId);
+        }
+        var subscription = new Subscription(ledger, emitter, position, lastEventId == null);
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+        // Atomic with unsubscribe, so a subscription never joins a feed that its last subscriber is dropping
+        feeds.compute(ledger.getId(), (id, feed) -> {
+            if (feed == null) {
+                feed = new Feed();
+                ledger.addAppendedListener(feed);
+            }
+            feed.subscriptions.add(subscription);
+            return feed;
+        });
+        if (!running) {
+            unsubscribe(subscription);
+            emitter.complete();
+            return emitter;
+        }
+        executor.execute(subscription::run);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return feeds.values().stream().mapToInt(feed -> feed.subscriptions.size()).sum();
+    }
+
+    int feedCount() {
+        return feeds.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        feeds.values().forEach(feed -> feed.subscriptions.forEach(Subscription::close));
+        executor.shutdownNow();
+        deadlines.shutdownNow();
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        var ledger = subscription.ledger;
+        feeds.computeIfPresent(ledger.getId(), (id, feed) -> {
+            if (feed.subscriptions.remove(subscription) && feed.subscriptions.isEmpty()) {
+                ledger.removeAppendedListener(feed);
+                return null;
+            }
+            return feed;
+        });
+    }
+
+    private final class Feed implements TransactionAppendedListener {
+        private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean wakeUpScheduled = new AtomicBoolean();
+
+        // Runs under the ledger lock. Appends that arrive while a wake-up is pending share it.
+        @Override
+        public void onAppended(Transaction transaction) {
+            if (!subscriptions.isEmpty() && wakeUpScheduled.compareAndSet(false, true) && running) {
+                executor.execute(this::wakeUp);
+            }
+        }
+
+        private void wakeUp() {
+            wakeUpScheduled.set(false);
+            subscriptions.forEach(Subscription::wakeUp);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Send {
+        void run() throws IOException;
+    }
+
+    private final class Subscription {
+        private final Ledger ledger;
+        private final SseEmitter emitter;
+        private int position;
+        // Subscribers that resume from history are only held to the lag limit once they have caught up
+        private boolean live;
+        private volatile boolean closed;
+        private volatile Thread thread;
+
+        private Subscription(Ledger ledger, SseEmitter emitter, int position, boolean live) {
+            this.ledger = ledger;
+            this.emitter = emitter;
+            this.position = position;
+            this.live = live;
+        }
+
+        private void run() {
+            thread = Thread.currentThread();
+            var lastSentAt = System.nanoTime();
+            try {
+                while (!closed) {
+                    var count = ledger.getTransactionCount();
+                    if (live && count - position > maxLag) {
+                        LOGGER.debug(
+                                "Disconnecting subscriber of ledger {}: {} transactions behind",
+                                ledger.getId(),
+                                count - position);
+                        break;
+                    }
+                    if (position < count) {
+                        var limit = Math.min(count - position, BATCH_SIZE);
+                        sendWithDeadline(() -> send(limit));
+                        lastSentAt = System.nanoTime();
+                        continue;
+                    }
+                    live = true;
+                    var idleNanos = System.nanoTime() - lastSentAt;
+                    if (idleNanos >= heartbeatNanos) {
+                        sendWithDeadline(() -> emitter.send(SseEmitter.event().comment("heartbeat")));
+                        lastSentAt = System.nanoTime();
+                    } else {
+                        // Returns early when woken up by an append, including one that happened since count was read
+                        LockSupport.parkNanos(this, heartbeatNanos - idleNanos);
+                    }
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // The client went away, stopped reading or the emitter was completed
+            } finally {
+                unsubscribe(this);
+            }
+        }
+
+        private void sendWithDeadline(Send send) throws IOException {
+            var deadline = deadlines.schedule(this::sendTimedOut, sendTimeoutNanos, TimeUnit.NANOSECONDS);
+            try {
+                send.run();
+            } finally {
+                deadline.cancel(false);
+            }
+        }
+
+        // Runs on the deadline thread while this subscription's thread is still blocked sending
+        private void sendTimedOut() {
+            LOGGER.debug("Disconnecting subscriber of ledger {}: sending took longer than the timeout", ledger.getId());
+            closed = true;
+            var current = thread;
+            if (current != null) {
+                current.interrupt();
+            }
+            var error = new IOException("Sending to the subscriber timed out");
+            try {
+                // Completing waits for the blocked send to give up, which must not hold up other deadlines
+                executor.execute(() -> emitter.completeWithError(error));
+            } catch (RejectedExecutionException e) {
+                // Closing, which completes every subscription anyway
+            }
+        }
+
+        private void send(int limit) throws IOException {
+            var page = ledger.getTransactions(position, limit, TransactionOrder.OLDEST_FIRST);
+            for (var transaction : page.transactions()) {
+                emitter.send(SseEmitter.event()
+                        .id(transaction.id().toString())
+                        .name("transaction")
+                        .data(TransactionResponse.from(transaction), MediaType.APPLICATION_JSON));
+                position++;
+            }
+        }
+
+        private void wakeUp() {
+            var current = thread;
+            if (current != null) {
+                LockSupport.unpark(current);
+            }
+        }
+
+        private void close() {
+            closed = true;
+            wakeUp();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.tinyledger.ledger.tcp;
+
+import com.example.tinyledger.ledger.controller.exception.ApiError;
+import com.example.tinyledger.ledger.domain.TransactionType;
+import jakarta.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Wire format of the TCP ingestion endpoint. Every message is a frame: a 32-bit length followed by that many bytes of
+ * payload, at most {@link #MAX_FRAME_BYTES}. Numbers are big-endian and UUIDs are written as their most and then least
+ * significant 64 bits.
+ *
+ * <p>A request starts with an opcode and a 64-bit request id chosen by the client:
+ *
+ * <ul>
+ *   <li>{@link #CREATE_TRANSACTION}: ledger id, transaction type (0 deposit, 1 withdraw), amount and an idempotency key
+ *       as a 16-bit length and UTF-8 bytes, empty for none
+ *   <li>{@link #GET_BALANCE}: ledger id
+ * </ul>
+ *
+ * <p>A response repeats the opcode and the request id, then carries a status: {@link #OK} followed by the id of the
+ * created transaction or the balance, or an error followed by a 16-bit length and a UTF-8 message. Error statuses are
+ * the REST API's {@link ApiError.ErrorCode} in declaration order starting at 1, and mean exactly what those do.
+ */
+public final class BinaryProtocol {
+    public static final int MAX_FRAME_BYTES = 1024;
+    public static final byte CREATE_TRANSACTION = 1;
+    public static final byte GET_BALANCE = 2;
+    public static final byte OK = 0;
+
+    static final int LENGTH_BYTES = Integer.BYTES;
+    static final int HEADER_BYTES = 1 + Long.BYTES;
+
+    private static final int UUID_BYTES = 2 * Long.BYTES;
+    private static final int MAX_MESSAGE_BYTES = 512;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final ApiError.ErrorCode[] ERROR_CODES = ApiError.ErrorCode.values();
+
+    private BinaryProtocol() {}
+
+    sealed interface Request {
+        byte opcode();
+
+        long requestId();
+    }
+
+    record CreateTransaction(
+            long requestId, UUID ledgerId, TransactionType type, long amount, @Nullable String idempotencyKey)
+            implements Request {
+        @Override
+        public byte opcode() {
+            return CREATE_TRANSACTION;
+        }
+    }
+
+    record GetBalance(long requestId, UUID ledgerId) implements Request {
+        @Override
+        public byte opcode() {
+            return GET_BALANCE;
+        }
+    }
+
+    /** A request whose frame was intact but whose content was not, answered with {@code BAD_REQUEST}. */
+    record Malformed(byte opcode, long requestId, String message) implements Request {}
+
+    /**
+     * A decoded response. {@code error} is null when the request succeeded, in which case {@code transactionId} or
+     * {@code balance} is set depending on the opcode; otherwise {@code message} describes the error.
+     */
+    public record Response(
+            byte opcode,
+            long requestId,
+            @Nullable ApiError.ErrorCode error,
+            @Nullable UUID transactionId,
+            long balance,
+            @Nullable String message) {}
+
+    public static void putCreateTransaction(
+            ByteBuffer buffer,
+            long requestId,
+            UUID ledgerId,
+            TransactionType type,
+            long amount,
+            @Nullable String idempotencyKey) {
+        var key = idempotencyKey == null ? new byte[0] : idempotencyKey.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(HEADER_BYTES + UUID_BYTES + 1 + Long.BYTES + Short.BYTES + key.length);
+        buffer.put(CREATE_TRANSACTION).putLong(requestId);
+        putUuid(buffer, ledgerId);
+        buffer.put((byte) type.ordinal()).putLong(amount);
+        buffer.putShort((short) key.length).put(key);
+    }
+
+    public static void putGetBalance(ByteBuffer buffer, long requestId, UUID ledgerId) {
+        buffer.putInt(HEADER_BYTES + UUID_BYTES);
+        buffer.put(GET_BALANCE).putLong(requestId);
+        putUuid(buffer, ledgerId);
+    }
+
+    /** Reads the next response, or returns null and leaves {@code buffer} as it was if it holds no complete frame. */
+    public static @Nullable Response readResponse(ByteBuffer buffer) {
+        if (buffer.remaining() < LENGTH_BYTES
+                || buffer.remaining() < LENGTH_BYTES + buffer.getInt(buffer.position())) {
+            return null;
+        }
+        buffer.getInt();
+        var opcode = buffer.get();
+        var requestId = buffer.getLong();
+        var status = buffer.get();
+        if (status != OK) {
+            var message = new byte[Short.toUnsignedInt(buffer.getShort())];
+            buffer.get(message);
+            return new Response(
+                    opcode, requestId, ERROR_CODES[status - 1], null, 0, new String(message, StandardCharsets.UTF_8));
+        }
+        if (opcode == CREATE_TRANSACTION) {
+            return new Response(opcode, requestId, null, getUuid(buffer), 0, null);
+        }
+        return new Response(opcode, requestId, null, null, buffer.getLong(), null);
+    }
+
+    /** Decodes the payload of a request frame, which must hold at least {@link #HEADER_BYTES}. */
+    static Request readRequest(ByteBuffer frame) {
+        var opcode = frame.get();
+        var requestId = frame.getLong();
+        return switch (opcode) {
+            case CREATE_TRANSACTION -> readCreateTransaction(requestId, frame);
+            case GET_BALANCE ->
+                frame.remaining() == UUID_BYTES
+                        ? new GetBalance(requestId, getUuid(frame))
+                        : new Malformed(opcode, requestId, "Request body is invalid");
+            default -> new Malformed(opcode, requestId, "Unknown opcode: %d".formatted(opcode));
+        };
+    }
+
+    static ByteBuffer transactionCreated(long requestId, UUID transactionId) {
+        var response = header(CREATE_TRANSACTION, requestId, UUID_BYTES);
+        putUuid(response, transactionId);
+        return response.flip();
+    }
+
+    static ByteBuffer balance(long requestId, long balance) {
+        return header(GET_BALANCE, requestId, Long.BYTES).putLong(balance).flip();
+    }
+
+    static ByteBuffer error(byte opcode, long requestId, ApiError.ErrorCode code, String message) {
+        var bytes = truncate(message, MAX_MESSAGE_BYTES).getBytes(StandardCharsets.UTF_8);
+        var response = ByteBuffer.allocate(LENGTH_BYTES + HEADER_BYTES + 1 + Short.BYTES + bytes.length);
+        response.putInt(response.capacity() - LENGTH_BYTES).put(opcode).putLong(requestId);
+        response.put((byte) (code.ordinal() + 1)).putShort((short) bytes.length).put(bytes);
+        return response.flip();
+    }
+
+    // Cuts between code points, so that a message over maxBytes never ends in part of a character
+    private static String truncate(String message, int maxBytes) {
+        var bytes = 0;
+        for (int i = 0; i < message.length(); ) {
+            var codePoint = message.codePointAt(i);
+            bytes += codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (bytes > maxBytes) {
+                return message.substring(0, i);
+            }
+            i += Character.charCount(codePoint);
+        }
+        return message;
+    }
+
+    private static Request readCreateTransaction(long requestId, ByteBuffer frame) {
+        if (frame.remaining() < UUID_BYTES + 1 + Long.BYTES + Short.BYTES) {
+            return new Malformed(CREATE_TRANSACTION, requestId, "Request body is invalid");
+        }
+        var ledgerId = getUuid(frame);
+        var type = frame.get();
+        var amount = frame.getLong();
+        var keyLength = Short.toUnsignedInt(frame.getShort());
+        if (type < 0 || type >= TYPES.length || amount <= 0 || frame.remaining() != keyLength) {
+            return new Malformed(CREATE_TRANSACTION, requestId, "Request body is invalid");
+        }
+        var key = new byte[keyLength];
+        frame.get(key);
+        var idempotencyKey = keyLength == 0 ? null : new String(key, StandardCharsets.UTF_8);
+        return new CreateTransaction(requestId, ledgerId, TYPES[type], amount, idempotencyKey);
+    }
+
+    private static ByteBuffer header(byte opcode, long requestId, int bodyBytes) {
+        var response = ByteBuffer.allocate(LENGTH_BYTES + HEADER_BYTES + 1 + bodyBytes);
+        return response.putInt(response.capacity() - LENGTH_BYTES)
+                .put(opcode)
+                .putLong(requestId)
+                .put(OK);
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
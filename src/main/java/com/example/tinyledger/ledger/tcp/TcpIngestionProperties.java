@@ -0,0 +1,15 @@
+package com.example.tinyledger.ledger.tcp;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled whether to listen for the binary protocol next to the REST API
+ * @param port port to listen on, 0 picks a free one
+ * @param maxInFlight requests a connection may have outstanding before the server stops reading from it
+ */
+@ConfigurationProperties("tiny-ledger.tcp")
+public record TcpIngestionProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("7070") int port,
+        @DefaultValue("1024") int maxInFlight) {}
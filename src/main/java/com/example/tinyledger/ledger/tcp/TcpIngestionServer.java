@@ -0,0 +1,350 @@
+package com.example.tinyledger.ledger.tcp;
+
+import com.example.tinyledger.common.exception.CommandRejectedException;
+import com.example.tinyledger.common.exception.EntityNotFoundException;
+import com.example.tinyledger.common.exception.IdempotencyKeyException;
+import com.example.tinyledger.common.exception.InvalidMoneyOperationException;
+import com.example.tinyledger.ledger.controller.exception.ApiError;
+import com.example.tinyledger.ledger.metrics.LedgerMetrics;
+import com.example.tinyledger.ledger.service.LedgerService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serves {@link BinaryProtocol} requests over TCP through the same {@link LedgerService} calls and error codes as the
+ * REST API, without the HTTP and JSON handling around them.
+ *
+ * <p>A single selector thread accepts connections, reads and splits frames and writes responses. Each request then
+ * runs on its own virtual thread, since creating a transaction may wait for the journal to be durable, so a client can
+ * pipeline up to {@code maxInFlight} requests per connection before the server stops reading from it. Requests in
+ * flight on one connection run concurrently and are answered in the order they complete, as separate HTTP requests
+ * would be; a client that needs one applied before another waits for its response first. Completed responses are
+ * queued on their connection and written together on the selector thread's next pass, so one write carries every
+ * response that completed in the meantime.
+ */
+@Component
+@ConditionalOnProperty(name = "tiny-ledger.tcp.enabled", havingValue = "true")
+public class TcpIngestionServer implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TcpIngestionServer.class);
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final LedgerService ledgerService;
+    private final LedgerMetrics metrics;
+    private final int maxInFlight;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Connections with responses to write, and whether a wake-up of the selector thread is already pending for them
+    private final Queue<Connection> flushes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeUpScheduled = new AtomicBoolean();
+    private final Thread selectorThread;
+    private volatile boolean running = true;
+
+    public TcpIngestionServer(LedgerService ledgerService, LedgerMetrics metrics, TcpIngestionProperties properties) {
+        this.ledgerService = ledgerService;
+        this.metrics = metrics;
+        this.maxInFlight = properties.maxInFlight();
+        try {
+            this.selector = Selector.open();
+            this.serverChannel = ServerSocketChannel.open();
+            this.serverChannel.bind(new InetSocketAddress(properties.port()));
+            this.serverChannel.configureBlocking(false);
+            this.serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not listen on port %d".formatted(properties.port()), e);
+        }
+        this.selectorThread = Thread.ofPlatform().name("tcp-ingestion").daemon(true).start(this::run);
+    }
+
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                selector.select();
+                wakeUpScheduled.set(false);
+                var selected = selector.selectedKeys();
+                selected.forEach(this::handle);
+                selected.clear();
+                Connection connection;
+                while ((connection = flushes.poll()) != null) {
+                    connection.flushScheduled.set(false);
+                    connection.flush();
+                }
+            } catch (IOException e) {
+                LOGGER.warn("TCP ingestion selector failed", e);
+            }
+        }
+        for (var key : selector.keys()) {
+            closeQuietly(key.channel());
+        }
+        closeQuietly(selector);
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        var connection = (Connection) key.attachment();
+        if (key.isReadable()) {
+            connection.read();
+        }
+        if (key.isValid() && key.isWritable()) {
+            connection.flush();
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                // Responses are already batched per write
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                var key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new Connection(channel, key));
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not accept TCP ingestion connection", e);
+        }
+    }
+
+    private ByteBuffer execute(BinaryProtocol.Request request) {
+        try {
+            return switch (request) {
+                case BinaryProtocol.CreateTransaction create -> {
+                    var transactionId = create.idempotencyKey() == null
+                            ? ledgerService
+                                    .createTransaction(create.ledgerId(), create.amount(), create.type())
+                                    .id()
+                            : ledgerService.createTransaction(
+                                    create.ledgerId(), create.amount(), create.type(), create.idempotencyKey());
+                    yield BinaryProtocol.transactionCreated(create.requestId(), transactionId);
+                }
+                case BinaryProtocol.GetBalance get ->
+                    BinaryProtocol.balance(
+                            get.requestId(),
+                            ledgerService.getBalance(get.ledgerId(), null).balance().amount());
+                case BinaryProtocol.Malformed malformed ->
+                    error(malformed, ApiError.ErrorCode.BAD_REQUEST, malformed.message());
+            };
+        } catch (RuntimeException e) {
+            var code = errorCode(e);
+            if (code == ApiError.ErrorCode.INTERNAL_SERVER_ERROR) {
+                LOGGER.error(e.getMessage(), e);
+                return error(request, code, "Internal server error");
+            }
+            return error(request, code, e.getMessage());
+        }
+    }
+
+    private ByteBuffer error(BinaryProtocol.Request request, ApiError.ErrorCode code, String message) {
+        this.metrics.recordError(code);
+        return BinaryProtocol.error(request.opcode(), request.requestId(), code, message);
+    }
+
+    // The exceptions the service can throw for these requests, mapped as GlobalExceptionHandler maps them
+    private static ApiError.ErrorCode errorCode(RuntimeException e) {
+        return switch (e) {
+            case EntityNotFoundException notFound -> ApiError.ErrorCode.ENTITY_NOT_FOUND;
+            case InvalidMoneyOperationException invalid -> ApiError.ErrorCode.INVALID_MONEY_OPERATION;
+            case IdempotencyKeyException invalid -> ApiError.ErrorCode.INVALID_IDEMPOTENCY_KEY;
+            case CommandRejectedException rejected -> ApiError.ErrorCode.SERVICE_UNAVAILABLE;
+            default -> ApiError.ErrorCode.INTERNAL_SERVER_ERROR;
+        };
+    }
+
+    private void scheduleFlush(Connection connection) {
+        if (connection.flushScheduled.compareAndSet(false, true)) {
+            flushes.add(connection);
+            if (wakeUpScheduled.compareAndSet(false, true)) {
+                selector.wakeup();
+            }
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            LOGGER.debug("Could not close {}", closeable, e);
+        }
+    }
+
+    private final class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final Queue<ByteBuffer> responses = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        // Only used on the selector thread
+        private final ByteBuffer input = ByteBuffer.allocate(BUFFER_BYTES);
+        private final ByteBuffer output = ByteBuffer.allocate(BUFFER_BYTES);
+        private int inFlight;
+        private boolean inputClosed;
+        private volatile boolean closed;
+
+        private Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        private void read() {
+            try {
+                if (channel.read(input) < 0) {
+                    // The client may half-close once it has sent everything, so answer what it sent before closing
+                    inputClosed = true;
+                    update();
+                    return;
+                }
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            dispatchFrames();
+            update();
+        }
+
+        private void dispatchFrames() {
+            input.flip();
+            while (inFlight < maxInFlight && input.remaining() >= BinaryProtocol.LENGTH_BYTES) {
+                var length = input.getInt(input.position());
+                if (length < BinaryProtocol.HEADER_BYTES || length > BinaryProtocol.MAX_FRAME_BYTES) {
+                    // Framing is lost, so there is no request to answer
+                    LOGGER.debug("Closing TCP ingestion connection after a frame of {} bytes", length);
+                    input.clear();
+                    close();
+                    return;
+                }
+                if (input.remaining() < BinaryProtocol.LENGTH_BYTES + length) {
+                    break;
+                }
+                var request = BinaryProtocol.readRequest(
+                        input.slice(input.position() + BinaryProtocol.LENGTH_BYTES, length));
+                input.position(input.position() + BinaryProtocol.LENGTH_BYTES + length);
+                dispatch(request);
+            }
+            input.compact();
+        }
+
+        private void dispatch(BinaryProtocol.Request request) {
+            inFlight++;
+            if (request instanceof BinaryProtocol.Malformed) {
+                complete(execute(request));
+                return;
+            }
+            try {
+                executor.execute(() -> run(request));
+            } catch (RejectedExecutionException e) {
+                // The server is closing
+            }
+        }
+
+        // Runs on the request's virtual thread
+        private void run(BinaryProtocol.Request request) {
+            ByteBuffer response;
+            try {
+                response = execute(request);
+            } catch (Error e) {
+                // Answered before it is rethrown: a request that never completes would hold its in-flight slot
+                complete(error(request, ApiError.ErrorCode.INTERNAL_SERVER_ERROR, "Internal server error"));
+                throw e;
+            }
+            complete(response);
+        }
+
+        // Called from the request's virtual thread
+        private void complete(ByteBuffer response) {
+            if (!closed) {
+                responses.add(response);
+                scheduleFlush(this);
+            }
+        }
+
+        private void flush() {
+            if (closed) {
+                return;
+            }
+            try {
+                while (true) {
+                    ByteBuffer response;
+                    while ((response = responses.peek()) != null && output.remaining() >= response.remaining()) {
+                        output.put(responses.poll());
+                        inFlight--;
+                    }
+                    if (output.position() == 0) {
+                        break;
+                    }
+                    channel.write(output.flip());
+                    var partial = output.hasRemaining();
+                    output.compact();
+                    if (partial || responses.isEmpty()) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            // Frames left unread while the connection was at its in-flight limit
+            if (inFlight < maxInFlight && input.position() > 0) {
+                dispatchFrames();
+            }
+            update();
+        }
+
+        private void update() {
+            if (closed) {
+                return;
+            }
+            var pendingOutput = output.position() > 0 || !responses.isEmpty();
+            if (inputClosed && inFlight == 0 && !pendingOutput) {
+                close();
+                return;
+            }
+            var readable = !inputClosed && inFlight < maxInFlight;
+            key.interestOps(
+                    (readable ? SelectionKey.OP_READ : 0) | (output.position() > 0 ? SelectionKey.OP_WRITE : 0));
+        }
+
+        private void close() {
+            closed = true;
+            key.cancel();
+            closeQuietly(channel);
+        }
+    }
+}
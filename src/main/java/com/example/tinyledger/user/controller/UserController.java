@@ -1,10 +1,15 @@
 package com.example.tinyledger.user.controller;
 
 import com.example.tinyledger.common.controller.response.CreateEntityResponse;
+import com.example.tinyledger.ledger.service.LedgerService;
 import com.example.tinyledger.user.controller.request.CreateUserRequest;
+import com.example.tinyledger.user.controller.response.UserBalanceResponse;
 import com.example.tinyledger.user.service.UserService;
 import jakarta.validation.Valid;
+import java.util.UUID;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -16,9 +21,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class UserController {
 
     private final UserService userService;
+    private final LedgerService ledgerService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, LedgerService ledgerService) {
         this.userService = userService;
+        this.ledgerService = ledgerService;
     }
 
     @PostMapping
@@ -28,4 +35,9 @@ public class UserController {
                 createUserRequest.getFirstName(), createUserRequest.getLastName(), createUserRequest.getEmailAddress());
         return new CreateEntityResponse(user.id());
     }
+
+    @GetMapping("/{id}/balance")
+    public UserBalanceResponse getBalance(@PathVariable("id") UUID userId) {
+        return UserBalanceResponse.from(ledgerService.getUserBalance(userId));
+    }
 }
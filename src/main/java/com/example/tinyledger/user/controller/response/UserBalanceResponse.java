@@ -0,0 +1,10 @@
+package com.example.tinyledger.user.controller.response;
+
+import com.example.tinyledger.ledger.domain.UserBalance;
+import java.util.UUID;
+
+public record UserBalanceResponse(UUID userId, long balance) {
+    public static UserBalanceResponse from(UserBalance balance) {
+        return new UserBalanceResponse(balance.userId(), balance.balance());
+    }
+}
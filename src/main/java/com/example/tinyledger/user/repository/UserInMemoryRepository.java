@@ -2,33 +2,52 @@ package com.example.tinyledger.user.repository;
 
 import com.example.tinyledger.common.exception.EntityAlreadyExistsException;
 import com.example.tinyledger.user.domain.User;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 @Repository
+@ConditionalOnProperty(name = "tiny-ledger.repository", havingValue = "in-memory", matchIfMissing = true)
 public class UserInMemoryRepository implements UserRepository {
 
     private Map<UUID, User> users;
+    private final ReentrantLock lock = new ReentrantLock();
 
     public UserInMemoryRepository() {
         this.users = new ConcurrentHashMap<>();
     }
 
     @Override
-    public synchronized User save(User user) {
-        if (users.containsKey(user.id())) {
-            throw EntityAlreadyExistsException.userAlreadyExists(user.id());
-        }
+    public User save(User user) {
+        lock.lock();
+        try {
+            if (users.containsKey(user.id())) {
+                throw EntityAlreadyExistsException.userAlreadyExists(user.id());
+            }
 
-        users.put(user.id(), user);
-        return user;
+            users.put(user.id(), user);
+            return user;
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public Optional<User> get(UUID id) {
         return Optional.ofNullable(users.get(id));
     }
+
+    @Override
+    public int count() {
+        return users.size();
+    }
+
+    public List<User> getUsers() {
+        return users.values().stream().toList();
+    }
 }
@@ -0,0 +1,74 @@
+package com.example.tinyledger.user.repository;
+
+import com.example.tinyledger.common.exception.EntityAlreadyExistsException;
+import com.example.tinyledger.common.journal.Journal;
+import com.example.tinyledger.common.journal.JournalRecord;
+import com.example.tinyledger.common.journal.SnapshotStore;
+import com.example.tinyledger.user.domain.User;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@ConditionalOnProperty(name = "tiny-ledger.repository", havingValue = "journaled")
+public class UserJournaledRepository implements UserRepository {
+    private final Journal journal;
+    private final UserInMemoryRepository users;
+    private final ReentrantLock saveLock = new ReentrantLock();
+
+    public UserJournaledRepository(Journal journal, SnapshotStore snapshots) {
+        this.journal = journal;
+        this.users = new UserInMemoryRepository();
+        var snapshot = snapshots.latest();
+        snapshot.ifPresent(latest -> snapshots.readUsers(latest).forEach(this.users::save));
+        this.journal.replay(snapshot.map(SnapshotStore.Snapshot::position).orElse(0L), record -> {
+            if (record instanceof JournalRecord.UserCreated created
+                    && this.users.get(created.user().id()).isEmpty()) {
+                this.users.save(created.user());
+            }
+        });
+    }
+
+    @Override
+    public User save(User user) {
+        saveLock.lock();
+        try {
+            if (users.get(user.id()).isPresent()) {
+                throw EntityAlreadyExistsException.userAlreadyExists(user.id());
+            }
+            journal.append(new JournalRecord.UserCreated(user));
+            users.save(user);
+        } finally {
+            saveLock.unlock();
+        }
+        journal.awaitDurable();
+        return user;
+    }
+
+    @Override
+    public Optional<User> get(UUID id) {
+        return users.get(id);
+    }
+
+    @Override
+    public int count() {
+        return users.count();
+    }
+
+    public List<User> getUsers() {
+        return users.getUsers();
+    }
+
+    // Taken under the save lock, so every record before the returned position is already visible in memory.
+    public long journalPosition() {
+        saveLock.lock();
+        try {
+            return journal.position();
+        } finally {
+            saveLock.unlock();
+        }
+    }
+}
@@ -8,4 +8,6 @@ public interface UserRepository {
     User save(User user);
 
     Optional<User> get(UUID id);
+
+    int count();
 }
@@ -1,6 +1,7 @@
 package com.example.tinyledger.user.service;
 
 import com.example.tinyledger.common.exception.EntityNotFoundException;
+import com.example.tinyledger.common.id.IdGenerator;
 import com.example.tinyledger.user.domain.User;
 import com.example.tinyledger.user.repository.UserRepository;
 import java.util.UUID;
@@ -10,13 +11,15 @@ import org.springframework.stereotype.Service;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final IdGenerator idGenerator;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, IdGenerator idGenerator) {
         this.userRepository = userRepository;
+        this.idGenerator = idGenerator;
     }
 
     public User createUser(String firstName, String lastName, String emailAddress) {
-        var user = new User(UUID.randomUUID(), firstName, lastName, emailAddress);
+        var user = new User(this.idGenerator.nextId(), firstName, lastName, emailAddress);
         return this.userRepository.save(user);
     }
 
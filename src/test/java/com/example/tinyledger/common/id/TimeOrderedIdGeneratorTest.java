@@ -0,0 +1,86 @@
+package com.example.tinyledger.common.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    @DisplayName("Should generate version 7 ids carrying the current time")
+    void shouldGenerateVersion7IdsCarryingCurrentTime() {
+        var generator = new TimeOrderedIdGenerator(() -> 1_700_000_000_123L);
+
+        var id = generator.nextId();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(1_700_000_000_123L, TimeOrderedIdGenerator.timestampOf(id));
+    }
+
+    @Test
+    @DisplayName("Should generate strictly increasing ids within a millisecond and past the counter limit")
+    void shouldGenerateIncreasingIdsWithinMillisecond() {
+        var generator = new TimeOrderedIdGenerator(() -> 1_700_000_000_000L);
+
+        var previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            var next = generator.nextId();
+            assertTrue(next.compareTo(previous) > 0, "Id %d is not greater than the previous one".formatted(i));
+            previous = next;
+        }
+        assertTrue(TimeOrderedIdGenerator.timestampOf(previous) > 1_700_000_000_000L);
+    }
+
+    @Test
+    @DisplayName("Should order ids by the time they were generated")
+    void shouldOrderIdsByTime() {
+        var clock = new AtomicLong(1_700_000_000_000L);
+        var generator = new TimeOrderedIdGenerator(clock::get);
+
+        var first = generator.nextId();
+        clock.addAndGet(5);
+        var second = generator.nextId();
+
+        assertTrue(first.compareTo(second) < 0);
+        assertEquals(5, TimeOrderedIdGenerator.timestampOf(second) - TimeOrderedIdGenerator.timestampOf(first));
+    }
+
+    @Test
+    @DisplayName("Should generate unique ids from concurrent threads")
+    void shouldGenerateUniqueIdsFromConcurrentThreads() throws Exception {
+        var generator = new TimeOrderedIdGenerator(System::currentTimeMillis);
+        var ids = ConcurrentHashMap.<UUID>newKeySet();
+        int threadCount = 8;
+        int idsPerThread = 50_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            futures.add(executor.submit(() -> {
+                var local = new HashSet<UUID>();
+                for (int j = 0; j < idsPerThread; j++) {
+                    local.add(generator.nextId());
+                }
+                ids.addAll(local);
+            }));
+        }
+        for (var future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(threadCount * idsPerThread, ids.size());
+    }
+}
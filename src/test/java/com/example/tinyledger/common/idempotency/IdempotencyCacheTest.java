@@ -0,0 +1,250 @@
+package com.example.tinyledger.common.idempotency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.tinyledger.common.exception.CommandRejectedException;
+import com.example.tinyledger.common.exception.IdempotencyKeyException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class IdempotencyCacheTest {
+
+    private final UUID ledgerId = UUID.randomUUID();
+
+    @Test
+    @DisplayName("Should return the remembered id when a key is replayed")
+    void shouldReturnRememberedIdWhenKeyIsReplayed() {
+        var cache = new IdempotencyCache(100, Duration.ofHours(1), Clock.systemUTC());
+        var calls = new AtomicInteger();
+
+        var first = cache.execute(ledgerId, "key", 1, () -> newId(calls));
+        var second = cache.execute(ledgerId, "key", 1, () -> newId(calls));
+
+        assertEquals(first, second);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should scope keys to the given ledger")
+    void shouldScopeKeysToLedger() {
+        var cache = new IdempotencyCache(100, Duration.ofHours(1), Clock.systemUTC());
+        var calls = new AtomicInteger();
+
+        var first = cache.execute(ledgerId, "key", 1, () -> newId(calls));
+        var second = cache.execute(UUID.randomUUID(), "key", 1, () -> newId(calls));
+
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused for a different request")
+    void shouldRejectKeyReusedForDifferentRequest() {
+        var cache = new IdempotencyCache(100, Duration.ofHours(1), Clock.systemUTC());
+        cache.execute(ledgerId, "key", 1, UUID::randomUUID);
+
+        assertThrows(IdempotencyKeyException.class, () -> cache.execute(ledgerId, "key", 2, UUID::randomUUID));
+    }
+
+    @Test
+    @DisplayName("Should compare fingerprints by value")
+    void shouldCompareFingerprintsByValue() {
+        var cache = new IdempotencyCache(100, Duration.ofHours(1), Clock.systemUTC());
+        var calls = new AtomicInteger();
+
+        var first = cache.execute(ledgerId, "key", new Fingerprint(Long.MAX_VALUE, "deposit"), () -> newId(calls));
+        var second = cache.execute(ledgerId, "key", new Fingerprint(Long.MAX_VALUE, "deposit"), () -> newId(calls));
+
+        assertEquals(first, second);
+        assertThrows(
+                IdempotencyKeyException.class,
+                () -> cache.execute(ledgerId, "key", new Fingerprint(Long.MAX_VALUE, "withdraw"), UUID::randomUUID));
+    }
+
+    @Test
+    @DisplayName("Should not remember failures")
+    void shouldNotRememberFailures() {
+        var cache = new IdempotencyCache(100, Duration.ofHours(1), Clock.systemUTC());
+
+        assertThrows(IllegalStateException.class, () -> cache.execute(ledgerId, "key", 1, () -> {
+            throw new IllegalStateException("boom");
+        }));
+        var id = UUID.randomUUID();
+
+        assertEquals(id, cache.execute(ledgerId, "key", 1, () -> id));
+    }
+
+    @Test
+    @DisplayName("Should not remember a key whose action failed with an error")
+    void shouldNotRememberKeyWhoseActionFailedWithError() {
+        var cache = new IdempotencyCache(100, Duration.ofHours(1), Clock.systemUTC());
+
+        assertThrows(StackOverflowError.class, () -> cache.execute(ledgerId, "key", 1, () -> {
+            throw new StackOverflowError();
+        }));
+        var id = UUID.randomUUID();
+
+        assertEquals(id, cache.execute(ledgerId, "key", 1, () -> id));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should not count failed keys towards the maximum")
+    void shouldNotCountFailedKeysTowardsMaximum() {
+        var cache = new IdempotencyCache(2, Duration.ofHours(1), Clock.systemUTC());
+        var calls = new AtomicInteger();
+
+        cache.execute(ledgerId, "first", 1, () -> newId(calls));
+        assertThrows(IllegalStateException.class, () -> cache.execute(ledgerId, "failed", 1, () -> {
+            throw new IllegalStateException("boom");
+        }));
+        cache.execute(ledgerId, "second", 1, () -> newId(calls));
+        cache.execute(ledgerId, "first", 1, () -> newId(calls));
+
+        assertEquals(2, calls.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should run the action again once the key expired")
+    void shouldRunActionAgainOnceKeyExpired() {
+        var clock = new MutableClock();
+        var cache = new IdempotencyCache(100, Duration.ofMinutes(1), clock);
+        var calls = new AtomicInteger();
+
+        var first = cache.execute(ledgerId, "key", 1, () -> newId(calls));
+        clock.advance(Duration.ofMinutes(2));
+        var second = cache.execute(ledgerId, "key", 1, () -> newId(calls));
+
+        assertNotEquals(first, second);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should evict the oldest keys beyond the maximum")
+    void shouldEvictOldestKeysBeyondMaximum() {
+        var cache = new IdempotencyCache(10, Duration.ofHours(1), Clock.systemUTC());
+        var calls = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            cache.execute(ledgerId, "key-" + i, 1, () -> newId(calls));
+        }
+
+        assertEquals(10, cache.size());
+        cache.execute(ledgerId, "key-99", 1, () -> newId(calls));
+        cache.execute(ledgerId, "key-0", 1, () -> newId(calls));
+        assertEquals(101, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should not evict a key whose request is still in flight")
+    void shouldNotEvictKeyWhoseRequestIsInFlight() throws Exception {
+        var cache = new IdempotencyCache(1, Duration.ofHours(1), Clock.systemUTC());
+        var calls = new AtomicInteger();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var id = UUID.randomUUID();
+        var inFlight = CompletableFuture.supplyAsync(() -> cache.execute(ledgerId, "in-flight", 1, () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            awaitUninterruptibly(release);
+            return id;
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS), "The first request should start within timeout");
+
+        assertThrows(CommandRejectedException.class, () -> cache.execute(ledgerId, "other", 1, () -> newId(calls)));
+        var retry = CompletableFuture.supplyAsync(() -> cache.execute(ledgerId, "in-flight", 1, () -> newId(calls)));
+        release.countDown();
+
+        assertEquals(id, inFlight.get(10, TimeUnit.SECONDS));
+        assertEquals(id, retry.get(10, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+        cache.execute(ledgerId, "other", 1, () -> newId(calls));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should run the action once for concurrent requests with the same key")
+    void shouldRunActionOnceForConcurrentRequests() throws InterruptedException {
+        var cache = new IdempotencyCache(100, Duration.ofHours(1), Clock.systemUTC());
+        var calls = new AtomicInteger();
+        int threadCount = 10;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            executor.submit(() -> {
+                try {
+                    cache.execute(ledgerId, "key", 1, () -> newId(calls));
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS), "All threads should complete within timeout");
+        executor.shutdown();
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should reject keys that are too long")
+    void shouldRejectKeysThatAreTooLong() {
+        var cache = new IdempotencyCache(100, Duration.ofHours(1), Clock.systemUTC());
+        var key = "k".repeat(IdempotencyCache.MAX_KEY_LENGTH + 1);
+
+        assertThrows(IdempotencyKeyException.class, () -> cache.execute(ledgerId, key, 1, UUID::randomUUID));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static UUID newId(AtomicInteger calls) {
+        calls.incrementAndGet();
+        return UUID.randomUUID();
+    }
+
+    private record Fingerprint(long amount, String type) {}
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.now();
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.tinyledger.common.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.tinyledger.ledger.domain.Money;
+import com.example.tinyledger.ledger.domain.Transaction;
+import com.example.tinyledger.ledger.domain.TransactionType;
+import com.example.tinyledger.user.domain.User;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should replay appended records after reopening")
+    void shouldReplayAppendedRecordsAfterReopening() {
+        var user = new User(UUID.randomUUID(), "Obi-Wan", "Kenobi", "obi-wan@kenobi.com");
+        var ledgerId = UUID.randomUUID();
+        var transaction = transaction(ledgerId, 100L);
+        // A posting's legs, across ledgers, each with its own sequence
+        var posting = new JournalRecord.TransactionsAppended(List.of(
+                new JournalRecord.TransactionAppended(transaction(ledgerId, 20L), 1),
+                new JournalRecord.TransactionAppended(transaction(UUID.randomUUID(), 20L), 0)));
+
+        try (var journal = open(FsyncPolicy.BATCH)) {
+            journal.append(new JournalRecord.UserCreated(user));
+            journal.append(new JournalRecord.LedgerCreated(ledgerId, user.id(), "Savings"));
+            journal.append(new JournalRecord.TransactionAppended(transaction, 0));
+            journal.append(posting);
+            journal.awaitDurable();
+        }
+
+        var replayed = replay();
+        assertEquals(
+                List.of(
+                        new JournalRecord.UserCreated(user),
+                        new JournalRecord.LedgerCreated(ledgerId, user.id(), "Savings"),
+                        new JournalRecord.TransactionAppended(transaction, 0),
+                        posting),
+                replayed);
+    }
+
+    @Test
+    @DisplayName("Should roll over to new segments when a segment is full")
+    void shouldRollOverToNewSegmentsWhenSegmentIsFull() throws IOException {
+        var ledgerId = UUID.randomUUID();
+        try (var journal = open(FsyncPolicy.OS)) {
+            for (int i = 0; i < 500; i++) {
+                journal.append(new JournalRecord.TransactionAppended(transaction(ledgerId, i + 1), i));
+            }
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.count() > 1, "Journal should span multiple segments");
+        }
+        var replayed = replay();
+        assertEquals(500, replayed.size());
+        assertEquals(500L, ((JournalRecord.TransactionAppended) replayed.getLast())
+                .transaction()
+                .amount()
+                .amount());
+    }
+
+    @Test
+    @DisplayName("Should discard a torn record at the tail and keep appending after it")
+    void shouldDiscardTornRecordAtTail() throws IOException {
+        var ledgerId = UUID.randomUUID();
+        long end;
+        try (var journal = open(FsyncPolicy.BATCH)) {
+            journal.append(new JournalRecord.TransactionAppended(transaction(ledgerId, 1L), 0));
+            end = journal.append(new JournalRecord.TransactionAppended(transaction(ledgerId, 2L), 1));
+        }
+
+        try (var channel = FileChannel.open(segment(), StandardOpenOption.WRITE)) {
+            var garbage = ByteBuffer.allocate(12).putInt(40).putInt(1234).putInt(42).flip();
+            channel.write(garbage, end);
+        }
+
+        try (var journal = open(FsyncPolicy.BATCH)) {
+            journal.append(new JournalRecord.TransactionAppended(transaction(ledgerId, 3L), 2));
+        }
+
+        var amounts = replay().stream()
+                .map(record -> ((JournalRecord.TransactionAppended) record)
+                        .transaction()
+                        .amount()
+                        .amount())
+                .toList();
+        assertEquals(List.of(1L, 2L, 3L), amounts);
+    }
+
+    @Test
+    @DisplayName("Should make every concurrently appended record durable")
+    void shouldMakeEveryConcurrentlyAppendedRecordDurable() throws InterruptedException {
+        int threadCount = 8;
+        int appendsPerThread = 50;
+        var ledgerId = UUID.randomUUID();
+
+        try (var journal = Journal.open(directory, 1 << 20, FsyncPolicy.BATCH, Duration.ofMillis(100))) {
+            ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+            CountDownLatch latch = new CountDownLatch(threadCount);
+            for (int i = 0; i < threadCount; i++) {
+                executor.submit(() -> {
+                    try {
+                        for (int j = 0; j < appendsPerThread; j++) {
+                            journal.append(new JournalRecord.TransactionAppended(transaction(ledgerId, 1L), 0));
+                            journal.awaitDurable();
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+            }
+            assertTrue(latch.await(10, TimeUnit.SECONDS), "All threads should complete within timeout");
+            executor.shutdown();
+        }
+
+        assertEquals(threadCount * appendsPerThread, replay().size());
+    }
+
+    @Test
+    @DisplayName("Should replay from a position and delete the segments before it")
+    void shouldReplayFromPositionAndDeleteSegmentsBeforeIt() throws IOException {
+        var ledgerId = UUID.randomUUID();
+        long position;
+        try (var journal = open(FsyncPolicy.OS)) {
+            for (int i = 0; i < 300; i++) {
+                journal.append(new JournalRecord.TransactionAppended(transaction(ledgerId, i + 1), i));
+            }
+            position = journal.position();
+            for (int i = 300; i < 310; i++) {
+                journal.append(new JournalRecord.TransactionAppended(transaction(ledgerId, i + 1), i));
+            }
+            journal.deleteSegmentsBefore(position);
+        }
+
+        var sequences = new ArrayList<Long>();
+        try (var journal = open(FsyncPolicy.OS)) {
+            journal.replay(position, record -> sequences.add(((JournalRecord.TransactionAppended) record).sequence()));
+        }
+        assertEquals(10, sequences.size());
+        assertEquals(300L, sequences.getFirst());
+        assertTrue(replay().size() < 310, "Segments before the position should be deleted");
+    }
+
+    private Journal open(FsyncPolicy fsyncPolicy) {
+        return Journal.open(directory, SEGMENT_SIZE, fsyncPolicy, Duration.ofMillis(100));
+    }
+
+    private List<JournalRecord> replay() {
+        var records = new ArrayList<JournalRecord>();
+        try (var journal = open(FsyncPolicy.OS)) {
+            journal.replay(records::add);
+        }
+        return records;
+    }
+
+    private Path segment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().findFirst().orElseThrow();
+        }
+    }
+
+    private static Transaction transaction(UUID ledgerId, long amount) {
+        return new Transaction(
+                UUID.randomUUID(), ledgerId, TransactionType.DEPOSIT, new Money(amount), Instant.now());
+    }
+}
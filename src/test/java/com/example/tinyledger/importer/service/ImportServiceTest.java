@@ -0,0 +1,220 @@
+package com.example.tinyledger.importer.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.tinyledger.common.exception.InvalidImportException;
+import com.example.tinyledger.common.id.IdGenerator;
+import com.example.tinyledger.importer.config.ImportProperties;
+import com.example.tinyledger.importer.domain.ImportError;
+import com.example.tinyledger.importer.domain.ImportFormat;
+import com.example.tinyledger.importer.domain.ImportJob;
+import com.example.tinyledger.importer.domain.ImportState;
+import com.example.tinyledger.ledger.domain.HistoryStorage;
+import com.example.tinyledger.ledger.domain.Money;
+import com.example.tinyledger.ledger.domain.Transaction;
+import com.example.tinyledger.ledger.engine.DirectLedgerCommandExecutor;
+import com.example.tinyledger.ledger.metrics.LedgerMetrics;
+import com.example.tinyledger.ledger.repository.LedgerInMemoryRepository;
+import com.example.tinyledger.user.repository.UserInMemoryRepository;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.ObjectMapper;
+
+class ImportServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final UserInMemoryRepository userRepository = new UserInMemoryRepository();
+    private final LedgerInMemoryRepository ledgerRepository = new LedgerInMemoryRepository(LedgerMetrics.NONE);
+    private ImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        // Tiny chunks so that even small files are split and parsed in parallel windows
+        importService = new ImportService(
+                userRepository,
+                ledgerRepository,
+                new DirectLedgerCommandExecutor(),
+                HistoryStorage.OBJECTS,
+                new ImportProperties(directory, DataSize.ofBytes(64), 2),
+                IdGenerator.timeOrdered(),
+                new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("Should split files into chunks that end on line breaks")
+    void shouldSplitFilesIntoLineAlignedChunks() throws IOException {
+        var file = directory.resolve("lines.txt");
+        var lines = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+            lines.add("line-" + i);
+        }
+        Files.write(file, lines);
+
+        var read = new ArrayList<String>();
+        try (var channel = FileChannel.open(file)) {
+            var chunks = ImportChunks.split(channel, 0, 32);
+            for (var chunk : chunks) {
+                read.addAll(ImportChunks.lines(channel, chunk));
+            }
+            assertTrue(chunks.size() > 1);
+        }
+
+        assertEquals(lines, read);
+    }
+
+    @Test
+    @DisplayName("Should import users, ledgers and transactions from CSV files")
+    void shouldImportCsvFiles() throws IOException {
+        var userId = UUID.randomUUID();
+        var ledgerId = UUID.randomUUID();
+        var start = Instant.parse("2024-01-01T00:00:00Z");
+        Files.writeString(
+                directory.resolve("users.csv"),
+                "id,firstName,lastName,emailAddress\n%s,Jane,Doe,jane@example.com\n".formatted(userId));
+        Files.writeString(
+                directory.resolve("ledgers.csv"), "id,userId,name\n%s,%s,Savings\n".formatted(ledgerId, userId));
+        var transactions = new StringBuilder("id,ledgerId,type,amount,occurredAt\n");
+        for (int i = 0; i < 50; i++) {
+            transactions.append("%s,%s,DEPOSIT,10,%s\n".formatted(UUID.randomUUID(), ledgerId, start.plusSeconds(i)));
+        }
+        Files.writeString(directory.resolve("transactions.csv"), transactions);
+
+        var job = runImport(ImportFormat.CSV, "users.csv", "ledgers.csv", "transactions.csv");
+
+        assertEquals(ImportState.COMPLETED, job.getState());
+        assertEquals(52, job.getRowsImported());
+        assertEquals(0, job.getRowsRejected());
+        var ledger = ledgerRepository.get(ledgerId).orElseThrow();
+        assertEquals(userId, ledger.getUserId());
+        assertEquals(500L, ledger.getBalance().amount());
+        assertEquals(start.plusSeconds(49), ledger.getTransactions().getLast().occurredAt());
+    }
+
+    @Test
+    @DisplayName("Should report rejected NDJSON rows with their line numbers and import the others")
+    void shouldReportRejectedRowsWithLineNumbers() throws IOException {
+        var userId = UUID.randomUUID();
+        var ledgerId = UUID.randomUUID();
+        var first = UUID.randomUUID();
+        var last = UUID.randomUUID();
+        Files.writeString(
+                directory.resolve("users.ndjson"),
+                "{\"id\":\"%s\",\"firstName\":\"Jane\",\"lastName\":\"Doe\"}\n".formatted(userId));
+        Files.writeString(
+                directory.resolve("ledgers.ndjson"),
+                "{\"id\":\"%s\",\"userId\":\"%s\",\"name\":\"Savings\"}\n".formatted(ledgerId, userId));
+        Files.writeString(
+                directory.resolve("transactions.ndjson"),
+                String.join(
+                        "\n",
+                        transactionJson(first, ledgerId, "DEPOSIT", 100, "2024-01-01T00:00:00Z"),
+                        transactionJson(UUID.randomUUID(), ledgerId, "WITHDRAW", 500, "2024-01-01T00:00:01Z"),
+                        "not json",
+                        transactionJson(UUID.randomUUID(), UUID.randomUUID(), "DEPOSIT", 1, "2024-01-01T00:00:02Z"),
+                        transactionJson(UUID.randomUUID(), ledgerId, "DEPOSIT", -1, "2024-01-01T00:00:03Z"),
+                        transactionJson(last, ledgerId, "WITHDRAW", 40, "2024-01-01T00:00:04Z")));
+
+        var job = runImport(ImportFormat.NDJSON, "users.ndjson", "ledgers.ndjson", "transactions.ndjson");
+
+        assertEquals(ImportState.COMPLETED, job.getState());
+        assertEquals(8, job.getRowsRead());
+        assertEquals(4, job.getRowsImported());
+        assertEquals(4, job.getRowsRejected());
+        assertEquals(
+                List.of(2L, 3L, 4L, 5L),
+                job.getErrors().stream().map(ImportError::line).sorted().toList());
+        var ledger = ledgerRepository.get(ledgerId).orElseThrow();
+        assertEquals(60L, ledger.getBalance().amount());
+        assertEquals(
+                List.of(first, last),
+                ledger.getTransactions().stream().map(Transaction::id).toList());
+    }
+
+    @Test
+    @DisplayName("Should reject transactions dated beyond what columnar histories hold or in the future")
+    void shouldRejectTransactionsOutOfRange() throws IOException {
+        var columnarImportService = new ImportService(
+                userRepository,
+                ledgerRepository,
+                new DirectLedgerCommandExecutor(),
+                HistoryStorage.COLUMNAR,
+                new ImportProperties(directory, DataSize.ofBytes(64), 2),
+                IdGenerator.timeOrdered(),
+                new ObjectMapper());
+        var userId = UUID.randomUUID();
+        var ledgerId = UUID.randomUUID();
+        var first = UUID.randomUUID();
+        var last = UUID.randomUUID();
+        Files.writeString(
+                directory.resolve("users.ndjson"),
+                "{\"id\":\"%s\",\"firstName\":\"Jane\",\"lastName\":\"Doe\"}\n".formatted(userId));
+        Files.writeString(
+                directory.resolve("ledgers.ndjson"),
+                "{\"id\":\"%s\",\"userId\":\"%s\",\"name\":\"Savings\"}\n".formatted(ledgerId, userId));
+        Files.writeString(
+                directory.resolve("transactions.ndjson"),
+                String.join(
+                        "\n",
+                        transactionJson(first, ledgerId, "DEPOSIT", 100, "2024-01-01T00:00:00Z"),
+                        transactionJson(UUID.randomUUID(), ledgerId, "DEPOSIT", 1, "+300000-01-01T00:00:00Z"),
+                        transactionJson(UUID.randomUUID(), ledgerId, "DEPOSIT", 1, "1500-01-01T00:00:00Z"),
+                        transactionJson(UUID.randomUUID(), ledgerId, "DEPOSIT", 1, "2200-01-01T00:00:00Z"),
+                        transactionJson(last, ledgerId, "DEPOSIT", 20, "2024-01-01T00:00:01Z")));
+
+        var job = new ImportJob(ImportFormat.NDJSON);
+        columnarImportService.run(
+                job,
+                directory.resolve("users.ndjson"),
+                directory.resolve("ledgers.ndjson"),
+                directory.resolve("transactions.ndjson"));
+
+        assertEquals(ImportState.COMPLETED, job.getState());
+        assertEquals(3, job.getRowsRejected());
+        assertEquals(
+                List.of(2L, 3L, 4L),
+                job.getErrors().stream().map(ImportError::line).sorted().toList());
+        var ledger = ledgerRepository.get(ledgerId).orElseThrow();
+        assertEquals(120L, ledger.getBalance().amount());
+        assertEquals(
+                List.of(first, last),
+                ledger.getTransactions().stream().map(Transaction::id).toList());
+        var live = ledger.deposit(new Money(1L));
+        assertTrue(live.occurredAt().isAfter(Instant.parse("2024-01-01T00:00:01Z")));
+    }
+
+    @Test
+    @DisplayName("Should reject files outside of the import directory")
+    void shouldRejectFilesOutsideOfImportDirectory() {
+        assertThrows(
+                InvalidImportException.class,
+                () -> importService.startImport(ImportFormat.CSV, "../users.csv", null, null));
+        assertThrows(
+                InvalidImportException.class, () -> importService.startImport(ImportFormat.CSV, null, null, null));
+    }
+
+    private ImportJob runImport(ImportFormat format, String users, String ledgers, String transactions) {
+        var job = new ImportJob(format);
+        importService.run(job, directory.resolve(users), directory.resolve(ledgers), directory.resolve(transactions));
+        return job;
+    }
+
+    private static String transactionJson(UUID id, UUID ledgerId, String type, long amount, String occurredAt) {
+        return "{\"id\":\"%s\",\"ledgerId\":\"%s\",\"type\":\"%s\",\"amount\":%d,\"occurredAt\":\"%s\"}"
+                .formatted(id, ledgerId, type, amount, occurredAt);
+    }
+}
@@ -3,17 +3,28 @@ package com.example.tinyledger.ledger.controller;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.example.tinyledger.common.controller.response.CreateEntityResponse;
+import com.example.tinyledger.importer.controller.request.CreateImportRequest;
+import com.example.tinyledger.importer.domain.ImportFormat;
 import com.example.tinyledger.ledger.controller.request.CreateLedgerRequest;
+import com.example.tinyledger.ledger.controller.request.CreatePostingRequest;
+import com.example.tinyledger.ledger.controller.request.CreateTransactionBatchRequest;
 import com.example.tinyledger.ledger.controller.request.CreateTransactionRequest;
+import com.example.tinyledger.ledger.controller.request.PostingLegRequest;
 import com.example.tinyledger.ledger.controller.response.BalanceResponse;
 import com.example.tinyledger.ledger.domain.TransactionType;
 import com.example.tinyledger.user.controller.request.CreateUserRequest;
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -291,6 +302,92 @@ class LedgerResponseControllerIntegrationTest {
         assertEquals(0L, balance.balance());
     }
 
+    @Test
+    @DisplayName("Should get balance as of an instant")
+    void shouldGetBalanceAsOfInstant() throws Exception {
+        var ledgerId = createLedger("Test Ledger");
+        deposit(ledgerId, 100);
+        deposit(ledgerId, 50);
+
+        mockMvc.perform(get("/ledgers/" + ledgerId + "/balance").param("asOf", "2000-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(0));
+        mockMvc.perform(get("/ledgers/" + ledgerId + "/balance").param("asOf", Instant.now().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(150));
+        mockMvc.perform(get("/ledgers/" + ledgerId + "/balance").param("asOf", "yesterday"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should return 304 for an unchanged ledger until a transaction changes its version")
+    void shouldReturnNotModifiedUntilLedgerChanges() throws Exception {
+        var ledgerId = createLedger("Test Ledger");
+        deposit(ledgerId, 100);
+
+        var etag = mockMvc.perform(get("/ledgers/" + ledgerId + "/balance"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+        mockMvc.perform(get("/ledgers/" + ledgerId + "/balance").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/ledgers/" + ledgerId + "/transactions").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        deposit(ledgerId, 50);
+
+        mockMvc.perform(get("/ledgers/" + ledgerId + "/balance").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(150));
+    }
+
+    @Test
+    @DisplayName("Should get the total balance of a user across ledgers")
+    void shouldGetUserBalance() throws Exception {
+        var userId = createUser("Leia", "Organa", "leia@organa.com");
+        deposit(createLedger("Checking", userId), 100);
+        deposit(createLedger("Savings", userId), 250);
+        deposit(createLedger("Other"), 1000);
+
+        mockMvc.perform(get("/users/" + userId + "/balance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(userId.toString()))
+                .andExpect(jsonPath("$.balance").value(350));
+    }
+
+    @Test
+    @DisplayName("Should return 404 when getting the balance of an unknown user")
+    void shouldReturn404WhenGettingBalanceOfUnknownUser() throws Exception {
+        mockMvc.perform(get("/users/" + UUID.randomUUID() + "/balance")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should get daily rollups of deposits and withdrawals")
+    void shouldGetDailyRollups() throws Exception {
+        var ledgerId = createLedger("Test Ledger");
+        deposit(ledgerId, 100);
+        deposit(ledgerId, 50);
+        var withdrawRequest = new CreateTransactionRequest(TransactionType.WITHDRAW, 30);
+        mockMvc.perform(post("/ledgers/" + ledgerId + "/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(withdrawRequest)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/ledgers/" + ledgerId + "/rollups").param("granularity", "DAY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].depositTotal").value(150))
+                .andExpect(jsonPath("$[0].depositCount").value(2))
+                .andExpect(jsonPath("$[0].withdrawTotal").value(30))
+                .andExpect(jsonPath("$[0].withdrawCount").value(1));
+        mockMvc.perform(get("/ledgers/" + ledgerId + "/rollups").param("to", "2000-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
     @Test
     @DisplayName("Should filter ledgers by userId")
     void shouldFilterLedgersByUserId() throws Exception {
@@ -365,6 +462,313 @@ class LedgerResponseControllerIntegrationTest {
                 .andExpect(jsonPath("$", hasSize(4)));
     }
 
+    @Test
+    @DisplayName("Should paginate transaction history oldest first with a cursor")
+    void shouldPaginateTransactionHistoryOldestFirst() throws Exception {
+        var ledgerId = createLedger("New Ledger");
+        deposit(ledgerId, 100);
+        deposit(ledgerId, 200);
+        deposit(ledgerId, 300);
+
+        var firstPage = mockMvc.perform(get("/ledgers/" + ledgerId + "/transactions")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].amount").value(100))
+                .andExpect(jsonPath("$[1].amount").value(200))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn();
+
+        mockMvc.perform(get("/ledgers/" + ledgerId + "/transactions")
+                        .param("limit", "2")
+                        .param("cursor", firstPage.getResponse().getHeader("X-Next-Cursor")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].amount").value(300))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @DisplayName("Should paginate transaction history newest first with a cursor")
+    void shouldPaginateTransactionHistoryNewestFirst() throws Exception {
+        var ledgerId = createLedger("New Ledger");
+        deposit(ledgerId, 100);
+        deposit(ledgerId, 200);
+        deposit(ledgerId, 300);
+
+        var firstPage = mockMvc.perform(get("/ledgers/" + ledgerId + "/transactions")
+                        .param("limit", "2")
+                        .param("order", "NEWEST_FIRST"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].amount").value(300))
+                .andExpect(jsonPath("$[1].amount").value(200))
+                .andReturn();
+
+        mockMvc.perform(get("/ledgers/" + ledgerId + "/transactions")
+                        .param("limit", "2")
+                        .param("order", "NEWEST_FIRST")
+                        .param("cursor", firstPage.getResponse().getHeader("X-Next-Cursor")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].amount").value(100))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @DisplayName("Should return 400 when the transaction cursor is invalid")
+    void shouldReturn400WhenTransactionCursorIsInvalid() throws Exception {
+        var ledgerId = createLedger("New Ledger");
+
+        mockMvc.perform(get("/ledgers/" + ledgerId + "/transactions")
+                        .param("limit", "2")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should return 400 when the transaction page limit is not positive")
+    void shouldReturn400WhenTransactionPageLimitIsNotPositive() throws Exception {
+        var ledgerId = createLedger("New Ledger");
+
+        mockMvc.perform(get("/ledgers/" + ledgerId + "/transactions").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should create a batch of transactions and return their ids")
+    void shouldCreateBatchOfTransactions() throws Exception {
+        var ledgerId = createLedger("New Ledger");
+        var batch = new CreateTransactionBatchRequest(List.of(
+                new CreateTransactionRequest(TransactionType.DEPOSIT, 100),
+                new CreateTransactionRequest(TransactionType.WITHDRAW, 40),
+                new CreateTransactionRequest(TransactionType.DEPOSIT, 15)));
+
+        mockMvc.perform(post("/ledgers/" + ledgerId + "/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.ids", hasSize(3)));
+
+        mockMvc.perform(get("/ledgers/" + ledgerId + "/balance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(75));
+    }
+
+    @Test
+    @DisplayName("Should reject the whole batch when it overdraws the ledger")
+    void shouldRejectWholeBatchWhenItOverdraws() throws Exception {
+        var ledgerId = createLedger("New Ledger");
+        var batch = new CreateTransactionBatchRequest(List.of(
+                new CreateTransactionRequest(TransactionType.DEPOSIT, 100),
+                new CreateTransactionRequest(TransactionType.WITHDRAW, 150)));
+
+        mockMvc.perform(post("/ledgers/" + ledgerId + "/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/ledgers/" + ledgerId + "/transactions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("Should return 400 when a batch is empty")
+    void shouldReturn400WhenBatchIsEmpty() throws Exception {
+        var ledgerId = createLedger("New Ledger");
+
+        mockMvc.perform(post("/ledgers/" + ledgerId + "/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateTransactionBatchRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should transfer money between ledgers of different users with a posting")
+    void shouldTransferMoneyWithPosting() throws Exception {
+        var source = createLedger("Source", createUser("Han", "Solo", "han@solo.com"));
+        var target = createLedger("Target", createUser("Lando", "Calrissian", "lando@calrissian.com"));
+        deposit(source, 100);
+        var posting = new CreatePostingRequest(List.of(
+                new PostingLegRequest(source, TransactionType.WITHDRAW, 60),
+                new PostingLegRequest(target, TransactionType.DEPOSIT, 60)));
+
+        mockMvc.perform(post("/postings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(posting)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.ids", hasSize(2)));
+
+        mockMvc.perform(get("/ledgers/" + source + "/balance")).andExpect(jsonPath("$.balance").value(40));
+        mockMvc.perform(get("/ledgers/" + target + "/balance")).andExpect(jsonPath("$.balance").value(60));
+    }
+
+    @Test
+    @DisplayName("Should return 400 when a posting is not balanced")
+    void shouldReturn400WhenPostingIsNotBalanced() throws Exception {
+        var source = createLedger("Source");
+        var target = createLedger("Target");
+        deposit(source, 100);
+        var posting = new CreatePostingRequest(List.of(
+                new PostingLegRequest(source, TransactionType.WITHDRAW, 60),
+                new PostingLegRequest(target, TransactionType.DEPOSIT, 50)));
+
+        mockMvc.perform(post("/postings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(posting)))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/ledgers/" + source + "/balance")).andExpect(jsonPath("$.balance").value(100));
+    }
+
+    @Test
+    @DisplayName("Should return 404 when a posting references an unknown ledger")
+    void shouldReturn404WhenPostingReferencesUnknownLedger() throws Exception {
+        var source = createLedger("Source");
+        deposit(source, 100);
+        var posting = new CreatePostingRequest(List.of(
+                new PostingLegRequest(source, TransactionType.WITHDRAW, 60),
+                new PostingLegRequest(UUID.randomUUID(), TransactionType.DEPOSIT, 60)));
+
+        mockMvc.perform(post("/postings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(posting)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should create a transaction only once when it is retried with the same idempotency key")
+    void shouldCreateTransactionOnceForSameIdempotencyKey() throws Exception {
+        var ledgerId = createLedger("New Ledger");
+        var request = objectMapper.writeValueAsString(new CreateTransactionRequest(TransactionType.DEPOSIT, 100));
+
+        var first = mockMvc.perform(post("/ledgers/" + ledgerId + "/transactions")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isCreated())
+                .andReturn();
+        var second = mockMvc.perform(post("/ledgers/" + ledgerId + "/transactions")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        assertEquals(
+                first.getResponse().getContentAsString(),
+                second.getResponse().getContentAsString());
+        mockMvc.perform(get("/ledgers/" + ledgerId + "/balance")).andExpect(jsonPath("$.balance").value(100));
+    }
+
+    @Test
+    @DisplayName("Should return 422 when an idempotency key is reused for a different request")
+    void shouldReturn422WhenIdempotencyKeyIsReusedForDifferentRequest() throws Exception {
+        var ledgerId = createLedger("New Ledger");
+
+        mockMvc.perform(post("/ledgers/" + ledgerId + "/transactions")
+                        .header("Idempotency-Key", "retry-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new CreateTransactionRequest(TransactionType.DEPOSIT, 100))))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/ledgers/" + ledgerId + "/transactions")
+                        .header("Idempotency-Key", "retry-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new CreateTransactionRequest(TransactionType.DEPOSIT, 200))))
+                .andExpect(status().is(422));
+    }
+
+    @Test
+    @DisplayName("Should stream the transaction history as NDJSON")
+    void shouldStreamTransactionHistoryAsNdjson() throws Exception {
+        var ledgerId = createLedger("New Ledger");
+        deposit(ledgerId, 100);
+        deposit(ledgerId, 200);
+
+        var result = mockMvc.perform(get("/ledgers/" + ledgerId + "/transactions/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"));
+
+        var lines = result.getResponse().getContentAsString().lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals(100, objectMapper.readTree(lines.get(0)).get("amount").asLong());
+        assertEquals(200, objectMapper.readTree(lines.get(1)).get("amount").asLong());
+    }
+
+    @Test
+    @DisplayName("Should stream the transaction history as CSV")
+    void shouldStreamTransactionHistoryAsCsv() throws Exception {
+        var ledgerId = createLedger("New Ledger");
+        deposit(ledgerId, 100);
+
+        var result = mockMvc.perform(get("/ledgers/" + ledgerId + "/transactions/export")
+                        .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        var lines = result.getResponse().getContentAsString().lines().toList();
+        assertEquals("id,ledgerId,type,amount,occurredAt", lines.get(0));
+        assertEquals(2, lines.size());
+    }
+
+    @Test
+    @DisplayName("Should return 404 when exporting an unknown ledger")
+    void shouldReturn404WhenExportingUnknownLedger() throws Exception {
+        mockMvc.perform(get("/ledgers/" + UUID.randomUUID() + "/transactions/export"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should start streaming transactions as server-sent events")
+    void shouldStartStreamingTransactions() throws Exception {
+        var ledgerId = createLedger("Streamed");
+
+        mockMvc.perform(get("/ledgers/" + ledgerId + "/transactions/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    @DisplayName("Should return 404 when resuming a stream after an unknown event id")
+    void shouldReturn404WhenResumingStreamAfterUnknownEventId() throws Exception {
+        var ledgerId = createLedger("Streamed");
+        deposit(ledgerId, 100);
+
+        mockMvc.perform(get("/ledgers/" + ledgerId + "/transactions/stream")
+                        .header(LedgerController.LAST_EVENT_ID_HEADER, UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should return 400 when importing a file outside of the import directory")
+    void shouldReturn400WhenImportingFileOutsideOfImportDirectory() throws Exception {
+        var request = new CreateImportRequest(ImportFormat.CSV, "../users.csv", null, null);
+        mockMvc.perform(post("/imports")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should return 404 when getting an unknown import")
+    void shouldReturn404WhenGettingUnknownImport() throws Exception {
+        mockMvc.perform(get("/imports/" + UUID.randomUUID())).andExpect(status().isNotFound());
+    }
+
+    private void deposit(UUID ledgerId, long amount) throws Exception {
+        mockMvc.perform(post("/ledgers/" + ledgerId + "/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new CreateTransactionRequest(TransactionType.DEPOSIT, amount))))
+                .andExpect(status().isCreated());
+    }
+
     private UUID createUser(String firstName, String lastName, String emailAddress) {
         try {
             var userRequest = new CreateUserRequest(firstName, lastName, emailAddress);
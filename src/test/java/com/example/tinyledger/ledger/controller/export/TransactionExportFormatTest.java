@@ -0,0 +1,89 @@
+package com.example.tinyledger.ledger.controller.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.tinyledger.ledger.domain.Money;
+import com.example.tinyledger.ledger.domain.Transaction;
+import com.example.tinyledger.ledger.domain.TransactionCodec;
+import com.example.tinyledger.ledger.domain.TransactionType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TransactionExportFormatTest {
+
+    private final Transaction transaction = new Transaction(
+            UUID.fromString("660e8400-e29b-41d4-a716-446655440001"),
+            UUID.fromString("550e8400-e29b-41d4-a716-446655440000"),
+            TransactionType.WITHDRAW,
+            new Money(250L),
+            Instant.parse("2024-01-15T11:45:00Z"));
+
+    @Test
+    @DisplayName("Should write one JSON object per line")
+    void shouldWriteOneJsonObjectPerLine() throws IOException {
+        assertEquals(
+                """
+                {"id":"660e8400-e29b-41d4-a716-446655440001","ledgerId":"550e8400-e29b-41d4-a716-446655440000",\
+                "type":"WITHDRAW","amount":250,"occurredAt":"2024-01-15T11:45:00Z"}
+                {"id":"660e8400-e29b-41d4-a716-446655440001","ledgerId":"550e8400-e29b-41d4-a716-446655440000",\
+                "type":"WITHDRAW","amount":250,"occurredAt":"2024-01-15T11:45:00Z"}
+                """,
+                write(TransactionExportFormat.NDJSON, Stream.of(transaction, transaction)));
+    }
+
+    @Test
+    @DisplayName("Should write a CSV header followed by one row per transaction")
+    void shouldWriteCsvHeaderAndRows() throws IOException {
+        assertEquals(
+                """
+                id,ledgerId,type,amount,occurredAt
+                660e8400-e29b-41d4-a716-446655440001,550e8400-e29b-41d4-a716-446655440000,WITHDRAW,250,2024-01-15T11:45:00Z
+                """,
+                write(TransactionExportFormat.CSV, Stream.of(transaction)));
+    }
+
+    @Test
+    @DisplayName("Should write only the header for an empty history")
+    void shouldWriteOnlyHeaderForEmptyHistory() throws IOException {
+        assertEquals("", write(TransactionExportFormat.NDJSON, Stream.empty()));
+        assertEquals("id,ledgerId,type,amount,occurredAt\n", write(TransactionExportFormat.CSV, Stream.empty()));
+    }
+
+    @Test
+    @DisplayName("Should write the ledger id once followed by the encoded transactions")
+    void shouldWriteBinaryTransactions() throws IOException {
+        var output = new ByteArrayOutputStream();
+        var later = new Transaction(
+                UUID.randomUUID(),
+                transaction.ledgerId(),
+                TransactionType.DEPOSIT,
+                new Money(1_000L),
+                transaction.occurredAt().plusSeconds(1));
+
+        TransactionExportFormat.BINARY.write(Stream.of(transaction, later), output);
+
+        var buffer = ByteBuffer.wrap(output.toByteArray());
+        assertEquals(TransactionExportFormat.BINARY_MAGIC, buffer.getInt());
+        var decoder = new TransactionCodec.Decoder(new UUID(buffer.getLong(), buffer.getLong()));
+        var decoded = new ArrayList<Transaction>();
+        while (buffer.hasRemaining()) {
+            decoded.add(decoder.decode(buffer));
+        }
+        assertEquals(List.of(transaction, later), decoded);
+    }
+
+    private static String write(TransactionExportFormat format, Stream<Transaction> transactions) throws IOException {
+        var output = new ByteArrayOutputStream();
+        format.write(transactions, output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.tinyledger.ledger.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ColumnarTransactionHistoryTest {
+
+    private final UUID ledgerId = UUID.randomUUID();
+
+    @Test
+    @DisplayName("Should materialize the same transactions that were appended")
+    void shouldMaterializeAppendedTransactions() {
+        var history = new ColumnarTransactionHistory(ledgerId);
+        var appended = new ArrayList<Transaction>();
+        for (int i = 0; i < 1000; i++) {
+            var type = i % 3 == 0 ? TransactionType.WITHDRAW : TransactionType.DEPOSIT;
+            var transaction = new Transaction(
+                    UUID.randomUUID(), ledgerId, type, new Money((long) i), Instant.ofEpochSecond(1_700_000_000L + i, i));
+            history.append(transaction);
+            appended.add(transaction);
+        }
+
+        assertEquals(appended, history.toList());
+        assertEquals(appended.getLast(), history.last());
+    }
+
+    @Test
+    @DisplayName("Should keep instants before the epoch")
+    void shouldKeepInstantsBeforeEpoch() {
+        var history = new ColumnarTransactionHistory(ledgerId);
+        var occurredAt = Instant.ofEpochSecond(-1, 999_999_999);
+        history.append(new Transaction(UUID.randomUUID(), ledgerId, TransactionType.DEPOSIT, new Money(1L), occurredAt));
+
+        assertEquals(occurredAt, history.get(0).occurredAt());
+    }
+
+    @Test
+    @DisplayName("Should page the same way as the object history")
+    void shouldPageTheSameWayAsObjectHistory() {
+        var columnar = new ColumnarTransactionHistory(ledgerId);
+        var objects = new ObjectTransactionHistory();
+        for (int i = 0; i < 25; i++) {
+            var transaction =
+                    new Transaction(UUID.randomUUID(), ledgerId, TransactionType.DEPOSIT, new Money((long) i), Instant.now());
+            columnar.append(transaction);
+            objects.append(transaction);
+        }
+
+        for (var order : TransactionOrder.values()) {
+            assertEquals(objects.page(null, 10, order), columnar.page(null, 10, order));
+            assertEquals(objects.page(7, 10, order), columnar.page(7, 10, order));
+        }
+    }
+}
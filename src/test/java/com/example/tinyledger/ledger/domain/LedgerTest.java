@@ -7,12 +7,20 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.example.tinyledger.common.exception.InvalidMoneyOperationException;
+import com.example.tinyledger.common.id.IdGenerator;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -97,6 +105,17 @@ class LedgerTest {
         assertThrows(InvalidMoneyOperationException.class, () -> ledger.withdraw(new Money(1L)));
     }
 
+    @Test
+    @DisplayName("Should reject a deposit that overflows the balance and leave the ledger unchanged")
+    void shouldRejectDepositThatOverflowsBalance() {
+        Ledger ledger = new Ledger("Test Ledger", UUID.randomUUID());
+        ledger.deposit(new Money(Long.MAX_VALUE));
+
+        assertThrows(InvalidMoneyOperationException.class, () -> ledger.deposit(new Money(1L)));
+        assertEquals(Long.MAX_VALUE, ledger.getBalance().amount());
+        assertEquals(1, ledger.getTransactionCount());
+    }
+
     @Test
     @DisplayName("Should record transaction history")
     void shouldRecordTransactionHistory() {
@@ -113,6 +132,130 @@ class LedgerTest {
         assertEquals(TransactionType.DEPOSIT, transactions.get(2).type());
     }
 
+    @Test
+    @DisplayName("Should apply a batch against the running balance")
+    void shouldApplyBatchAgainstRunningBalance() {
+        Ledger ledger = new Ledger("Test Ledger", UUID.randomUUID());
+
+        List<Transaction> transactions = ledger.apply(List.of(
+                new TransactionCommand(TransactionType.DEPOSIT, new Money(100L)),
+                new TransactionCommand(TransactionType.WITHDRAW, new Money(80L)),
+                new TransactionCommand(TransactionType.DEPOSIT, new Money(5L))));
+
+        assertEquals(25L, ledger.getBalance().amount());
+        assertEquals(transactions, ledger.getTransactions());
+    }
+
+    @Test
+    @DisplayName("Should apply nothing when any withdrawal in a batch exceeds the running balance")
+    void shouldApplyNothingWhenBatchOverdraws() {
+        Ledger ledger = new Ledger("Test Ledger", UUID.randomUUID());
+        ledger.deposit(new Money(50L));
+
+        assertThrows(
+                InvalidMoneyOperationException.class,
+                () -> ledger.apply(List.of(
+                        new TransactionCommand(TransactionType.WITHDRAW, new Money(30L)),
+                        new TransactionCommand(TransactionType.WITHDRAW, new Money(30L)))));
+        assertEquals(50L, ledger.getBalance().amount());
+        assertEquals(1, ledger.getTransactions().size());
+    }
+
+    @Test
+    @DisplayName("Should move money between ledgers with a balanced posting")
+    void shouldMoveMoneyBetweenLedgersWithBalancedPosting() {
+        Ledger source = new Ledger("Source", UUID.randomUUID());
+        Ledger first = new Ledger("First", UUID.randomUUID());
+        Ledger second = new Ledger("Second", UUID.randomUUID());
+        source.deposit(new Money(100L));
+
+        List<Transaction> transactions = Ledger.post(
+                List.of(
+                        new PostingLeg(source.getId(), TransactionType.WITHDRAW, new Money(70L)),
+                        new PostingLeg(first.getId(), TransactionType.DEPOSIT, new Money(50L)),
+                        new PostingLeg(second.getId(), TransactionType.DEPOSIT, new Money(20L))),
+                ledgersById(source, first, second));
+
+        assertEquals(3, transactions.size());
+        assertEquals(30L, source.getBalance().amount());
+        assertEquals(50L, first.getBalance().amount());
+        assertEquals(20L, second.getBalance().amount());
+    }
+
+    @Test
+    @DisplayName("Should reject a posting whose debits and credits differ")
+    void shouldRejectUnbalancedPosting() {
+        Ledger source = new Ledger("Source", UUID.randomUUID());
+        Ledger target = new Ledger("Target", UUID.randomUUID());
+        source.deposit(new Money(100L));
+
+        assertThrows(
+                InvalidMoneyOperationException.class,
+                () -> Ledger.post(
+                        List.of(
+                                new PostingLeg(source.getId(), TransactionType.WITHDRAW, new Money(70L)),
+                                new PostingLeg(target.getId(), TransactionType.DEPOSIT, new Money(60L))),
+                        ledgersById(source, target)));
+        assertEquals(100L, source.getBalance().amount());
+        assertEquals(0L, target.getBalance().amount());
+    }
+
+    @Test
+    @DisplayName("Should apply no leg of a posting when one ledger has insufficient funds")
+    void shouldApplyNoLegWhenOneLedgerHasInsufficientFunds() {
+        Ledger rich = new Ledger("Rich", UUID.randomUUID());
+        Ledger poor = new Ledger("Poor", UUID.randomUUID());
+        Ledger target = new Ledger("Target", UUID.randomUUID());
+        rich.deposit(new Money(100L));
+
+        assertThrows(
+                InvalidMoneyOperationException.class,
+                () -> Ledger.post(
+                        List.of(
+                                new PostingLeg(rich.getId(), TransactionType.WITHDRAW, new Money(50L)),
+                                new PostingLeg(poor.getId(), TransactionType.WITHDRAW, new Money(50L)),
+                                new PostingLeg(target.getId(), TransactionType.DEPOSIT, new Money(100L))),
+                        ledgersById(rich, poor, target)));
+        assertEquals(100L, rich.getBalance().amount());
+        assertEquals(1, rich.getTransactions().size());
+        assertTrue(target.getTransactions().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not deadlock when concurrent postings move money in opposite directions")
+    void shouldNotDeadlockOnOppositeConcurrentPostings() throws InterruptedException {
+        Ledger first = new Ledger("First", UUID.randomUUID());
+        Ledger second = new Ledger("Second", UUID.randomUUID());
+        first.deposit(new Money(1_000_000L));
+        second.deposit(new Money(1_000_000L));
+        var ledgers = ledgersById(first, second);
+        int threadCount = 10;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            var from = i % 2 == 0 ? first : second;
+            var to = i % 2 == 0 ? second : first;
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < 1000; j++) {
+                        Ledger.post(
+                                List.of(
+                                        new PostingLeg(from.getId(), TransactionType.WITHDRAW, new Money(1L)),
+                                        new PostingLeg(to.getId(), TransactionType.DEPOSIT, new Money(1L))),
+                                ledgers);
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS), "All threads should complete within timeout");
+        executor.shutdown();
+        assertEquals(2_000_000L, first.getBalance().amount() + second.getBalance().amount());
+    }
+
     @Test
     @DisplayName("Should handle multiple deposits and withdrawals correctly")
     void shouldHandleMultipleDepositsAndWithdrawalsCorrectly() {
@@ -262,4 +405,148 @@ class LedgerTest {
         // Balance should be consistent (initial + deposits - successful withdrawals)
         assertTrue(ledger.getBalance().amount() >= 0L, "Balance should never be negative");
     }
+
+    @Test
+    @DisplayName("Should keep the balance consistent for deposits from virtual threads blocking in a listener")
+    void shouldKeepBalanceConsistentForDepositsFromVirtualThreads() throws InterruptedException {
+        Ledger ledger = new Ledger("Test Ledger", UUID.randomUUID());
+        ledger.addTransactionListener(transaction -> {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1_000; i++) {
+                executor.submit(() -> ledger.deposit(new Money(1L)));
+            }
+        }
+
+        assertEquals(1_000L, ledger.getBalance().amount());
+        assertEquals(1_000, ledger.getTransactionCount());
+    }
+
+    @Test
+    @DisplayName("Should import transactions with their ids and timestamps and skip rejected ones")
+    void shouldImportTransactionsAndSkipRejectedOnes() {
+        Ledger ledger = new Ledger("Test Ledger", UUID.randomUUID());
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        Transaction deposit = new Transaction(
+                UUID.randomUUID(), ledger.getId(), TransactionType.DEPOSIT, new Money(100L), start);
+        Transaction overdraft = new Transaction(
+                UUID.randomUUID(), ledger.getId(), TransactionType.WITHDRAW, new Money(500L), start.plusSeconds(1));
+        Transaction older = new Transaction(
+                UUID.randomUUID(), ledger.getId(), TransactionType.DEPOSIT, new Money(1L), start.minusSeconds(1));
+        Transaction withdrawal = new Transaction(
+                UUID.randomUUID(), ledger.getId(), TransactionType.WITHDRAW, new Money(40L), start.plusSeconds(2));
+        List<Transaction> rejected = new ArrayList<>();
+
+        int imported = ledger.importTransactions(
+                List.of(deposit, overdraft, older, withdrawal), (transaction, e) -> rejected.add(transaction));
+
+        assertEquals(2, imported);
+        assertEquals(List.of(overdraft, older), rejected);
+        assertEquals(List.of(deposit, withdrawal), ledger.getTransactions());
+        assertEquals(60L, ledger.getBalance().amount());
+    }
+
+    @Test
+    @DisplayName("Should return the balance as of any instant across checkpoint boundaries")
+    void shouldReturnBalanceAsOfInstant() {
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        for (HistoryStorage historyStorage : HistoryStorage.values()) {
+            Ledger ledger = new Ledger("Test Ledger", UUID.randomUUID(), historyStorage);
+            ledger.importTransactions(transactionsOnePerSecond(ledger.getId(), start, 200), (transaction, e) -> {});
+
+            long expected = 0;
+            assertEquals(0L, ledger.getBalance(start.minusNanos(1)).amount());
+            for (int i = 0; i < 200; i++) {
+                expected += i % 3 == 2 ? -1 : 1;
+                assertEquals(expected, ledger.getBalance(start.plusSeconds(i)).amount());
+                assertEquals(expected, ledger.getBalance(start.plusSeconds(i).plusMillis(500)).amount());
+            }
+            assertEquals(ledger.getBalance(), ledger.getBalance(Instant.MAX));
+        }
+    }
+
+    @Test
+    @DisplayName("Should rebuild balance checkpoints when restoring a ledger from its history")
+    void shouldRebuildCheckpointsWhenRestoring() {
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        Ledger ledger = new Ledger("Test Ledger", UUID.randomUUID());
+        ledger.importTransactions(transactionsOnePerSecond(ledger.getId(), start, 150), (transaction, e) -> {});
+        TransactionHistory history = HistoryStorage.OBJECTS.create(ledger.getId());
+        ledger.getTransactions().forEach(history::append);
+
+        Ledger restored = Ledger.restore(
+                ledger.getId(),
+                ledger.getUserId(),
+                ledger.getName(),
+                ledger.getBalance(),
+                history,
+                IdGenerator.RANDOM);
+
+        for (int i = 0; i < 150; i++) {
+            assertEquals(ledger.getBalance(start.plusSeconds(i)), restored.getBalance(start.plusSeconds(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should find the position after any transaction of a long history")
+    void shouldFindPositionAfterTransactionOfLongHistory() {
+        Ledger ledger = new Ledger("Test Ledger", UUID.randomUUID());
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            transactions.addAll(ledger.apply(Collections.nCopies(
+                    10_000, new TransactionCommand(TransactionType.DEPOSIT, new Money(1L)))));
+        }
+        for (int i = 0; i < 100; i++) {
+            transactions.add(ledger.deposit(new Money(1L)));
+        }
+        Transaction imported = new Transaction(
+                UUID.randomUUID(), ledger.getId(), TransactionType.DEPOSIT, new Money(1L), Instant.now());
+        ledger.importTransactions(List.of(imported), (transaction, e) -> {});
+
+        for (int i = 0; i < transactions.size(); i += 997) {
+            assertEquals(i + 1, ledger.getPositionAfter(transactions.get(i).id()));
+        }
+        assertEquals(transactions.size(), ledger.getPositionAfter(transactions.getLast().id()));
+        assertEquals(transactions.size() + 1, ledger.getPositionAfter(imported.id()));
+        assertEquals(-1, ledger.getPositionAfter(UUID.randomUUID()));
+        assertEquals(-1, ledger.getPositionAfter(IdGenerator.timeOrdered().nextId()));
+    }
+
+    @Test
+    @DisplayName("Should call every appended listener until it is removed")
+    void shouldCallEveryAppendedListenerUntilRemoved() {
+        Ledger ledger = new Ledger("Test Ledger", UUID.randomUUID());
+        List<Transaction> first = new ArrayList<>();
+        List<Transaction> second = new ArrayList<>();
+        TransactionAppendedListener firstListener = first::add;
+        ledger.addAppendedListener(firstListener);
+        ledger.addAppendedListener(second::add);
+
+        Transaction deposit = ledger.deposit(new Money(100L));
+        ledger.removeAppendedListener(firstListener);
+        Transaction withdrawal = ledger.withdraw(new Money(40L));
+
+        assertEquals(List.of(deposit), first);
+        assertEquals(List.of(deposit, withdrawal), second);
+    }
+
+    // Two deposits of 1 then a withdrawal of 1, repeating, one second apart.
+    private static List<Transaction> transactionsOnePerSecond(UUID ledgerId, Instant start, int count) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            TransactionType type = i % 3 == 2 ? TransactionType.WITHDRAW : TransactionType.DEPOSIT;
+            transactions.add(new Transaction(UUID.randomUUID(), ledgerId, type, new Money(1L), start.plusSeconds(i)));
+        }
+        return transactions;
+    }
+
+    private static Map<UUID, Ledger> ledgersById(Ledger... ledgers) {
+        return Arrays.stream(ledgers).collect(Collectors.toMap(Ledger::getId, Function.identity()));
+    }
 }
@@ -32,9 +32,13 @@ class MoneyTest {
     }
 
     @Test
-    @DisplayName("Should throw exception for null amount")
-    void shouldThrowExceptionForNullAmount() {
-        assertThrows(InvalidMoneyOperationException.class, () -> new Money(null));
+    @DisplayName("Should throw exception when addition overflows")
+    void shouldThrowExceptionWhenAdditionOverflows() {
+        Money large = new Money(Long.MAX_VALUE);
+        Money small = new Money(1L);
+
+        assertThrows(InvalidMoneyOperationException.class, () -> large.add(small));
+        assertThrows(InvalidMoneyOperationException.class, () -> Money.add(Long.MAX_VALUE, 1L));
     }
 
     @Test
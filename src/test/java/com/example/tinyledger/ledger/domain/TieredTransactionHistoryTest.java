@@ -0,0 +1,176 @@
+package com.example.tinyledger.ledger.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TieredTransactionHistoryTest {
+
+    private final UUID ledgerId = UUID.randomUUID();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should read and page the same transactions across the hot and sealed tiers")
+    void shouldReadAcrossTiers() throws InterruptedException {
+        try (var storage = new TieredHistoryStorage(HistoryStorage.COLUMNAR, directory, 1000, 500)) {
+            var tiered = (TieredTransactionHistory) storage.create(ledgerId);
+            var objects = new ObjectTransactionHistory();
+            for (int i = 0; i < 5_250; i++) {
+                var transaction = transaction(i);
+                tiered.append(transaction);
+                objects.append(transaction);
+            }
+
+            awaitSealed(tiered, 3_500);
+            assertEquals(objects.toList(), tiered.toList());
+            for (var order : TransactionOrder.values()) {
+                assertEquals(objects.page(null, 700, order), tiered.page(null, 700, order));
+                assertEquals(objects.page(3_400, 700, order), tiered.page(3_400, 700, order));
+            }
+            var asOf = objects.get(1_234).occurredAt();
+            assertEquals(objects.countOccurredAtOrBefore(asOf), tiered.countOccurredAtOrBefore(asOf));
+        }
+    }
+
+    @Test
+    @DisplayName("Should retain heap for the hot window only")
+    void shouldRetainHeapForHotWindowOnly() throws InterruptedException {
+        try (var storage = new TieredHistoryStorage(HistoryStorage.OBJECTS, directory, 1024, 1024)) {
+            var tiered = (TieredTransactionHistory) storage.create(ledgerId);
+            var objects = new ObjectTransactionHistory();
+            for (int i = 0; i < 64 * 1024; i++) {
+                var transaction = transaction(i);
+                tiered.append(transaction);
+                objects.append(transaction);
+            }
+
+            awaitSealed(tiered, 62 * 1024);
+            assertTrue(tiered.estimatedBytes() * 20 < objects.estimatedBytes());
+            assertTrue(tiered.sealedBytes() < 62 * 1024 * 41);
+        }
+    }
+
+    @Test
+    @DisplayName("Should let readers see every appended transaction while chunks are sealed")
+    void shouldLetReadersSeeEveryTransactionWhileSealing() throws InterruptedException {
+        try (var storage = new TieredHistoryStorage(HistoryStorage.OBJECTS, directory, 0, 256)) {
+            var tiered = storage.create(ledgerId);
+            var done = new AtomicBoolean();
+            var failure = new AtomicReference<Throwable>();
+            var reader = Thread.ofPlatform().start(() -> {
+                try {
+                    while (!done.get()) {
+                        var size = tiered.size();
+                        for (int i = Math.max(0, size - 600); i < size; i++) {
+                            assertEquals(i, tiered.get(i).amount().amount());
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            for (int i = 0; i < 50_000; i++) {
+                tiered.append(transaction(i));
+            }
+            done.set(true);
+            reader.join();
+
+            assertNull(failure.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Should pack the segments of every ledger into a few shared files")
+    void shouldPackSegmentsIntoSharedFiles() throws InterruptedException, IOException {
+        try (var storage = new TieredHistoryStorage(HistoryStorage.OBJECTS, directory, 0, 256, 64 * 1024)) {
+            var first = (TieredTransactionHistory) storage.create(ledgerId);
+            var second = (TieredTransactionHistory) storage.create(UUID.randomUUID());
+            var objects = new ObjectTransactionHistory();
+            for (int i = 0; i < 20_000; i++) {
+                var transaction = transaction(i);
+                first.append(transaction);
+                second.append(transaction(i));
+                objects.append(transaction);
+            }
+
+            awaitSealed(first, 19_712);
+            awaitSealed(second, 19_712);
+            assertEquals(objects.toList(), first.toList());
+            try (var files = Files.list(directory)) {
+                var fileCount = files.count();
+                // About 156 segments of a few KB each in files of 64 KB
+                assertTrue(fileCount > 1 && fileCount < 20, "Segments should share files but got " + fileCount);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should count by time and by id timestamp across blocks and tiers")
+    void shouldCountByTimeAndIdTimestampAcrossBlocksAndTiers() throws InterruptedException {
+        try (var storage = new TieredHistoryStorage(HistoryStorage.COLUMNAR, directory, 1000, 500)) {
+            var tiered = (TieredTransactionHistory) storage.create(ledgerId);
+            var objects = new ObjectTransactionHistory();
+            for (int i = 0; i < 5_250; i++) {
+                // Three transactions per millisecond and per second, so equal keys straddle block boundaries
+                var millis = 1_700_000_000_000L + i / 3;
+                var id = new UUID((millis << 16) | 0x7000 | (i % 3), ThreadLocalRandom.current().nextLong());
+                var occurredAt = Instant.ofEpochSecond(1_700_000_000L + i / 3);
+                var transaction = new Transaction(id, ledgerId, TransactionType.DEPOSIT, new Money(1L), occurredAt);
+                tiered.append(transaction);
+                objects.append(transaction);
+            }
+
+            awaitSealed(tiered, 3_500);
+            for (int i = -3; i < 5_256; i++) {
+                var millis = 1_700_000_000_000L + i / 3;
+                var asOf = Instant.ofEpochSecond(1_700_000_000L + i / 3);
+                assertEquals(objects.countGeneratedBefore(millis), tiered.countGeneratedBefore(millis));
+                assertEquals(objects.countOccurredAtOrBefore(asOf), tiered.countOccurredAtOrBefore(asOf));
+            }
+            assertEquals(5_250, tiered.countOccurredAtOrBefore(Instant.MAX));
+            assertEquals(0, tiered.countOccurredAtOrBefore(Instant.MIN));
+        }
+    }
+
+    @Test
+    @DisplayName("Should delete segment files left over from a previous run")
+    void shouldDeleteLeftOverSegmentFiles() throws IOException {
+        var leftOver = Files.writeString(directory.resolve(UUID.randomUUID() + "-0.segment"), "stale");
+        var unrelated = Files.writeString(directory.resolve("notes.txt"), "kept");
+
+        new TieredHistoryStorage(HistoryStorage.OBJECTS, directory, 1024, 1024).close();
+
+        assertFalse(Files.exists(leftOver));
+        assertTrue(Files.exists(unrelated));
+    }
+
+    private Transaction transaction(long amount) {
+        var type = amount % 3 == 0 ? TransactionType.WITHDRAW : TransactionType.DEPOSIT;
+        var occurredAt = Instant.ofEpochSecond(1_700_000_000L + amount, 7);
+        return new Transaction(UUID.randomUUID(), ledgerId, type, new Money(amount), occurredAt);
+    }
+
+    private static void awaitSealed(TieredTransactionHistory history, int count) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (history.sealedCount() < count) {
+            assertTrue(System.nanoTime() < deadline, "Chunks should be sealed within timeout");
+            Thread.sleep(5);
+        }
+    }
+}
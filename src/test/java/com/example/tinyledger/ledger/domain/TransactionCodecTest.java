@@ -0,0 +1,104 @@
+package com.example.tinyledger.ledger.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.tinyledger.common.id.IdGenerator;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TransactionCodecTest {
+
+    private final UUID ledgerId = UUID.randomUUID();
+
+    @Test
+    @DisplayName("Should decode the same transactions that were encoded")
+    void shouldDecodeEncodedTransactions() {
+        var transactions = List.of(
+                transaction(UUID.randomUUID(), TransactionType.DEPOSIT, 0L, Instant.ofEpochSecond(-1, 999_999_999)),
+                transaction(UUID.randomUUID(), TransactionType.WITHDRAW, Long.MAX_VALUE, Instant.EPOCH),
+                transaction(new UUID(-1L, -1L), TransactionType.DEPOSIT, 1L, Instant.parse("2262-04-11T00:00:00Z")),
+                transaction(new UUID(0L, 0L), TransactionType.WITHDRAW, 42L, Instant.parse("1677-09-22T00:00:00Z")),
+                transaction(UUID.randomUUID(), TransactionType.DEPOSIT, 7L, Instant.parse("2024-01-15T11:45:00Z")));
+
+        assertEquals(transactions, roundTrip(transactions));
+    }
+
+    @Test
+    @DisplayName("Should decode into primitive columns")
+    void shouldDecodeIntoPrimitiveColumns() {
+        var transaction = transaction(UUID.randomUUID(), TransactionType.WITHDRAW, 250L, Instant.ofEpochSecond(5, 6));
+        var buffer = ByteBuffer.allocate(TransactionCodec.MAX_RECORD_BYTES);
+        new TransactionCodec.Encoder().encode(transaction, buffer);
+        var decoded = new ArrayList<Object>();
+
+        TransactionCodec.Sink sink = (mostSignificantBits, leastSignificantBits, type, amount, epochNanos) ->
+                decoded.addAll(List.of(new UUID(mostSignificantBits, leastSignificantBits), type, amount, epochNanos));
+
+        new TransactionCodec.Decoder(ledgerId).decode(buffer.flip(), sink);
+
+        assertEquals(List.of(transaction.id(), TransactionType.WITHDRAW, 250L, 5_000_000_006L), decoded);
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Should encode time-ordered transactions at a steady rate in a fraction of their fixed size")
+    void shouldEncodeSteadyRunsCompactly() {
+        var ids = IdGenerator.timeOrdered();
+        var transactions = new ArrayList<Transaction>();
+        for (int i = 0; i < 1_000; i++) {
+            var occurredAt = Instant.parse("2024-01-15T00:00:00Z").plusMillis(250L * i);
+            transactions.add(transaction(ids.nextId(), TransactionType.DEPOSIT, 1_000L + i, occurredAt));
+        }
+        var buffer = ByteBuffer.allocate(transactions.size() * TransactionCodec.MAX_RECORD_BYTES);
+        var encoder = new TransactionCodec.Encoder();
+        transactions.forEach(transaction -> encoder.encode(transaction, buffer));
+
+        // id (16), ledger id (16), amount (8), epoch seconds and nanos (12) and type (1) take 53 bytes unencoded
+        assertTrue(buffer.position() < transactions.size() * 16, "Encoded " + buffer.position() + " bytes");
+        assertEquals(transactions, decode(buffer.flip(), transactions.size()));
+    }
+
+    @Test
+    @DisplayName("Should encode a new run after a reset")
+    void shouldEncodeNewRunAfterReset() {
+        var first = List.of(transaction(UUID.randomUUID(), TransactionType.DEPOSIT, 1L, Instant.ofEpochSecond(100)));
+        var second = List.of(transaction(UUID.randomUUID(), TransactionType.DEPOSIT, 2L, Instant.ofEpochSecond(5)));
+        var encoder = new TransactionCodec.Encoder();
+        var buffer = ByteBuffer.allocate(2 * TransactionCodec.MAX_RECORD_BYTES);
+
+        encoder.encode(first.getFirst(), buffer);
+        var secondRunStart = buffer.position();
+        encoder.reset();
+        encoder.encode(second.getFirst(), buffer);
+
+        assertEquals(second, decode(buffer.flip().position(secondRunStart), 1));
+    }
+
+    private List<Transaction> roundTrip(List<Transaction> transactions) {
+        var buffer = ByteBuffer.allocate(transactions.size() * TransactionCodec.MAX_RECORD_BYTES);
+        var encoder = new TransactionCodec.Encoder();
+        transactions.forEach(transaction -> encoder.encode(transaction, buffer));
+        return decode(buffer.flip(), transactions.size());
+    }
+
+    private List<Transaction> decode(ByteBuffer buffer, int count) {
+        var decoder = new TransactionCodec.Decoder(ledgerId);
+        var decoded = new ArrayList<Transaction>();
+        for (int i = 0; i < count; i++) {
+            decoded.add(decoder.decode(buffer));
+        }
+        assertFalse(buffer.hasRemaining());
+        return decoded;
+    }
+
+    private Transaction transaction(UUID id, TransactionType type, long amount, Instant occurredAt) {
+        return new Transaction(id, ledgerId, type, new Money(amount), occurredAt);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.tinyledger.ledger.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.tinyledger.common.exception.InvalidPageRequestException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TransactionHistoryTest {
+
+    private final UUID ledgerId = UUID.randomUUID();
+
+    @Test
+    @DisplayName("Should page oldest first until the end of the history")
+    void shouldPageOldestFirst() {
+        var history = historyWithAmounts(1, 2, 3, 4, 5);
+
+        var first = history.page(null, 2, TransactionOrder.OLDEST_FIRST);
+        var second = history.page(first.nextPosition(), 2, TransactionOrder.OLDEST_FIRST);
+        var third = history.page(second.nextPosition(), 2, TransactionOrder.OLDEST_FIRST);
+
+        assertEquals(List.of(1L, 2L), amounts(first));
+        assertEquals(List.of(3L, 4L), amounts(second));
+        assertEquals(List.of(5L), amounts(third));
+        assertNull(third.nextPosition());
+    }
+
+    @Test
+    @DisplayName("Should page newest first until the start of the history")
+    void shouldPageNewestFirst() {
+        var history = historyWithAmounts(1, 2, 3, 4, 5);
+
+        var first = history.page(null, 2, TransactionOrder.NEWEST_FIRST);
+        var second = history.page(first.nextPosition(), 2, TransactionOrder.NEWEST_FIRST);
+        var third = history.page(second.nextPosition(), 2, TransactionOrder.NEWEST_FIRST);
+
+        assertEquals(List.of(5L, 4L), amounts(first));
+        assertEquals(List.of(3L, 2L), amounts(second));
+        assertEquals(List.of(1L), amounts(third));
+        assertNull(third.nextPosition());
+    }
+
+    @Test
+    @DisplayName("Should keep newest-first cursors stable while transactions are appended")
+    void shouldKeepNewestFirstCursorsStableWhileAppending() {
+        var history = historyWithAmounts(1, 2, 3);
+
+        var first = history.page(null, 2, TransactionOrder.NEWEST_FIRST);
+        history.append(transaction(4));
+        var second = history.page(first.nextPosition(), 2, TransactionOrder.NEWEST_FIRST);
+
+        assertEquals(List.of(3L, 2L), amounts(first));
+        assertEquals(List.of(1L), amounts(second));
+    }
+
+    @Test
+    @DisplayName("Should reject positions outside of the history")
+    void shouldRejectPositionsOutsideOfHistory() {
+        var history = historyWithAmounts(1, 2);
+
+        assertThrows(
+                InvalidPageRequestException.class, () -> history.page(3, 10, TransactionOrder.OLDEST_FIRST));
+        assertThrows(
+                InvalidPageRequestException.class, () -> history.page(-1, 10, TransactionOrder.NEWEST_FIRST));
+    }
+
+    @Test
+    @DisplayName("Should let readers scan without locking while a writer appends")
+    void shouldLetReadersScanWhileWriterAppends() throws InterruptedException {
+        var history = new ObjectTransactionHistory();
+        var done = new AtomicBoolean();
+        var failure = new AtomicReference<String>();
+
+        var reader = new Thread(() -> {
+            while (!done.get()) {
+                var transactions = history.toList();
+                for (int i = 0; i < transactions.size(); i++) {
+                    if (transactions.get(i).amount().amount() != i + 1) {
+                        failure.set("Unexpected amount at index %d".formatted(i));
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (int i = 1; i <= 100_000; i++) {
+            history.append(transaction(i));
+        }
+        done.set(true);
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(100_000, history.size());
+    }
+
+    private TransactionHistory historyWithAmounts(long... amounts) {
+        var history = new ObjectTransactionHistory();
+        for (var amount : amounts) {
+            history.append(transaction(amount));
+        }
+        return history;
+    }
+
+    private Transaction transaction(long amount) {
+        return new Transaction(
+                UUID.randomUUID(), ledgerId, TransactionType.DEPOSIT, new Money(amount), Instant.now());
+    }
+
+    private static List<Long> amounts(TransactionPage page) {
+        var amounts = new ArrayList<Long>();
+        page.transactions().forEach(transaction -> amounts.add(transaction.amount().amount()));
+        return amounts;
+    }
+}
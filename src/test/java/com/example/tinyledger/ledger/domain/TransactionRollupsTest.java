@@ -0,0 +1,107 @@
+package com.example.tinyledger.ledger.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TransactionRollupsTest {
+
+    private final UUID ledgerId = UUID.randomUUID();
+
+    @Test
+    @DisplayName("Should total deposits and withdrawals per hour, day and month")
+    void shouldTotalPerBucket() {
+        var rollups = new TransactionRollups();
+        rollups.onAppend(transaction(TransactionType.DEPOSIT, 100, "2024-01-31T23:10:00Z"));
+        rollups.onAppend(transaction(TransactionType.WITHDRAW, 30, "2024-01-31T23:50:00Z"));
+        rollups.onAppend(transaction(TransactionType.DEPOSIT, 5, "2024-02-01T00:00:00Z"));
+        rollups.onAppend(transaction(TransactionType.DEPOSIT, 7, "2024-02-01T09:30:00Z"));
+
+        assertEquals(
+                List.of(
+                        new RollupBucket(Instant.parse("2024-01-31T23:00:00Z"), 100, 1, 30, 1),
+                        new RollupBucket(Instant.parse("2024-02-01T00:00:00Z"), 5, 1, 0, 0),
+                        new RollupBucket(Instant.parse("2024-02-01T09:00:00Z"), 7, 1, 0, 0)),
+                rollups.get(RollupGranularity.HOUR, null, null));
+        assertEquals(
+                List.of(
+                        new RollupBucket(Instant.parse("2024-01-31T00:00:00Z"), 100, 1, 30, 1),
+                        new RollupBucket(Instant.parse("2024-02-01T00:00:00Z"), 12, 2, 0, 0)),
+                rollups.get(RollupGranularity.DAY, null, null));
+        assertEquals(
+                List.of(
+                        new RollupBucket(Instant.parse("2024-01-01T00:00:00Z"), 100, 1, 30, 1),
+                        new RollupBucket(Instant.parse("2024-02-01T00:00:00Z"), 12, 2, 0, 0)),
+                rollups.get(RollupGranularity.MONTH, null, null));
+    }
+
+    @Test
+    @DisplayName("Should return the buckets overlapping the requested range")
+    void shouldReturnBucketsOverlappingRange() {
+        var rollups = new TransactionRollups();
+        for (int day = 1; day <= 5; day++) {
+            rollups.onAppend(transaction(TransactionType.DEPOSIT, day, "2024-03-0" + day + "T12:00:00Z"));
+        }
+
+        var buckets = rollups.get(
+                RollupGranularity.DAY, Instant.parse("2024-03-02T18:00:00Z"), Instant.parse("2024-03-04T00:00:00Z"));
+
+        assertEquals(List.of(2L, 3L), buckets.stream().map(RollupBucket::depositTotal).toList());
+        assertTrue(rollups.get(RollupGranularity.DAY, Instant.parse("2024-04-01T00:00:00Z"), null)
+                .isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should saturate totals that would overflow")
+    void shouldSaturateTotalsThatWouldOverflow() {
+        var rollups = new TransactionRollups();
+        rollups.onAppend(transaction(TransactionType.DEPOSIT, Long.MAX_VALUE, "2024-01-01T00:00:00Z"));
+        rollups.onAppend(transaction(TransactionType.WITHDRAW, Long.MAX_VALUE, "2024-01-01T00:10:00Z"));
+        rollups.onAppend(transaction(TransactionType.DEPOSIT, 5, "2024-01-01T00:20:00Z"));
+
+        var bucket = rollups.get(RollupGranularity.HOUR, null, null).getFirst();
+
+        assertEquals(
+                new RollupBucket(Instant.parse("2024-01-01T00:00:00Z"), Long.MAX_VALUE, 2, Long.MAX_VALUE, 1), bucket);
+        assertTrue(bucket.saturated());
+    }
+
+    @Test
+    @DisplayName("Should never expose a partly updated bucket to concurrent readers")
+    void shouldNeverExposePartlyUpdatedBucket() throws InterruptedException {
+        var rollups = new TransactionRollups();
+        var start = Instant.parse("2024-01-01T00:00:00Z");
+        var done = new AtomicBoolean();
+        var torn = new AtomicInteger();
+        var reader = Thread.ofPlatform().start(() -> {
+            while (!done.get()) {
+                for (var bucket : rollups.get(RollupGranularity.HOUR, null, null)) {
+                    if (bucket.depositTotal() != 3L * bucket.depositCount()) {
+                        torn.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        for (int i = 0; i < 200_000; i++) {
+            rollups.onAppend(new Transaction(
+                    UUID.randomUUID(), ledgerId, TransactionType.DEPOSIT, new Money(3L), start.plusSeconds(i)));
+        }
+        done.set(true);
+        reader.join();
+
+        assertEquals(0, torn.get());
+        assertEquals(200_000L, rollups.get(RollupGranularity.MONTH, null, null).getFirst().depositCount());
+    }
+
+    private Transaction transaction(TransactionType type, long amount, String occurredAt) {
+        return new Transaction(UUID.randomUUID(), ledgerId, type, new Money(amount), Instant.parse(occurredAt));
+    }
+}
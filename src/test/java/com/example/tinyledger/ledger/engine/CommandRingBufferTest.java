@@ -0,0 +1,90 @@
+package com.example.tinyledger.ledger.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CommandRingBufferTest {
+
+    @Test
+    @DisplayName("Should return elements in order and report when full")
+    void shouldReturnElementsInOrderAndReportWhenFull() {
+        var ring = new CommandRingBuffer<Integer>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+
+        assertFalse(ring.offer(4));
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(4));
+        assertEquals(List.of(1, 2, 3, 4), drain(ring));
+        assertNull(ring.poll());
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject a capacity that is not a power of two")
+    void shouldRejectCapacityThatIsNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new CommandRingBuffer<Integer>(6));
+    }
+
+    @Test
+    @DisplayName("Should deliver every element offered by concurrent producers exactly once")
+    void shouldDeliverEveryElementFromConcurrentProducersOnce() throws InterruptedException {
+        var ring = new CommandRingBuffer<Integer>(64);
+        int producerCount = 4;
+        int elementsPerProducer = 50_000;
+        var start = new CountDownLatch(1);
+        var producers = new ArrayList<Thread>();
+        for (int p = 0; p < producerCount; p++) {
+            var offset = p * elementsPerProducer;
+            producers.add(Thread.ofPlatform().start(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < elementsPerProducer; i++) {
+                    while (!ring.offer(offset + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+
+        start.countDown();
+        var received = new HashSet<Integer>();
+        while (received.size() < producerCount * elementsPerProducer) {
+            var element = ring.poll();
+            if (element != null) {
+                assertTrue(received.add(element), "Element delivered twice: " + element);
+            }
+        }
+        for (var producer : producers) {
+            producer.join();
+        }
+
+        assertTrue(ring.isEmpty());
+    }
+
+    private static List<Integer> drain(CommandRingBuffer<Integer> ring) {
+        var elements = new ArrayList<Integer>();
+        for (var element = ring.poll(); element != null; element = ring.poll()) {
+            elements.add(element);
+        }
+        return elements;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
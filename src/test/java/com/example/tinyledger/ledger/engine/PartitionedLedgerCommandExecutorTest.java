@@ -0,0 +1,90 @@
+package com.example.tinyledger.ledger.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.tinyledger.common.exception.CommandRejectedException;
+import com.example.tinyledger.common.exception.InvalidMoneyOperationException;
+import com.example.tinyledger.ledger.domain.Ledger;
+import com.example.tinyledger.ledger.domain.Money;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PartitionedLedgerCommandExecutorTest {
+
+    private final PartitionedLedgerCommandExecutor executor =
+            new PartitionedLedgerCommandExecutor(new LedgerEngineProperties(true, 2, 1024));
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.close();
+    }
+
+    @Test
+    @DisplayName("Should apply concurrent commands for the same ledger on its partition")
+    void shouldApplyConcurrentCommandsForSameLedger() throws InterruptedException {
+        var ledger = new Ledger("Hot", UUID.randomUUID());
+        int threadCount = 8;
+        int depositsPerThread = 1000;
+
+        ExecutorService callers = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            callers.submit(() -> {
+                try {
+                    for (int j = 0; j < depositsPerThread; j++) {
+                        executor.execute(ledger.getId(), () -> ledger.deposit(new Money(1L)));
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS), "All threads should complete within timeout");
+        callers.shutdown();
+        assertEquals((long) threadCount * depositsPerThread, ledger.getBalance().amount());
+        assertEquals(threadCount * depositsPerThread, ledger.getTransactionCount());
+    }
+
+    @Test
+    @DisplayName("Should rethrow the exception raised by a command")
+    void shouldRethrowExceptionRaisedByCommand() {
+        var ledger = new Ledger("Empty", UUID.randomUUID());
+
+        assertThrows(
+                InvalidMoneyOperationException.class,
+                () -> executor.execute(ledger.getId(), () -> ledger.withdraw(new Money(1L))));
+    }
+
+    @Test
+    @DisplayName("Should fail the command's future with an error it raised and keep running its partition")
+    void shouldFailFutureWithErrorAndKeepPartitionRunning() {
+        var ledgerId = UUID.randomUUID();
+
+        var failed = executor.submit(ledgerId, () -> {
+            throw new StackOverflowError();
+        });
+
+        var exception = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(StackOverflowError.class, exception.getCause());
+        assertEquals(1, executor.submit(ledgerId, () -> 1).join());
+    }
+
+    @Test
+    @DisplayName("Should reject commands once the engine is closed")
+    void shouldRejectCommandsOnceClosed() throws InterruptedException {
+        executor.close();
+
+        assertThrows(CommandRejectedException.class, () -> executor.execute(UUID.randomUUID(), () -> 1));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.tinyledger.ledger.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.tinyledger.common.exception.InvalidMoneyOperationException;
+import com.example.tinyledger.ledger.domain.Ledger;
+import com.example.tinyledger.ledger.domain.Money;
+import com.example.tinyledger.ledger.domain.PostingLeg;
+import com.example.tinyledger.ledger.domain.TransactionType;
+import com.example.tinyledger.ledger.repository.LedgerInMemoryRepository;
+import com.example.tinyledger.user.repository.UserInMemoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LedgerMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LedgerMetrics metrics = new LedgerMetrics(registry);
+    private final LedgerInMemoryRepository repository = new LedgerInMemoryRepository(metrics);
+
+    @Test
+    @DisplayName("Should time lock wait and hold per operation for saved ledgers")
+    void shouldTimeLockWaitAndHoldPerOperation() {
+        var first = repository.save(new Ledger("First", UUID.randomUUID()));
+        var second = repository.save(new Ledger("Second", UUID.randomUUID()));
+
+        first.deposit(new Money(100L));
+        first.deposit(new Money(100L));
+        Ledger.post(
+                List.of(
+                        new PostingLeg(first.getId(), TransactionType.WITHDRAW, new Money(50L)),
+                        new PostingLeg(second.getId(), TransactionType.DEPOSIT, new Money(50L))),
+                Map.of(first.getId(), first, second.getId(), second));
+
+        var depositHold = lockTimer("ledger.lock.hold", "deposit");
+        assertEquals(2, depositHold.count());
+        assertTrue(depositHold.totalTime(TimeUnit.NANOSECONDS) > 0);
+        assertEquals(2, lockTimer("ledger.lock.wait", "deposit").count());
+        assertEquals(2, lockTimer("ledger.lock.hold", "post").count());
+    }
+
+    @Test
+    @DisplayName("Should count recorded transactions by type but not rejected ones")
+    void shouldCountRecordedTransactionsByType() {
+        var ledger = repository.save(new Ledger("Ledger", UUID.randomUUID()));
+
+        ledger.deposit(new Money(100L));
+        ledger.withdraw(new Money(30L));
+        assertThrows(InvalidMoneyOperationException.class, () -> ledger.withdraw(new Money(1_000L)));
+
+        assertEquals(1.0, transactionCounter("deposit").count());
+        assertEquals(1.0, transactionCounter("withdraw").count());
+        assertEquals(2, lockTimer("ledger.lock.hold", "withdraw").count());
+    }
+
+    @Test
+    @DisplayName("Should report store sizes when gauges are read")
+    void shouldReportStoreSizes() {
+        new StoreMetrics(repository, new UserInMemoryRepository()).bindTo(registry);
+        var ledger = repository.save(new Ledger("Ledger", UUID.randomUUID()));
+        ledger.deposit(new Money(100L));
+        ledger.deposit(new Money(100L));
+
+        assertEquals(1.0, registry.find("ledger.store.ledgers").gauge().value());
+        assertEquals(0.0, registry.find("ledger.store.users").gauge().value());
+        assertEquals(2.0, registry.find("ledger.store.transactions").gauge().value());
+        assertTrue(registry.find("ledger.store.history.heap").gauge().value() > 0);
+    }
+
+    private Timer lockTimer(String name, String operation) {
+        return registry.find(name).tag("operation", operation).timer();
+    }
+
+    private Counter transactionCounter(String type) {
+        return registry.find("ledger.transactions").tag("type", type).counter();
+    }
+}
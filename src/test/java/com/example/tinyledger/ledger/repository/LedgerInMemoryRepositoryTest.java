@@ -0,0 +1,120 @@
+package com.example.tinyledger.ledger.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.tinyledger.common.exception.InvalidMoneyOperationException;
+import com.example.tinyledger.ledger.domain.Ledger;
+import com.example.tinyledger.ledger.domain.Money;
+import com.example.tinyledger.ledger.metrics.LedgerMetrics;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LedgerInMemoryRepositoryTest {
+
+    @Test
+    @DisplayName("Should return only the ledgers of the given user")
+    void shouldReturnOnlyLedgersOfGivenUser() {
+        var repository = new LedgerInMemoryRepository(LedgerMetrics.NONE);
+        var userId = UUID.randomUUID();
+        var first = repository.save(new Ledger("First", userId));
+        var second = repository.save(new Ledger("Second", userId));
+        repository.save(new Ledger("Other", UUID.randomUUID()));
+
+        var ledgerIds = repository.getLedgersByUserId(userId).stream()
+                .map(Ledger::getId)
+                .collect(Collectors.toSet());
+
+        assertEquals(Set.of(first.getId(), second.getId()), ledgerIds);
+    }
+
+    @Test
+    @DisplayName("Should return no ledgers for an unknown user")
+    void shouldReturnNoLedgersForUnknownUser() {
+        var repository = new LedgerInMemoryRepository(LedgerMetrics.NONE);
+        repository.save(new Ledger("Other", UUID.randomUUID()));
+
+        assertTrue(repository.getLedgersByUserId(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should index every ledger saved concurrently for the same user")
+    void shouldIndexEveryLedgerSavedConcurrently() throws InterruptedException {
+        var repository = new LedgerInMemoryRepository(LedgerMetrics.NONE);
+        var userId = UUID.randomUUID();
+        int threadCount = 10;
+        int ledgersPerThread = 100;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < ledgersPerThread; j++) {
+                        repository.save(new Ledger("Ledger", userId));
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS), "All threads should complete within timeout");
+        executor.shutdown();
+        assertEquals(threadCount * ledgersPerThread, repository.getLedgersByUserId(userId).size());
+    }
+
+    @Test
+    @DisplayName("Should keep the user balance equal to the sum of the user's ledger balances")
+    void shouldKeepUserBalanceEqualToSumOfLedgerBalances() throws InterruptedException {
+        var repository = new LedgerInMemoryRepository(LedgerMetrics.NONE);
+        var userId = UUID.randomUUID();
+        var funded = new Ledger("Funded", userId);
+        funded.deposit(new Money(1_000L));
+        repository.save(funded);
+        var ledgers = List.of(
+                funded, repository.save(new Ledger("First", userId)), repository.save(new Ledger("Second", userId)));
+        repository.save(new Ledger("Other", UUID.randomUUID())).deposit(new Money(500L));
+        int threadCount = 8;
+        int operationsPerThread = 1_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            executor.submit(() -> {
+                try {
+                    var random = ThreadLocalRandom.current();
+                    for (int j = 0; j < operationsPerThread; j++) {
+                        var ledger = ledgers.get(random.nextInt(ledgers.size()));
+                        if (random.nextBoolean()) {
+                            ledger.deposit(new Money(random.nextLong(1, 100)));
+                        } else {
+                            try {
+                                ledger.withdraw(new Money(random.nextLong(1, 100)));
+                            } catch (InvalidMoneyOperationException e) {
+                                // Insufficient funds, the balance is unchanged
+                            }
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS), "All threads should complete within timeout");
+        executor.shutdown();
+        var expected = ledgers.stream().mapToLong(ledger -> ledger.getBalance().amount()).sum();
+        assertEquals(expected, repository.getBalanceByUserId(userId));
+        assertEquals(0L, repository.getBalanceByUserId(UUID.randomUUID()));
+    }
+}
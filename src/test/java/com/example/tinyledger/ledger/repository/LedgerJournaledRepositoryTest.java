@@ -0,0 +1,348 @@
+package com.example.tinyledger.ledger.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.tinyledger.common.exception.EntityAlreadyExistsException;
+import com.example.tinyledger.common.exception.InvalidMoneyOperationException;
+import com.example.tinyledger.common.id.IdGenerator;
+import com.example.tinyledger.common.journal.FsyncPolicy;
+import com.example.tinyledger.common.journal.Journal;
+import com.example.tinyledger.common.journal.JournalRecord;
+import com.example.tinyledger.common.journal.SnapshotStore;
+import com.example.tinyledger.ledger.domain.HistoryStorage;
+import com.example.tinyledger.ledger.domain.Ledger;
+import com.example.tinyledger.ledger.domain.Money;
+import com.example.tinyledger.ledger.domain.PostingLeg;
+import com.example.tinyledger.ledger.domain.TieredHistoryStorage;
+import com.example.tinyledger.ledger.domain.TransactionCommand;
+import com.example.tinyledger.ledger.domain.TransactionHistoryFactory;
+import com.example.tinyledger.ledger.domain.TransactionType;
+import com.example.tinyledger.ledger.metrics.LedgerMetrics;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LedgerJournaledRepositoryTest {
+    private static final TransactionHistoryFactory OBJECTS = HistoryStorage.OBJECTS;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should restore ledgers and transactions after a restart")
+    void shouldRestoreLedgersAndTransactionsAfterRestart() {
+        var userId = UUID.randomUUID();
+        var ledger = new Ledger("Savings", userId);
+
+        try (var journal = open()) {
+            var repository = repository(journal, OBJECTS);
+            repository.save(ledger);
+            ledger.deposit(new Money(100L));
+            ledger.withdraw(new Money(30L));
+            repository.awaitDurable();
+        }
+
+        try (var journal = open()) {
+            var repository = repository(journal, OBJECTS);
+            var restored = repository.get(ledger.getId()).orElseThrow();
+
+            assertEquals("Savings", restored.getName());
+            assertEquals(userId, restored.getUserId());
+            assertEquals(70L, restored.getBalance().amount());
+            assertEquals(ledger.getTransactions(), restored.getTransactions());
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep journaling transactions of restored ledgers")
+    void shouldKeepJournalingTransactionsOfRestoredLedgers() {
+        var ledger = new Ledger("Savings", UUID.randomUUID());
+        try (var journal = open()) {
+            repository(journal, OBJECTS).save(ledger);
+        }
+
+        try (var journal = open()) {
+            repository(journal, OBJECTS).get(ledger.getId()).orElseThrow().deposit(new Money(50L));
+        }
+
+        try (var journal = open()) {
+            var restored = repository(journal, OBJECTS).get(ledger.getId()).orElseThrow();
+            assertEquals(50L, restored.getBalance().amount());
+        }
+    }
+
+    @Test
+    @DisplayName("Should not journal rejected withdrawals")
+    void shouldNotJournalRejectedWithdrawals() {
+        var ledger = new Ledger("Savings", UUID.randomUUID());
+        try (var journal = open()) {
+            repository(journal, OBJECTS).save(ledger);
+            assertThrows(InvalidMoneyOperationException.class, () -> ledger.withdraw(new Money(10L)));
+        }
+
+        try (var journal = open()) {
+            var restored = repository(journal, OBJECTS).get(ledger.getId()).orElseThrow();
+            assertEquals(0, restored.getTransactions().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject saving the same ledger twice")
+    void shouldRejectSavingSameLedgerTwice() {
+        var ledger = new Ledger("Savings", UUID.randomUUID());
+        try (var journal = open()) {
+            var repository = repository(journal, OBJECTS);
+            repository.save(ledger);
+
+            assertThrows(EntityAlreadyExistsException.class, () -> repository.save(ledger));
+        }
+    }
+
+    @Test
+    @DisplayName("Should restore from a snapshot and replay only the journal tail")
+    void shouldRestoreFromSnapshotAndReplayJournalTail() {
+        var ledger = new Ledger("Savings", UUID.randomUUID());
+        try (var journal = open()) {
+            var repository = repository(journal, OBJECTS);
+            repository.save(ledger);
+            ledger.deposit(new Money(100L));
+            var position = repository.journalPosition();
+            // Taken while writes continue: this deposit lands both in the snapshot and in the replayed tail
+            ledger.deposit(new Money(50L));
+            snapshots().write(position, List.of(), repository.getLedgers());
+            ledger.withdraw(new Money(25L));
+            journal.deleteSegmentsBefore(position);
+        }
+
+        try (var journal = open()) {
+            var repository = repository(journal, OBJECTS);
+            var restored = repository.get(ledger.getId()).orElseThrow();
+
+            assertEquals(125L, restored.getBalance().amount());
+            assertEquals(125L, repository.getBalanceByUserId(ledger.getUserId()));
+            assertEquals(ledger.getTransactions(), restored.getTransactions());
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep a transaction journaled before the snapshot position but not yet in the history")
+    void shouldKeepTransactionJournaledBeforeSnapshotPosition() throws Exception {
+        var ledger = new Ledger("Savings", UUID.randomUUID());
+        try (var journal = open()) {
+            var repository = repository(journal, OBJECTS);
+            repository.save(ledger);
+            ledger.deposit(new Money(100L));
+            // Runs after the journal: holds the deposit between the journal and the history
+            var journaled = new CountDownLatch(1);
+            var release = new CountDownLatch(1);
+            ledger.addTransactionListener(transaction -> {
+                journaled.countDown();
+                awaitUninterruptibly(release);
+            });
+            var deposit = Thread.ofPlatform().start(() -> ledger.deposit(new Money(50L)));
+            journaled.await();
+            var position = repository.journalPosition();
+            var snapshot = Thread.ofPlatform()
+                    .start(() -> snapshots().write(position, List.of(), repository.getLedgers()));
+            Thread.sleep(50);
+            release.countDown();
+            deposit.join();
+            snapshot.join();
+            journal.deleteSegmentsBefore(position);
+        }
+
+        try (var journal = open()) {
+            var restored = repository(journal, OBJECTS).get(ledger.getId()).orElseThrow();
+
+            assertEquals(150L, restored.getBalance().amount());
+            assertEquals(ledger.getTransactions(), restored.getTransactions());
+        }
+    }
+
+    @Test
+    @DisplayName("Should restore every transaction after snapshots raced with concurrent deposits")
+    void shouldRestoreAfterSnapshotsRacedWithDeposits() throws Exception {
+        var ledgers = new ArrayList<Ledger>();
+        try (var journal = open()) {
+            var repository = repository(journal, OBJECTS);
+            for (int i = 0; i < 4; i++) {
+                ledgers.add(repository.save(new Ledger("Ledger " + i, UUID.randomUUID())));
+            }
+            var depositors = ledgers.stream()
+                    .map(ledger -> Thread.ofPlatform().start(() -> {
+                        for (int i = 0; i < 2_000; i++) {
+                            ledger.deposit(new Money(1L));
+                        }
+                    }))
+                    .toList();
+            var lastPosition = -1L;
+            while (depositors.stream().anyMatch(Thread::isAlive)) {
+                var position = repository.journalPosition();
+                if (position == lastPosition) {
+                    continue;
+                }
+                lastPosition = position;
+                snapshots().write(position, List.of(), repository.getLedgers());
+                journal.deleteSegmentsBefore(position);
+                snapshots().deleteBefore(position);
+            }
+            for (var depositor : depositors) {
+                depositor.join();
+            }
+        }
+
+        try (var journal = open()) {
+            var repository = repository(journal, OBJECTS);
+            for (var ledger : ledgers) {
+                assertEquals(
+                        2_000L, repository.get(ledger.getId()).orElseThrow().getBalance().amount());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should restore from a snapshot after the journal segments it covers were deleted")
+    void shouldRestoreFromSnapshotAfterJournalSegmentsWereDeleted() {
+        var ledgers = new ArrayList<Ledger>();
+        try (var journal = open()) {
+            var repository = repository(journal, OBJECTS);
+            for (int i = 0; i < 1000; i++) {
+                var ledger = repository.save(new Ledger("Ledger " + i, UUID.randomUUID()));
+                ledger.deposit(new Money(i + 1L));
+                ledgers.add(ledger);
+            }
+            var position = repository.journalPosition();
+            snapshots().write(position, List.of(), repository.getLedgers());
+            journal.deleteSegmentsBefore(position);
+            snapshots().deleteBefore(position);
+        }
+
+        try (var journal = open()) {
+            var repository = repository(journal, OBJECTS);
+
+            assertEquals(1000, repository.getLedgers().size());
+            for (var ledger : ledgers) {
+                assertEquals(
+                        ledger.getBalance(),
+                        repository.get(ledger.getId()).orElseThrow().getBalance());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should journal every leg of a posting and every transaction of a batch as one record each")
+    void shouldJournalPostingsAndBatchesAsOneRecordEach() {
+        var savings = new Ledger("Savings", UUID.randomUUID());
+        var checking = new Ledger("Checking", UUID.randomUUID());
+        try (var journal = open()) {
+            var repository = repository(journal, OBJECTS);
+            repository.save(savings);
+            repository.save(checking);
+            savings.apply(List.of(
+                    new TransactionCommand(TransactionType.DEPOSIT, new Money(100L)),
+                    new TransactionCommand(TransactionType.WITHDRAW, new Money(30L))));
+            Ledger.post(
+                    List.of(
+                            new PostingLeg(savings.getId(), TransactionType.WITHDRAW, new Money(50L)),
+                            new PostingLeg(checking.getId(), TransactionType.DEPOSIT, new Money(50L))),
+                    Map.of(savings.getId(), savings, checking.getId(), checking));
+            repository.awaitDurable();
+        }
+
+        var records = new ArrayList<JournalRecord>();
+        try (var journal = open()) {
+            journal.replay(records::add);
+            var restored = repository(journal, OBJECTS);
+
+            assertEquals(
+                    List.of(2, 2),
+                    records.stream()
+                            .filter(JournalRecord.TransactionsAppended.class::isInstance)
+                            .map(record -> ((JournalRecord.TransactionsAppended) record)
+                                    .transactions()
+                                    .size())
+                            .toList());
+            assertEquals(
+                    savings.getTransactions(),
+                    restored.get(savings.getId()).orElseThrow().getTransactions());
+            assertEquals(
+                    checking.getTransactions(),
+                    restored.get(checking.getId()).orElseThrow().getTransactions());
+        }
+    }
+
+    @Test
+    @DisplayName("Should restore ledgers into columnar history from a snapshot and the journal tail")
+    void shouldRestoreLedgersIntoColumnarHistory() {
+        var columnar = HistoryStorage.COLUMNAR;
+        var ledger = new Ledger("Savings", UUID.randomUUID(), columnar);
+        try (var journal = open()) {
+            var repository = repository(journal, columnar);
+            repository.save(ledger);
+            ledger.deposit(new Money(100L));
+            snapshots().write(repository.journalPosition(), List.of(), repository.getLedgers());
+            ledger.withdraw(new Money(40L));
+        }
+
+        try (var journal = open()) {
+            var restored = repository(journal, columnar).get(ledger.getId()).orElseThrow();
+
+            assertEquals(60L, restored.getBalance().amount());
+            assertEquals(ledger.getTransactions(), restored.getTransactions());
+        }
+    }
+
+    @Test
+    @DisplayName("Should restore ledgers into tiered history from a snapshot and the journal tail")
+    void shouldRestoreLedgersIntoTieredHistory() {
+        var ledger = new Ledger("Savings", UUID.randomUUID());
+        try (var journal = open()) {
+            var repository = repository(journal, OBJECTS);
+            repository.save(ledger);
+            for (int i = 0; i < 300; i++) {
+                ledger.deposit(new Money(1L));
+            }
+            snapshots().write(repository.journalPosition(), List.of(), repository.getLedgers());
+            for (int i = 0; i < 200; i++) {
+                ledger.deposit(new Money(1L));
+            }
+        }
+
+        try (var journal = open();
+                var tiered = new TieredHistoryStorage(HistoryStorage.OBJECTS, directory.resolve("history"), 64, 64)) {
+            var restored = repository(journal, tiered).get(ledger.getId()).orElseThrow();
+
+            assertEquals(500L, restored.getBalance().amount());
+            assertEquals(ledger.getTransactions(), restored.getTransactions());
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private LedgerJournaledRepository repository(Journal journal, TransactionHistoryFactory historyFactory) {
+        return new LedgerJournaledRepository(
+                journal, snapshots(), historyFactory, IdGenerator.timeOrdered(), LedgerMetrics.NONE);
+    }
+
+    private SnapshotStore snapshots() {
+        return new SnapshotStore(directory.resolve("snapshots"));
+    }
+
+    private Journal open() {
+        return Journal.open(directory.resolve("journal"), 1 << 16, FsyncPolicy.BATCH, Duration.ofMillis(100));
+    }
+}
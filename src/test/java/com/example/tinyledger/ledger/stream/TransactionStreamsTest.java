@@ -0,0 +1,220 @@
+package com.example.tinyledger.ledger.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.tinyledger.common.exception.EntityNotFoundException;
+import com.example.tinyledger.ledger.domain.Ledger;
+import com.example.tinyledger.ledger.domain.Money;
+import com.example.tinyledger.ledger.domain.Transaction;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class TransactionStreamsTest {
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(\\S+)$", Pattern.MULTILINE);
+
+    private final TransactionStreams streams =
+            new TransactionStreams(new TransactionStreamProperties(10, Duration.ofSeconds(15), Duration.ofSeconds(15)));
+
+    @AfterEach
+    void tearDown() {
+        streams.close();
+    }
+
+    @Test
+    @DisplayName("Should stream transactions appended after subscribing")
+    void shouldStreamTransactionsAppendedAfterSubscribing() throws InterruptedException {
+        var ledger = new Ledger("Savings", UUID.randomUUID());
+        ledger.deposit(new Money(100L));
+        var emitter = new RecordingEmitter();
+        streams.subscribe(ledger, null, emitter);
+
+        var first = ledger.deposit(new Money(200L));
+        var second = ledger.withdraw(new Money(50L));
+
+        await(() -> emitter.ids.size() == 2);
+        assertEquals(List.of(first.id().toString(), second.id().toString()), emitter.ids);
+    }
+
+    @Test
+    @DisplayName("Should resume after the last event id")
+    void shouldResumeAfterLastEventId() throws InterruptedException {
+        var ledger = new Ledger("Savings", UUID.randomUUID());
+        var seen = ledger.deposit(new Money(100L));
+        var missed = ledger.deposit(new Money(200L));
+        var emitter = new RecordingEmitter();
+        streams.subscribe(ledger, seen.id(), emitter);
+
+        var live = ledger.deposit(new Money(300L));
+
+        await(() -> emitter.ids.size() == 2);
+        assertEquals(List.of(missed.id().toString(), live.id().toString()), emitter.ids);
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown last event id")
+    void shouldRejectUnknownLastEventId() {
+        var ledger = new Ledger("Savings", UUID.randomUUID());
+        ledger.deposit(new Money(100L));
+
+        assertThrows(
+                EntityNotFoundException.class,
+                () -> streams.subscribe(ledger, UUID.randomUUID(), new RecordingEmitter()));
+    }
+
+    @Test
+    @DisplayName("Should disconnect a subscriber that falls too far behind without blocking writers")
+    void shouldDisconnectSlowSubscriberWithoutBlockingWriters() throws InterruptedException {
+        var ledger = new Ledger("Savings", UUID.randomUUID());
+        var release = new CountDownLatch(1);
+        var emitter = new RecordingEmitter(release);
+        streams.subscribe(ledger, null, emitter);
+        await(() -> streams.subscriberCount() == 1);
+
+        ledger.deposit(new Money(1L));
+        await(() -> emitter.ids.size() == 1);
+        // The subscriber is stuck sending the first transaction, deposits must still go through
+        for (int i = 0; i < 100; i++) {
+            ledger.deposit(new Money(1L));
+        }
+        assertEquals(101, ledger.getTransactionCount());
+        release.countDown();
+
+        await(() -> emitter.completed);
+        await(() -> streams.subscriberCount() == 0);
+        assertEquals(1, emitter.ids.size());
+    }
+
+    @Test
+    @DisplayName("Should disconnect a subscriber whose send does not complete in time")
+    void shouldDisconnectSubscriberWhoseSendTimesOut() throws InterruptedException {
+        var timingOut = new TransactionStreams(
+                new TransactionStreamProperties(10, Duration.ofSeconds(15), Duration.ofMillis(100)));
+        try {
+            var ledger = new Ledger("Savings", UUID.randomUUID());
+            // Never released, as a client that stops reading
+            var emitter = new RecordingEmitter(new CountDownLatch(1));
+            timingOut.subscribe(ledger, null, emitter);
+
+            ledger.deposit(new Money(1L));
+
+            await(() -> emitter.failed);
+            await(() -> timingOut.subscriberCount() == 0);
+            assertEquals(0, timingOut.feedCount());
+        } finally {
+            timingOut.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should drop a ledger's feed with its last subscriber")
+    void shouldDropFeedWithLastSubscriber() throws InterruptedException {
+        var ledger = new Ledger("Savings", UUID.randomUUID());
+        var first = new RecordingEmitter();
+        var second = new RecordingEmitter();
+        streams.subscribe(ledger, null, first);
+        streams.subscribe(ledger, null, second);
+        assertEquals(1, streams.feedCount());
+
+        first.completeWithError(new IOException("Client went away"));
+        await(() -> streams.subscriberCount() == 1);
+        assertEquals(1, streams.feedCount());
+        second.completeWithError(new IOException("Client went away"));
+        await(() -> streams.feedCount() == 0);
+
+        // A new subscriber gets a new feed that is woken up by appends
+        var third = new RecordingEmitter();
+        streams.subscribe(ledger, null, third);
+        var deposit = ledger.deposit(new Money(1L));
+        await(() -> third.ids.size() == 1);
+        assertEquals(List.of(deposit.id().toString()), third.ids);
+    }
+
+    @Test
+    @DisplayName("Should let a reconnecting subscriber catch up from any lag")
+    void shouldLetReconnectingSubscriberCatchUpFromAnyLag() throws InterruptedException {
+        var ledger = new Ledger("Savings", UUID.randomUUID());
+        var seen = ledger.deposit(new Money(1L));
+        for (int i = 0; i < 1_000; i++) {
+            ledger.deposit(new Money(1L));
+        }
+        var emitter = new RecordingEmitter();
+        streams.subscribe(ledger, seen.id(), emitter);
+
+        await(() -> emitter.ids.size() == 1_000);
+        var expected = ledger.getTransactions().stream()
+                .skip(1)
+                .map(Transaction::id)
+                .map(UUID::toString)
+                .toList();
+        assertEquals(expected, emitter.ids);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition should hold within timeout");
+            Thread.sleep(5);
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> ids = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+        private volatile boolean completed;
+        private volatile boolean failed;
+        private volatile Runnable onError = () -> {};
+
+        private RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        private RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            for (var part : builder.build()) {
+                if (part.getData() instanceof String text) {
+                    EVENT_ID.matcher(text).results().forEach(match -> ids.add(match.group(1)));
+                }
+            }
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void completeWithError(Throwable error) {
+            failed = true;
+            onError.run();
+        }
+
+        @Override
+        public void onError(Consumer<Throwable> callback) {
+            onError = () -> callback.accept(new IOException("Client went away"));
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.tinyledger.ledger.tcp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.tinyledger.common.id.IdGenerator;
+import com.example.tinyledger.common.idempotency.IdempotencyCache;
+import com.example.tinyledger.ledger.controller.exception.ApiError;
+import com.example.tinyledger.ledger.domain.Balance;
+import com.example.tinyledger.ledger.domain.HistoryStorage;
+import com.example.tinyledger.ledger.domain.TransactionType;
+import com.example.tinyledger.ledger.engine.DirectLedgerCommandExecutor;
+import com.example.tinyledger.ledger.metrics.LedgerMetrics;
+import com.example.tinyledger.ledger.repository.LedgerInMemoryRepository;
+import com.example.tinyledger.ledger.service.LedgerService;
+import com.example.tinyledger.user.repository.UserInMemoryRepository;
+import com.example.tinyledger.user.service.UserService;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class TcpIngestionServerTest {
+    private LedgerService ledgerService;
+    private TcpIngestionServer server;
+    private UUID ledgerId;
+
+    @BeforeEach
+    void setUp() {
+        var userService = new UserService(new UserInMemoryRepository(), IdGenerator.timeOrdered());
+        ledgerService = new LedgerService(
+                new LedgerInMemoryRepository(LedgerMetrics.NONE),
+                userService,
+                HistoryStorage.OBJECTS,
+                new DirectLedgerCommandExecutor(),
+                new IdempotencyCache(100, Duration.ofHours(1), Clock.systemUTC()),
+                IdGenerator.timeOrdered(),
+                LedgerMetrics.NONE);
+        var user = userService.createUser("Ada", "Lovelace", "ada@example.com");
+        ledgerId = ledgerService.createLedger("Savings", user.id()).getId();
+        // A small in-flight limit so that pipelined requests also exercise pausing reads
+        server = new TcpIngestionServer(ledgerService, LedgerMetrics.NONE, new TcpIngestionProperties(true, 0, 4));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Should answer every pipelined request with its request id")
+    void shouldAnswerPipelinedRequests() throws IOException {
+        var requests = ByteBuffer.allocate(64 * 1024);
+        for (int i = 0; i < 500; i++) {
+            BinaryProtocol.putCreateTransaction(requests, i, ledgerId, TransactionType.DEPOSIT, 10, null);
+        }
+
+        var responses = exchange(requests, 500);
+
+        assertEquals(500, responses.size());
+        var transactionIds = new HashSet<UUID>();
+        responses.values().forEach(response -> {
+            assertNull(response.error());
+            transactionIds.add(response.transactionId());
+        });
+        assertEquals(500, transactionIds.size());
+        assertEquals(
+                5_000, ledgerService.getBalance(ledgerId, null).balance().amount());
+
+        var balance = ByteBuffer.allocate(64);
+        BinaryProtocol.putGetBalance(balance, 1, ledgerId);
+        assertEquals(5_000, exchange(balance, 1).get(1L).balance());
+    }
+
+    @Test
+    @DisplayName("Should answer with the error codes of the REST API")
+    void shouldAnswerWithRestErrorCodes() throws IOException {
+        var requests = ByteBuffer.allocate(1024);
+        BinaryProtocol.putGetBalance(requests, 1, UUID.randomUUID());
+        BinaryProtocol.putCreateTransaction(requests, 2, ledgerId, TransactionType.WITHDRAW, 10, null);
+        BinaryProtocol.putCreateTransaction(requests, 3, ledgerId, TransactionType.DEPOSIT, 0, null);
+        BinaryProtocol.putCreateTransaction(requests, 4, ledgerId, TransactionType.DEPOSIT, 10, "k".repeat(300));
+        // An unknown opcode in an otherwise well-formed frame
+        requests.putInt(9).put((byte) 42).putLong(5);
+
+        var responses = exchange(requests, 5);
+
+        assertEquals(ApiError.ErrorCode.ENTITY_NOT_FOUND, responses.get(1L).error());
+        assertEquals(ApiError.ErrorCode.INVALID_MONEY_OPERATION, responses.get(2L).error());
+        assertEquals(ApiError.ErrorCode.BAD_REQUEST, responses.get(3L).error());
+        assertEquals(ApiError.ErrorCode.INVALID_IDEMPOTENCY_KEY, responses.get(4L).error());
+        assertEquals(ApiError.ErrorCode.BAD_REQUEST, responses.get(5L).error());
+        assertNotNull(responses.get(1L).message());
+    }
+
+    @Test
+    @DisplayName("Should truncate long error messages between characters")
+    void shouldTruncateLongErrorMessagesBetweenCharacters() throws IOException {
+        var key = "€".repeat(IdempotencyCache.MAX_KEY_LENGTH);
+        var requests = ByteBuffer.allocate(1024);
+        BinaryProtocol.putCreateTransaction(requests, 1, ledgerId, TransactionType.DEPOSIT, 10, key);
+        exchange(requests, 1);
+        requests.clear();
+        BinaryProtocol.putCreateTransaction(requests, 2, ledgerId, TransactionType.DEPOSIT, 20, key);
+
+        var message = exchange(requests, 1).get(2L).message();
+
+        assertNotNull(message);
+        assertTrue(message.getBytes(StandardCharsets.UTF_8).length <= 512);
+        assertTrue(message.endsWith("€"), message);
+    }
+
+    @Test
+    @DisplayName("Should create a transaction once per idempotency key")
+    void shouldCreateTransactionOncePerIdempotencyKey() throws IOException {
+        var requests = ByteBuffer.allocate(1024);
+        BinaryProtocol.putCreateTransaction(requests, 1, ledgerId, TransactionType.DEPOSIT, 10, "retry-1");
+        var first = exchange(requests, 1).get(1L);
+        requests.clear();
+        BinaryProtocol.putCreateTransaction(requests, 2, ledgerId, TransactionType.DEPOSIT, 10, "retry-1");
+        var retried = exchange(requests, 1).get(2L);
+
+        assertEquals(first.transactionId(), retried.transactionId());
+        assertEquals(10, ledgerService.getBalance(ledgerId, null).balance().amount());
+    }
+
+    @Test
+    @DisplayName("Should answer a request whose handling throws an error and keep serving the connection")
+    // A request left unanswered would leave the client waiting for the connection to close
+    @Timeout(10)
+    void shouldAnswerRequestThatThrowsError() throws IOException {
+        var userService = new UserService(new UserInMemoryRepository(), IdGenerator.timeOrdered());
+        var failing = new LedgerService(
+                new LedgerInMemoryRepository(LedgerMetrics.NONE),
+                userService,
+                HistoryStorage.OBJECTS,
+                new DirectLedgerCommandExecutor(),
+                new IdempotencyCache(100, Duration.ofHours(1), Clock.systemUTC()),
+                IdGenerator.timeOrdered(),
+                LedgerMetrics.NONE) {
+            @Override
+            public Balance getBalance(UUID ledgerId, Instant asOf) {
+                throw new AssertionError("Balance is broken");
+            }
+        };
+        var user = userService.createUser("Ada", "Lovelace", "ada@example.com");
+        var failingLedgerId = failing.createLedger("Savings", user.id()).getId();
+        server.close();
+        // An in-flight limit of one, so a leaked slot would stop the connection from reading the second request
+        server = new TcpIngestionServer(failing, LedgerMetrics.NONE, new TcpIngestionProperties(true, 0, 1));
+        var requests = ByteBuffer.allocate(1024);
+        BinaryProtocol.putGetBalance(requests, 1, failingLedgerId);
+        BinaryProtocol.putCreateTransaction(requests, 2, failingLedgerId, TransactionType.DEPOSIT, 10, null);
+
+        var responses = exchange(requests, 2);
+
+        assertEquals(ApiError.ErrorCode.INTERNAL_SERVER_ERROR, responses.get(1L).error());
+        assertNull(responses.get(2L).error());
+    }
+
+    // Sends everything in one write, half-closes and reads until the server has answered and closed the connection
+    private Map<Long, BinaryProtocol.Response> exchange(ByteBuffer requests, int expected) throws IOException {
+        var responses = new HashMap<Long, BinaryProtocol.Response>();
+        try (var channel = SocketChannel.open(new InetSocketAddress("localhost", server.port()))) {
+            requests.flip();
+            while (requests.hasRemaining()) {
+                channel.write(requests);
+            }
+            channel.shutdownOutput();
+            var input = ByteBuffer.allocate(64 * 1024);
+            while (channel.read(input) >= 0) {
+                input.flip();
+                BinaryProtocol.Response response;
+                while ((response = BinaryProtocol.readResponse(input)) != null) {
+                    responses.put(response.requestId(), response);
+                }
+                input.compact();
+            }
+        }
+        assertEquals(expected, responses.size());
+        return responses;
+    }
+}